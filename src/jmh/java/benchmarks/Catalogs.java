@@ -0,0 +1,64 @@
+package benchmarks;
+
+import util.LessonResources;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic catalogs for the benchmarks, shaped like
+ * {@link LessonResources#createMenu()} but of any size.
+ */
+final class Catalogs {
+
+    private Catalogs() {
+    }
+
+    /**
+     * A Breakfast/Lunch/Dinner menu with {@code size} items in total, split
+     * between the sections in the same 5:3:4 ratio as the lesson menu. Each
+     * section repeats the lesson's items in order; copies after the first
+     * get a numbered suffix so every name stays unique.
+     *
+     * A size of 12 returns the lesson menu itself.
+     */
+    static Menu menuOfSize(int size) {
+        Menu template = LessonResources.createMenu();
+        if (size == 12) {
+            return template;
+        }
+        List<Section> sections = template.getSections();
+        int breakfast = size * 5 / 12;
+        int lunch = size * 3 / 12;
+        int[] sizes = {breakfast, lunch, size - breakfast - lunch};
+        Section[] scaled = new Section[sections.size()];
+        for (int s = 0; s < scaled.length; s++) {
+            scaled[s] = new Section(sections.get(s).getName(), repeat(sections.get(s).getItems(), sizes[s]));
+        }
+        return new Menu(scaled);
+    }
+
+    /**
+     * Every item of the menu in order, as one list.
+     */
+    static List<Food> itemsOf(Menu menu) {
+        List<Food> items = new ArrayList<>();
+        for (Section section : menu.getSections()) {
+            items.addAll(section.getItems());
+        }
+        return items;
+    }
+
+    private static List<Food> repeat(List<Food> template, int size) {
+        List<Food> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Food food = template.get(i % template.size());
+            String name = i < template.size() ? food.getName() : food.getName() + " #" + i;
+            items.add(new Food(name, food.isGlutenFree(), food.getPrice()));
+        }
+        return items;
+    }
+}
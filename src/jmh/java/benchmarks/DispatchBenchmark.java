@@ -0,0 +1,141 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.LessonResources.MyFirstFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * How the call sites from {@code LessonA_Lambda} and
+ * {@code LessonC_DoubleColons} perform as they see more receiver classes.
+ *
+ * Each of the {@code call*} benchmarks drives one call site with
+ * {@value #CALLS} receivers. With {@code profile=monomorphic} they are all the
+ * same class; {@code bimorphic} alternates two; {@code megamorphic} cycles
+ * through four, which is past what HotSpot will inline. Every lambda and
+ * anonymous class below is a class of its own, so the implementations differ
+ * only in how they were written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    static final int CALLS = 1024;
+
+    @Param({"monomorphic", "bimorphic", "megamorphic"})
+    public String profile;
+
+    private MyFirstFunction[] firstFunctions;
+    private List<Function<Integer, String>> intToStrings;
+    private List<Comparator<String>> comparators;
+    private Integer[] ints;
+    private String[] strings;
+
+    @Setup
+    public void setUp() {
+        MyFirstFunction[] firstFunctionKinds = {
+                () -> true,
+                new MyFirstFunction() {
+                    @Override
+                    public boolean apply() {
+                        return true;
+                    }
+                },
+                () -> {
+                    return true;
+                },
+                Boolean.TRUE::booleanValue,
+        };
+        List<Function<Integer, String>> intToStringKinds = Arrays.asList(
+                i -> String.valueOf(i),
+                String::valueOf,
+                new Function<Integer, String>() {
+                    @Override
+                    public String apply(Integer i) {
+                        return String.valueOf(i);
+                    }
+                },
+                Object::toString);
+        List<Comparator<String>> comparatorKinds = Arrays.asList(
+                String::compareTo,
+                (a, b) -> a.compareTo(b),
+                this::compareStrings,
+                new Comparator<String>() {
+                    @Override
+                    public int compare(String a, String b) {
+                        return a.compareTo(b);
+                    }
+                });
+
+        int kinds = profile.equals("monomorphic") ? 1 : profile.equals("bimorphic") ? 2 : 4;
+        firstFunctions = new MyFirstFunction[CALLS];
+        intToStrings = new ArrayList<>(CALLS);
+        comparators = new ArrayList<>(CALLS);
+        ints = new Integer[CALLS];
+        strings = new String[CALLS + 1];
+        for (int i = 0; i < CALLS; i++) {
+            firstFunctions[i] = firstFunctionKinds[i % kinds];
+            intToStrings.add(intToStringKinds.get(i % kinds));
+            comparators.add(comparatorKinds.get(i % kinds));
+            ints[i] = i;
+            strings[i] = "name" + (i * 7919 % CALLS);
+        }
+        strings[CALLS] = strings[0];
+    }
+
+    private int compareStrings(String a, String b) {
+        return a.compareTo(b);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int callMyFirstFunction() {
+        int trues = 0;
+        for (MyFirstFunction function : firstFunctions) {
+            if (function.apply()) {
+                trues++;
+            }
+        }
+        return trues;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int callFunction() {
+        int length = 0;
+        for (int i = 0; i < CALLS; i++) {
+            length += intToStrings.get(i).apply(ints[i]).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int callComparator() {
+        int sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += comparators.get(i).compare(strings[i], strings[i + 1]);
+        }
+        return sum;
+    }
+}
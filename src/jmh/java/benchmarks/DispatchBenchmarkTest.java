@@ -0,0 +1,31 @@
+package benchmarks;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The receivers differ only in how they were written, so every profile
+ * must compute the same thing.
+ */
+public class DispatchBenchmarkTest {
+
+    @Test
+    public void everyProfileGivesTheSameResult() {
+        DispatchBenchmark monomorphic = benchmark("monomorphic");
+        for (String profile : new String[]{"bimorphic", "megamorphic"}) {
+            DispatchBenchmark benchmark = benchmark(profile);
+
+            assertThat(benchmark.callMyFirstFunction()).as(profile).isEqualTo(DispatchBenchmark.CALLS);
+            assertThat(benchmark.callFunction()).as(profile).isEqualTo(monomorphic.callFunction());
+            assertThat(benchmark.callComparator()).as(profile).isEqualTo(monomorphic.callComparator());
+        }
+    }
+
+    private static DispatchBenchmark benchmark(String profile) {
+        DispatchBenchmark benchmark = new DispatchBenchmark();
+        benchmark.profile = profile;
+        benchmark.setUp();
+        return benchmark;
+    }
+}
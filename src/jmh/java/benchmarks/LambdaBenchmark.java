@@ -0,0 +1,125 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import util.LessonResources.MyFirstFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the different ways of writing a function from {@code LessonA_Lambda}
+ * and {@code LessonC_DoubleColons} cost to create and to sort with.
+ *
+ * A non-capturing lambda is a cached constant, while capturing lambdas,
+ * bound method references and anonymous classes are new objects each time
+ * they are evaluated. Run with the gc profiler to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LambdaBenchmark {
+
+    private List<String> names;
+    private boolean flag = true;
+
+    @Setup
+    public void setUp() {
+        names = new ArrayList<>(Arrays.asList("Alice", "Bob", "Charles", "Dave", "Ed"));
+        for (int i = 0; i < 1000; i++) {
+            names.add("name" + (i * 7919 % 1000));
+        }
+    }
+
+    private int compareStrings(String a, String b) {
+        return a.length() - b.length();
+    }
+
+    /**
+     * {@code LessonC_DoubleColons}: sorting through an unbound method
+     * reference.
+     */
+    @Benchmark
+    public List<String> sortWithStringCompareTo() {
+        List<String> copy = new ArrayList<>(names);
+        Collections.sort(copy, String::compareTo);
+        return copy;
+    }
+
+    /**
+     * {@code LessonC_DoubleColons}: sorting through a bound method reference.
+     */
+    @Benchmark
+    public List<String> sortWithCompareStrings() {
+        List<String> copy = new ArrayList<>(names);
+        Collections.sort(copy, this::compareStrings);
+        return copy;
+    }
+
+    /**
+     * {@code LessonA_Lambda}: sorting through a lambda.
+     */
+    @Benchmark
+    public List<String> sortWithLambda() {
+        List<String> copy = new ArrayList<>(names);
+        Collections.sort(copy, (a, b) -> a.length() - b.length());
+        return copy;
+    }
+
+    @Benchmark
+    public void createNonCapturingLambda(Blackhole blackhole) {
+        MyFirstFunction function = () -> true;
+        blackhole.consume(function);
+    }
+
+    @Benchmark
+    public void createCapturingLambda(Blackhole blackhole) {
+        boolean value = flag;
+        MyFirstFunction function = () -> value;
+        blackhole.consume(function);
+    }
+
+    @Benchmark
+    public void createAnonymousClass(Blackhole blackhole) {
+        MyFirstFunction function = new MyFirstFunction() {
+            @Override
+            public boolean apply() {
+                return true;
+            }
+        };
+        blackhole.consume(function);
+    }
+
+    @Benchmark
+    public void createBoundMethodReference(Blackhole blackhole) {
+        Comparator<String> comparator = this::compareStrings;
+        blackhole.consume(comparator);
+    }
+
+    /**
+     * A capturing lambda that does not escape, so escape analysis may remove
+     * the allocation.
+     */
+    @Benchmark
+    public boolean callCapturingLambdaInPlace() {
+        boolean value = flag;
+        MyFirstFunction function = () -> value;
+        return function.apply();
+    }
+}
@@ -0,0 +1,23 @@
+package benchmarks;
+
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LambdaBenchmarkTest {
+
+    @Test
+    public void sortsMatchTheirComparators() {
+        LambdaBenchmark benchmark = new LambdaBenchmark();
+        benchmark.setUp();
+        List<String> names = benchmark.sortWithStringCompareTo();
+
+        assertThat(names).isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(benchmark.sortWithCompareStrings()).isSortedAccordingTo(Comparator.comparingInt(String::length));
+        assertThat(benchmark.sortWithLambda()).isEqualTo(benchmark.sortWithCompareStrings());
+        assertThat(benchmark.callCapturingLambdaInPlace()).isTrue();
+    }
+}
@@ -0,0 +1,321 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The stream pipelines from {@code LessonD_Streams}, each run three ways: as
+ * the lesson writes it, as a hand-written loop, and as a parallel stream.
+ *
+ * Run with the gc profiler (the default for {@code gradle jmh}) to get
+ * allocation rates next to throughput and average time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class MenuStreamBenchmark {
+
+    @Param({"12", "1000", "100000", "10000000"})
+    public int size;
+
+    private Menu menu;
+    private List<Food> items;
+    private List<Integer> ints;
+
+    @Setup
+    public void setUp() {
+        menu = Catalogs.menuOfSize(size);
+        items = Catalogs.itemsOf(menu);
+        ints = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ints.add((i * 31) % size);
+        }
+    }
+
+    // _4_combiningFilters: filter + mapToDouble + sum
+
+    @Benchmark
+    public double glutenFreeSum_stream() {
+        return items.stream()
+                .filter(Food::isGlutenFree)
+                .mapToDouble(Food::getPrice)
+                .sum();
+    }
+
+    @Benchmark
+    public double glutenFreeSum_loop() {
+        double sum = 0.0;
+        for (Food food : items) {
+            if (food.isGlutenFree()) {
+                sum += food.getPrice();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double glutenFreeSum_parallel() {
+        return items.parallelStream()
+                .filter(Food::isGlutenFree)
+                .mapToDouble(Food::getPrice)
+                .sum();
+    }
+
+    // _6_collectingToMap: Collectors.toMap
+
+    @Benchmark
+    public Map<String, Food> toMap_stream() {
+        return items.stream()
+                .collect(Collectors.toMap(Food::getName, f -> f));
+    }
+
+    @Benchmark
+    public Map<String, Food> toMap_loop() {
+        Map<String, Food> cache = new HashMap<>();
+        for (Food food : items) {
+            if (cache.putIfAbsent(food.getName(), food) != null) {
+                throw new IllegalStateException("Duplicate key " + food.getName());
+            }
+        }
+        return cache;
+    }
+
+    @Benchmark
+    public Map<String, Food> toMap_parallel() {
+        return items.parallelStream()
+                .collect(Collectors.toMap(Food::getName, f -> f));
+    }
+
+    // _7_flatMap: flatMap + averagingDouble, and flatMap + filter + count
+
+    @Benchmark
+    public double averagePrice_stream() {
+        return menu.getSections().stream()
+                .flatMap(section -> section.getItems().stream())
+                .collect(Collectors.averagingDouble(Food::getPrice));
+    }
+
+    @Benchmark
+    public double averagePrice_loop() {
+        double sum = 0.0;
+        long count = 0;
+        for (Section section : menu.getSections()) {
+            for (Food food : section.getItems()) {
+                sum += food.getPrice();
+                count++;
+            }
+        }
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    @Benchmark
+    public double averagePrice_parallel() {
+        return menu.getSections().parallelStream()
+                .flatMap(section -> section.getItems().stream())
+                .collect(Collectors.averagingDouble(Food::getPrice));
+    }
+
+    @Benchmark
+    public long expensiveCount_stream() {
+        return menu.getSections().stream()
+                .flatMap(section -> section.getItems().stream())
+                .filter(f -> f.getPrice() >= 5.0)
+                .count();
+    }
+
+    @Benchmark
+    public long expensiveCount_loop() {
+        long count = 0;
+        for (Section section : menu.getSections()) {
+            for (Food food : section.getItems()) {
+                if (food.getPrice() >= 5.0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long expensiveCount_parallel() {
+        return menu.getSections().parallelStream()
+                .flatMap(section -> section.getItems().stream())
+                .filter(f -> f.getPrice() >= 5.0)
+                .count();
+    }
+
+    // _8_finding: findFirst, anyMatch and DoubleStream.min. There is no
+    // gluten free toast, so findFirst has to look at every item.
+
+    @Benchmark
+    public Optional<Double> findFirst_stream() {
+        return menu.getSections().stream()
+                .flatMap(section -> section.getItems().stream())
+                .filter(Food::isGlutenFree)
+                .filter(f -> f.getName().contains("toast"))
+                .map(Food::getPrice)
+                .findFirst();
+    }
+
+    @Benchmark
+    public Optional<Double> findFirst_loop() {
+        for (Section section : menu.getSections()) {
+            for (Food food : section.getItems()) {
+                if (food.isGlutenFree() && food.getName().contains("toast")) {
+                    return Optional.of(food.getPrice());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Benchmark
+    public Optional<Double> findFirst_parallel() {
+        return menu.getSections().parallelStream()
+                .flatMap(section -> section.getItems().stream())
+                .filter(Food::isGlutenFree)
+                .filter(f -> f.getName().contains("toast"))
+                .map(Food::getPrice)
+                .findFirst();
+    }
+
+    @Benchmark
+    public boolean anyMatch_stream() {
+        return menu.getSections().stream()
+                .filter(section -> section.getName().equals("Dinner"))
+                .flatMap(section -> section.getItems().stream())
+                .anyMatch(food -> food.getName().contains("Chicken"));
+    }
+
+    @Benchmark
+    public boolean anyMatch_loop() {
+        for (Section section : menu.getSections()) {
+            if (section.getName().equals("Dinner")) {
+                for (Food food : section.getItems()) {
+                    if (food.getName().contains("Chicken")) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean anyMatch_parallel() {
+        return menu.getSections().parallelStream()
+                .filter(section -> section.getName().equals("Dinner"))
+                .flatMap(section -> section.getItems().stream())
+                .anyMatch(food -> food.getName().contains("Chicken"));
+    }
+
+    @Benchmark
+    public OptionalDouble cheapestDinnerPrice_stream() {
+        return menu.getSections().stream()
+                .filter(section -> section.getName().equals("Dinner"))
+                .flatMap(section -> section.getItems().stream())
+                .mapToDouble(Food::getPrice)
+                .min();
+    }
+
+    @Benchmark
+    public OptionalDouble cheapestDinnerPrice_loop() {
+        boolean found = false;
+        double min = Double.POSITIVE_INFINITY;
+        for (Section section : menu.getSections()) {
+            if (section.getName().equals("Dinner")) {
+                for (Food food : section.getItems()) {
+                    min = Math.min(min, food.getPrice());
+                    found = true;
+                }
+            }
+        }
+        return found ? OptionalDouble.of(min) : OptionalDouble.empty();
+    }
+
+    @Benchmark
+    public OptionalDouble cheapestDinnerPrice_parallel() {
+        return menu.getSections().parallelStream()
+                .filter(section -> section.getName().equals("Dinner"))
+                .flatMap(section -> section.getItems().stream())
+                .mapToDouble(Food::getPrice)
+                .min();
+    }
+
+    // _10_reduction: reduce(Math::min) and reducing to the cheapest item
+
+    @Benchmark
+    public Optional<Integer> reduceMin_stream() {
+        return ints.stream().reduce(Math::min);
+    }
+
+    @Benchmark
+    public int reduceMin_loop() {
+        int min = Integer.MAX_VALUE;
+        for (int i : ints) {
+            min = Math.min(min, i);
+        }
+        return min;
+    }
+
+    @Benchmark
+    public Optional<Integer> reduceMin_parallel() {
+        return ints.parallelStream().reduce(Math::min);
+    }
+
+    @Benchmark
+    public Optional<Food> cheapestDinnerItem_stream() {
+        return menu.getSections().stream()
+                .filter(section -> section.getName().equals("Dinner"))
+                .flatMap(section -> section.getItems().stream())
+                .reduce((f1, f2) -> (f1.getPrice() < f2.getPrice() ? f1 : f2));
+    }
+
+    @Benchmark
+    public Optional<Food> cheapestDinnerItem_loop() {
+        Food cheapest = null;
+        for (Section section : menu.getSections()) {
+            if (section.getName().equals("Dinner")) {
+                for (Food food : section.getItems()) {
+                    // The lesson's reduce keeps the later of two equal prices.
+                    if (cheapest == null || food.getPrice() <= cheapest.getPrice()) {
+                        cheapest = food;
+                    }
+                }
+            }
+        }
+        return Optional.ofNullable(cheapest);
+    }
+
+    @Benchmark
+    public Optional<Food> cheapestDinnerItem_parallel() {
+        return menu.getSections().parallelStream()
+                .filter(section -> section.getName().equals("Dinner"))
+                .flatMap(section -> section.getItems().stream())
+                .reduce((f1, f2) -> (f1.getPrice() < f2.getPrice() ? f1 : f2));
+    }
+}
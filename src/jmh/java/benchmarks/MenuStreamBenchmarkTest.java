@@ -0,0 +1,81 @@
+package benchmarks;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
+
+/**
+ * The stream, loop and parallel versions of each pipeline must agree, or the
+ * benchmark is timing different work.
+ */
+public class MenuStreamBenchmarkTest {
+
+    @Test
+    public void everyVersionOfAPipelineGivesTheSameResult() throws Exception {
+        assertThat(pipelines()).isNotEmpty();
+        for (int size : new int[]{12, 1000, 100000}) {
+            MenuStreamBenchmark benchmark = new MenuStreamBenchmark();
+            benchmark.size = size;
+            benchmark.setUp();
+
+            for (Map.Entry<String, List<Method>> pipeline : pipelines().entrySet()) {
+                assertThat(pipeline.getValue()).as(pipeline.getKey()).hasSize(3);
+                Object expected = unwrap(pipeline.getValue().get(0).invoke(benchmark));
+                for (Method version : pipeline.getValue()) {
+                    Object actual = unwrap(version.invoke(benchmark));
+                    String description = version.getName() + " at size " + size;
+                    if (expected instanceof Double) {
+                        // Parallel and compensated sums round differently from a plain loop.
+                        double tolerance = Math.abs((Double) expected) * 1e-12;
+                        assertThat((Double) actual).as(description).isEqualTo((Double) expected, offset(tolerance));
+                    } else {
+                        assertThat(actual).as(description).isEqualTo(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The benchmark methods grouped by the pipeline before the underscore.
+     */
+    private static Map<String, List<Method>> pipelines() {
+        Map<String, List<Method>> pipelines = new TreeMap<>();
+        for (Method method : MenuStreamBenchmark.class.getMethods()) {
+            if (method.isAnnotationPresent(Benchmark.class)) {
+                String pipeline = method.getName().substring(0, method.getName().indexOf('_'));
+                pipelines.computeIfAbsent(pipeline, key -> new ArrayList<>()).add(method);
+            }
+        }
+        return pipelines;
+    }
+
+    /**
+     * Optionals and boxed numbers as plain values, so that a loop returning
+     * an {@code int} can be compared with a stream returning an
+     * {@code Optional<Integer>}.
+     */
+    private static Object unwrap(Object result) {
+        if (result instanceof Optional) {
+            return unwrap(((Optional<?>) result).orElse(null));
+        }
+        if (result instanceof OptionalDouble) {
+            OptionalDouble optional = (OptionalDouble) result;
+            return optional.isPresent() ? optional.getAsDouble() : null;
+        }
+        if (result instanceof Number) {
+            return ((Number) result).doubleValue();
+        }
+        return result;
+    }
+}
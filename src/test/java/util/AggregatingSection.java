@@ -0,0 +1,133 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A mutable {@link Section} that keeps its price aggregates up to date as
+ * items are added, removed and repriced, so asking for the average or the
+ * cheapest price never rescans the items.
+ *
+ * Prices are kept as {@link Money} units at the section's scale, cents
+ * unless given otherwise, so the sum is exact however many changes it has
+ * been through; a price with more decimal places than the scale is
+ * rejected. Count and sum change in constant time. Min and max come from a
+ * sorted count of each distinct price, so they stay correct when the
+ * cheapest or most expensive item is removed, at O(log n) per change.
+ *
+ * Removal is constant time apart from that: each item's position is kept,
+ * and the last item moves into the removed item's place, so items do not
+ * keep the order they were added in once one is removed.
+ *
+ * Prices must be changed through {@link #reprice(Food, double)}; writing
+ * {@link Food#price} directly leaves the aggregates stale.
+ */
+public class AggregatingSection extends Section {
+
+    private final int scale;
+    private final Map<Food, Integer> positions = new IdentityHashMap<>();
+    private final TreeMap<Long, Integer> unitCounts = new TreeMap<>();
+    private final List<Food> mutableItems;
+    private long[] units;
+    private long sum;
+
+    public AggregatingSection(String name) {
+        this(name, Collections.emptyList());
+    }
+
+    public AggregatingSection(String name, Collection<? extends Food> items) {
+        this(name, 2, items);
+    }
+
+    public AggregatingSection(String name, int scale, Collection<? extends Food> items) {
+        super(name, null);
+        Money.checkScale(scale);
+        this.scale = scale;
+        this.mutableItems = new ArrayList<>(items.size());
+        this.units = new long[Math.max(8, items.size())];
+        this.items = Collections.unmodifiableList(mutableItems);
+        items.forEach(this::add);
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public void add(Food food) {
+        if (positions.containsKey(food)) {
+            throw new IllegalArgumentException(food.getName() + " is already in " + name);
+        }
+        long price = Money.toUnits(food.getPrice(), scale);
+        int position = mutableItems.size();
+        if (position == units.length) {
+            units = Arrays.copyOf(units, position * 2);
+        }
+        positions.put(food, position);
+        mutableItems.add(food);
+        units[position] = price;
+        count(price);
+    }
+
+    /**
+     * Removes the given item, moving the last item into its place. Returns
+     * false if it was not in this section.
+     */
+    public boolean remove(Food food) {
+        Integer position = positions.remove(food);
+        if (position == null) {
+            return false;
+        }
+        uncount(units[position]);
+        int last = mutableItems.size() - 1;
+        Food moved = mutableItems.remove(last);
+        if (position != last) {
+            mutableItems.set(position, moved);
+            units[position] = units[last];
+            positions.put(moved, position);
+        }
+        return true;
+    }
+
+    public void reprice(Food food, double price) {
+        Integer position = positions.get(food);
+        if (position == null) {
+            throw new IllegalArgumentException(food.getName() + " is not in " + name);
+        }
+        long repriced = Money.toUnits(price, scale);
+        uncount(units[position]);
+        units[position] = repriced;
+        food.price = price;
+        count(repriced);
+    }
+
+    public MoneySummary getSummary() {
+        if (unitCounts.isEmpty()) {
+            return MoneySummary.empty(scale);
+        }
+        return new MoneySummary(scale, mutableItems.size(), sum, unitCounts.firstKey(), unitCounts.lastKey());
+    }
+
+    private void count(long price) {
+        sum = Math.addExact(sum, price);
+        unitCounts.merge(price, 1, Integer::sum);
+    }
+
+    private void uncount(long price) {
+        sum -= price;
+        int remaining = unitCounts.get(price) - 1;
+        if (remaining == 0) {
+            unitCounts.remove(price);
+        } else {
+            unitCounts.put(price, remaining);
+        }
+    }
+}
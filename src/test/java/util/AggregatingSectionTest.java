@@ -0,0 +1,162 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class AggregatingSectionTest {
+
+    @Test
+    public void summaryMatchesTheItemsAfterEveryChange() {
+        Random random = new Random(8);
+        for (int i = 0; i < 100; i++) {
+            AggregatingSection section = new AggregatingSection("Specials");
+            List<Food> expected = new ArrayList<>();
+            for (int step = 0; step < 300; step++) {
+                int action = expected.isEmpty() ? 0 : random.nextInt(3);
+                if (action == 0) {
+                    Food food = new Food(RandomMenus.name(random), random.nextBoolean(), RandomMenus.cents(random));
+                    section.add(food);
+                    expected.add(food);
+                } else if (action == 1) {
+                    Food food = expected.remove(random.nextInt(expected.size()));
+                    assertThat(section.remove(food)).isTrue();
+                } else {
+                    section.reprice(expected.get(random.nextInt(expected.size())), RandomMenus.cents(random));
+                }
+                check(section, expected);
+            }
+        }
+    }
+
+    @Test
+    public void sumDoesNotDrift() {
+        AggregatingSection section = new AggregatingSection("Drinks");
+        Food coffee = new Food("coffee", true, 0.1);
+        section.add(coffee);
+        section.add(new Food("tea", true, 0.2));
+        for (int i = 0; i < 1000; i++) {
+            section.reprice(coffee, i % 2 == 0 ? 0.7 : 0.1);
+        }
+
+        assertThat(section.getSummary().getSum().toString()).isEqualTo("0.30");
+        assertThat(section.getSummary().getAverage()).isEqualTo(0.15);
+    }
+
+    @Test
+    public void removingMovesTheLastItemIntoThePlace() {
+        Food eggs = new Food("eggs", true, 1.0);
+        Food toast = new Food("toast", false, 1.0);
+        Food muffins = new Food("muffins", false, 3.0);
+        AggregatingSection section = new AggregatingSection("Breakfast", Arrays.asList(eggs, toast, muffins));
+
+        assertThat(section.remove(eggs)).isTrue();
+        assertThat(section.remove(eggs)).isFalse();
+        assertThat(section.getItems()).containsExactly(muffins, toast);
+        assertThat(section.getSummary().getMin().get().toString()).isEqualTo("1.00");
+    }
+
+    @Test
+    public void menuSummariesCombineSections() {
+        Random random = new Random(9);
+        for (int i = 0; i < 100; i++) {
+            Menu plain = RandomMenus.pricedInCents(random, 5, 30);
+            Section[] sections = new Section[plain.getSections().size()];
+            for (int s = 0; s < sections.length; s++) {
+                Section section = plain.getSections().get(s);
+                sections[s] = random.nextBoolean() ? section
+                        : new AggregatingSection(section.getName(), section.getItems());
+            }
+            MoneySummary summary = MoneySummary.of(new Menu(sections), 2);
+            List<Food> items = RandomMenus.items(plain);
+
+            assertThat(summary.getCount()).isEqualTo(items.size());
+            assertThat(summary.getSum().toBigDecimal()).isEqualTo(exactSum(items, 2));
+            assertThat(summary.toString()).isEqualTo(MoneySummary.of(plain, 2).toString());
+        }
+    }
+
+    @Test
+    public void sectionsAtAnotherScaleAreScanned() {
+        AggregatingSection section = new AggregatingSection("Sides", 3,
+                Collections.singletonList(new Food("slaw", true, 1.25)));
+
+        assertThat(MoneySummary.of(section, 2).getSum().toString()).isEqualTo("1.25");
+        assertThat(MoneySummary.of(section, 3).getSum().toString()).isEqualTo("1.250");
+    }
+
+    @Test
+    public void badChangesAreRejectedWithoutTouchingTheSummary() {
+        Food eggs = new Food("eggs", true, 1.0);
+        AggregatingSection section = new AggregatingSection("Breakfast", Collections.singletonList(eggs));
+        try {
+            section.add(eggs);
+            fail("Expected a second add to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("already in");
+        }
+        try {
+            section.reprice(new Food("toast", false, 1.0), 2.0);
+            fail("Expected repricing a stranger to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("not in");
+        }
+        try {
+            section.reprice(eggs, 1.005);
+            fail("Expected a price finer than cents to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("scale 2");
+        }
+        try {
+            section.add(new Food("toast", false, 0.1 + 0.2));
+            fail("Expected a price finer than cents to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("scale 2");
+        }
+
+        assertThat(section.getItems()).containsExactly(eggs);
+        assertThat(eggs.getPrice()).isEqualTo(1.0);
+        assertThat(section.getSummary().getSum().toString()).isEqualTo("1.00");
+    }
+
+    @Test
+    public void emptySectionsHaveNoExtremes() {
+        MoneySummary summary = new AggregatingSection("Closed").getSummary();
+
+        assertThat(summary.getCount()).isEqualTo(0);
+        assertThat(summary.getMin().isPresent()).isFalse();
+        assertThat(summary.getAverage()).isEqualTo(0.0);
+    }
+
+    private static void check(AggregatingSection section, List<Food> expected) {
+        MoneySummary summary = section.getSummary();
+        assertThat(section.getItems()).hasSameElementsAs(expected).hasSize(expected.size());
+        assertThat(summary.getCount()).isEqualTo(expected.size());
+        assertThat(summary.getSum().toBigDecimal()).isEqualTo(exactSum(expected, 2));
+        if (expected.isEmpty()) {
+            assertThat(summary.getMax().isPresent()).isFalse();
+        } else {
+            assertThat(summary.getMin().get().toDouble())
+                    .isEqualTo(expected.stream().mapToDouble(Food::getPrice).min().getAsDouble());
+            assertThat(summary.getMax().get().toDouble())
+                    .isEqualTo(expected.stream().mapToDouble(Food::getPrice).max().getAsDouble());
+        }
+    }
+
+    private static BigDecimal exactSum(List<Food> items, int scale) {
+        return items.stream()
+                .map(f -> BigDecimal.valueOf(f.getPrice()).setScale(scale))
+                .reduce(BigDecimal.ZERO.setScale(scale), BigDecimal::add);
+    }
+}
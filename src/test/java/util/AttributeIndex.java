@@ -0,0 +1,96 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * One {@link CompressedBitmap} of item ordinals per {@link Diet} attribute.
+ *
+ * Combined dietary filters become bitmap operations, for example
+ * <pre>
+ *     index.with(Diet.GLUTEN_FREE).and(index.with(Diet.VEGAN)).cardinality()
+ * </pre>
+ * counts items that are both without calling a predicate on any of them.
+ */
+public class AttributeIndex {
+
+    final ColumnarMenu menu;
+    private final Map<Diet, CompressedBitmap> bitmaps;
+    private final CompressedBitmap all;
+
+    private AttributeIndex(ColumnarMenu menu, Map<Diet, CompressedBitmap> bitmaps, CompressedBitmap all) {
+        this.menu = menu;
+        this.bitmaps = bitmaps;
+        this.all = all;
+    }
+
+    public static AttributeIndex of(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        Diet[] diets = Diet.values();
+        CompressedBitmap.Builder[] builders = new CompressedBitmap.Builder[diets.length];
+        for (int d = 0; d < diets.length; d++) {
+            builders[d] = CompressedBitmap.builder();
+        }
+        for (int ordinal = 0; ordinal < columns.size(); ordinal++) {
+            for (int attributes = columns.attributes(ordinal); attributes != 0; attributes &= attributes - 1) {
+                builders[Integer.numberOfTrailingZeros(attributes)].add(ordinal);
+            }
+        }
+        Map<Diet, CompressedBitmap> bitmaps = new EnumMap<>(Diet.class);
+        for (Diet diet : diets) {
+            bitmaps.put(diet, builders[diet.ordinal()].build());
+        }
+        return new AttributeIndex(columns, bitmaps, CompressedBitmap.range(columns.size()));
+    }
+
+    /**
+     * Every item on the menu, the starting point for negated filters.
+     */
+    public CompressedBitmap all() {
+        return all;
+    }
+
+    /**
+     * The items that have the given attribute.
+     */
+    public CompressedBitmap with(Diet diet) {
+        return bitmaps.get(diet);
+    }
+
+    /**
+     * The items that lack the given attribute.
+     */
+    public CompressedBitmap without(Diet diet) {
+        return all.andNot(with(diet));
+    }
+
+    /**
+     * The items that have every one of the given attributes.
+     */
+    public CompressedBitmap withAll(Diet... diets) {
+        CompressedBitmap result = all;
+        for (Diet diet : diets) {
+            result = result.and(with(diet));
+        }
+        return result;
+    }
+
+    /**
+     * The items that have at least one of the given attributes.
+     */
+    public CompressedBitmap withAny(Diet... diets) {
+        CompressedBitmap result = CompressedBitmap.empty();
+        for (Diet diet : diets) {
+            result = result.or(with(diet));
+        }
+        return result;
+    }
+
+    public Stream<Food> items(CompressedBitmap ordinals) {
+        return ordinals.stream().mapToObj(menu::item);
+    }
+}
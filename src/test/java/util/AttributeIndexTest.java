@@ -0,0 +1,73 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static util.LessonResources.createMenu;
+
+public class AttributeIndexTest {
+
+    @Test
+    public void filtersMatchTestingEachItemsAttributes() {
+        Random random = new Random(7);
+        Diet[] diets = Diet.values();
+        for (int i = 0; i < 100; i++) {
+            ColumnarMenu menu = randomMenu(random, random.nextInt(3000));
+            AttributeIndex index = AttributeIndex.of(menu);
+            Diet a = diets[random.nextInt(diets.length)];
+            Diet b = diets[random.nextInt(diets.length)];
+
+            assertThat(index.all().cardinality()).isEqualTo(menu.size());
+            check(menu, index.with(a), o -> menu.has(o, a));
+            check(menu, index.without(a), o -> !menu.has(o, a));
+            check(menu, index.withAll(a, b), o -> menu.has(o, a) && menu.has(o, b));
+            check(menu, index.withAny(a, b), o -> menu.has(o, a) || menu.has(o, b));
+            check(menu, index.withAll(), o -> true);
+            check(menu, index.withAny(), o -> false);
+        }
+    }
+
+    @Test
+    public void itemsComeBackInMenuOrder() {
+        AttributeIndex index = AttributeIndex.of(createMenu());
+
+        List<String> glutenFree = createMenu().getSections().stream()
+                .flatMap(section -> section.getItems().stream())
+                .filter(Food::isGlutenFree)
+                .map(Food::getName)
+                .collect(Collectors.toList());
+        assertThat(index.items(index.with(Diet.GLUTEN_FREE)).map(Food::getName).collect(Collectors.toList()))
+                .isEqualTo(glutenFree);
+        assertThat(index.with(Diet.VEGAN).isEmpty()).isTrue();
+    }
+
+    private static void check(ColumnarMenu menu, CompressedBitmap bitmap, IntPredicate expected) {
+        assertThat(bitmap.toArray()).isEqualTo(IntStream.range(0, menu.size()).filter(expected).toArray());
+    }
+
+    private static ColumnarMenu randomMenu(Random random, int size) {
+        ColumnarMenu.Builder builder = ColumnarMenu.builder().section("Everything");
+        // Some attributes common, some rare, so bitmaps of every density turn up.
+        int[] odds = new int[Diet.values().length];
+        for (int d = 0; d < odds.length; d++) {
+            odds[d] = 1 + random.nextInt(200);
+        }
+        for (int i = 0; i < size; i++) {
+            int attributes = 0;
+            for (int d = 0; d < odds.length; d++) {
+                if (random.nextInt(odds[d]) == 0) {
+                    attributes |= 1 << d;
+                }
+            }
+            builder.add(RandomMenus.name(random), attributes, RandomMenus.price(random));
+        }
+        return builder.build();
+    }
+}
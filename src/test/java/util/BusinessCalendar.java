@@ -0,0 +1,326 @@
+package util;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Working days over a range of years, for counting and adding business
+ * days without stepping through dates one by one.
+ *
+ * <pre>
+ *     BusinessCalendar us = BusinessCalendar.builder(2016, 2026)
+ *             .annualHoliday(MonthDay.of(Month.JULY, 4))
+ *             .holiday(LocalDate.of(2016, Month.NOVEMBER, 24))
+ *             .build();
+ *     LocalDate settles = us.plusBusinessDays(tradeDate, 2);
+ * </pre>
+ *
+ * Days are epoch days, and every method has a {@link LocalDate} overload.
+ * The calendar keeps a prefix sum of working days from the start of its
+ * range, so the business days between two dates are one subtraction, and
+ * the working days themselves in order, so adding business days is a count
+ * and an index. Both take constant time however far apart the dates are.
+ * Dates outside the range throw a {@link DateTimeException}, as there are
+ * no holidays known for them.
+ *
+ * Each {@link Builder#build} and {@link #and} makes a new table, so build a
+ * calendar once and keep it. Calendars that keep the same days, such as an
+ * exchange and a clearing house, can share one table through
+ * {@link #named}, and {@link #and} reuses a table when one calendar's days
+ * off already include all of the other's.
+ */
+public final class BusinessCalendar {
+
+    private final String name;
+    private final Table table;
+
+    private BusinessCalendar(String name, Table table) {
+        this.name = name;
+        this.table = table;
+    }
+
+    public static Builder builder(int fromYear, int toYear) {
+        return new Builder(fromYear, toYear);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The same days under another name, sharing this calendar's table.
+     */
+    public BusinessCalendar named(String name) {
+        return new BusinessCalendar(name, table);
+    }
+
+    /**
+     * The days both calendars work. They must cover the same years.
+     */
+    public BusinessCalendar and(BusinessCalendar other) {
+        Key a = table.key;
+        Key b = other.table.key;
+        if (a.firstDay != b.firstDay || a.endDay != b.endDay) {
+            throw new IllegalArgumentException(name + " and " + other.name + " cover different years");
+        }
+        int[] holidays = new int[a.holidays.length + b.holidays.length];
+        System.arraycopy(a.holidays, 0, holidays, 0, a.holidays.length);
+        System.arraycopy(b.holidays, 0, holidays, a.holidays.length, b.holidays.length);
+        Key both = new Key(a.firstDay, a.endDay, a.weekend | b.weekend, distinct(holidays));
+        Table shared = both.equals(a) ? table : both.equals(b) ? other.table : new Table(both);
+        return new BusinessCalendar(name + " and " + other.name, shared);
+    }
+
+    /**
+     * Whether this calendar and the other use the same table, as calendars
+     * from {@link #named} do.
+     */
+    public boolean sharesTableWith(BusinessCalendar other) {
+        return table == other.table;
+    }
+
+    public boolean isBusinessDay(int epochDay) {
+        int i = index(epochDay);
+        return table.prefix[i + 1] != table.prefix[i];
+    }
+
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(epochDay(date));
+    }
+
+    /**
+     * The business days from {@code from}, inclusive, to {@code to},
+     * exclusive; negative if {@code to} is earlier.
+     */
+    public int businessDaysBetween(int from, int to) {
+        return table.prefix[bound(to)] - table.prefix[bound(from)];
+    }
+
+    public int businessDaysBetween(LocalDate from, LocalDate to) {
+        return businessDaysBetween(epochDay(from), epochDay(to));
+    }
+
+    /**
+     * The business day {@code n} business days after the day, or before it
+     * if {@code n} is negative, counting from the next business day whether
+     * or not the day itself is one. Zero gives back the day.
+     */
+    public int plusBusinessDays(int epochDay, int n) {
+        int i = index(epochDay);
+        if (n == 0) {
+            return epochDay;
+        }
+        // prefix[j] is the number of business days before day j, so it is
+        // also the position of day j among the business days.
+        long position = n > 0 ? (long) table.prefix[i + 1] + n - 1 : (long) table.prefix[i] + n;
+        if (position < 0 || position >= table.workingDays.length) {
+            throw new DateTimeException(n + " business days from " + LocalDate.ofEpochDay(epochDay)
+                    + " is outside " + name);
+        }
+        return table.workingDays[(int) position];
+    }
+
+    public LocalDate plusBusinessDays(LocalDate date, int n) {
+        return LocalDate.ofEpochDay(plusBusinessDays(epochDay(date), n));
+    }
+
+    public LocalDate minusBusinessDays(LocalDate date, int n) {
+        return plusBusinessDays(date, Math.negateExact(n));
+    }
+
+    /**
+     * The day itself if it is a business day, otherwise the next one.
+     */
+    public LocalDate nextOrSameBusinessDay(LocalDate date) {
+        int day = epochDay(date);
+        return isBusinessDay(day) ? date : LocalDate.ofEpochDay(plusBusinessDays(day, 1));
+    }
+
+    private int index(int epochDay) {
+        if (epochDay < table.key.firstDay || epochDay >= table.key.endDay) {
+            throw new DateTimeException(LocalDate.ofEpochDay(epochDay) + " is outside " + name);
+        }
+        return epochDay - table.key.firstDay;
+    }
+
+    /**
+     * As {@link #index}, but the day after the range is allowed as an end.
+     */
+    private int bound(int epochDay) {
+        return epochDay == table.key.endDay ? epochDay - table.key.firstDay : index(epochDay);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static int[] distinct(int[] days) {
+        if (days.length == 0) {
+            return days;
+        }
+        Arrays.sort(days);
+        int count = 1;
+        for (int i = 1; i < days.length; i++) {
+            if (days[i] != days[count - 1]) {
+                days[count++] = days[i];
+            }
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    @Override
+    public String toString() {
+        return "BusinessCalendar{" + name + ", " + LocalDate.ofEpochDay(table.key.firstDay) + " to "
+                + LocalDate.ofEpochDay(table.key.endDay) + '}';
+    }
+
+    public static final class Builder {
+        private final int fromYear;
+        private final int toYear;
+        private String name;
+        private int weekend = bit(DayOfWeek.SATURDAY) | bit(DayOfWeek.SUNDAY);
+        private int[] holidays = new int[16];
+        private int holidayCount;
+
+        private Builder(int fromYear, int toYear) {
+            if (fromYear > toYear) {
+                throw new IllegalArgumentException("Years out of order: " + fromYear + " > " + toYear);
+            }
+            this.fromYear = fromYear;
+            this.toYear = toYear;
+            this.name = fromYear + "-" + toYear;
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * The days of the week that are never worked, Saturday and Sunday
+         * unless set otherwise.
+         */
+        public Builder weekend(DayOfWeek... days) {
+            weekend = 0;
+            for (DayOfWeek day : days) {
+                weekend |= bit(day);
+            }
+            return this;
+        }
+
+        /**
+         * A day off. Dates outside the calendar's years are ignored.
+         */
+        public Builder holiday(LocalDate date) {
+            if (date.getYear() >= fromYear && date.getYear() <= toYear) {
+                if (holidayCount == holidays.length) {
+                    holidays = Arrays.copyOf(holidays, holidayCount * 2);
+                }
+                holidays[holidayCount++] = epochDay(date);
+            }
+            return this;
+        }
+
+        public Builder holidays(Collection<LocalDate> dates) {
+            for (LocalDate date : dates) {
+                holiday(date);
+            }
+            return this;
+        }
+
+        /**
+         * A holiday on the same date every year, in the years that have it.
+         */
+        public Builder annualHoliday(MonthDay monthDay) {
+            for (int year = fromYear; year <= toYear; year++) {
+                if (monthDay.isValidYear(year)) {
+                    holiday(monthDay.atYear(year));
+                }
+            }
+            return this;
+        }
+
+        public BusinessCalendar build() {
+            int firstDay = epochDay(LocalDate.of(fromYear, 1, 1));
+            int endDay = epochDay(LocalDate.of(toYear + 1, 1, 1));
+            int[] days = distinct(Arrays.copyOf(holidays, holidayCount));
+            return new BusinessCalendar(name, new Table(new Key(firstDay, endDay, weekend, days)));
+        }
+
+        private static int bit(DayOfWeek day) {
+            return 1 << day.ordinal();
+        }
+    }
+
+    /**
+     * What a table is built from: its days, its weekend as a bit per
+     * {@link DayOfWeek} ordinal, and its holidays as sorted epoch days.
+     */
+    private static final class Key {
+        final int firstDay;
+        final int endDay;
+        final int weekend;
+        final int[] holidays;
+
+        Key(int firstDay, int endDay, int weekend, int[] holidays) {
+            this.firstDay = firstDay;
+            this.endDay = endDay;
+            this.weekend = weekend;
+            this.holidays = holidays;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return firstDay == other.firstDay && endDay == other.endDay && weekend == other.weekend
+                    && Arrays.equals(holidays, other.holidays);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((firstDay * 31 + endDay) * 31 + weekend) * 31 + Arrays.hashCode(holidays);
+        }
+    }
+
+    /**
+     * {@code prefix[i]} is the number of business days in the first
+     * {@code i} days of the range, and {@code workingDays} lists the
+     * business days in order.
+     */
+    private static final class Table {
+        final Key key;
+        final int[] prefix;
+        final int[] workingDays;
+
+        Table(Key key) {
+            this.key = key;
+            int days = key.endDay - key.firstDay;
+            prefix = new int[days + 1];
+            int[] working = new int[days];
+            // Epoch day 0, 1970-01-01, was a Thursday.
+            int dayOfWeek = Math.floorMod(key.firstDay + 3, 7);
+            int h = 0;
+            int count = 0;
+            for (int i = 0; i < days; i++) {
+                int day = key.firstDay + i;
+                boolean holiday = h < key.holidays.length && key.holidays[h] == day;
+                if (holiday) {
+                    h++;
+                }
+                if (!holiday && (key.weekend & 1 << dayOfWeek) == 0) {
+                    working[count++] = day;
+                }
+                prefix[i + 1] = count;
+                dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+            }
+            workingDays = Arrays.copyOf(working, count);
+        }
+    }
+}
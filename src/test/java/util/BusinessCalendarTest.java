@@ -0,0 +1,190 @@
+package util;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class BusinessCalendarTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2015, 1, 1);
+    private static final LocalDate END = LocalDate.of(2019, 1, 1);
+
+    @Test
+    public void tablesMatchSteppingThroughDates() {
+        Random random = new Random(41);
+        for (int round = 0; round < 30; round++) {
+            Set<DayOfWeek> weekend = weekend(random);
+            Set<LocalDate> holidays = holidays(random);
+            BusinessCalendar calendar = BusinessCalendar.builder(2015, 2018)
+                    .weekend(weekend.toArray(new DayOfWeek[0]))
+                    .holidays(holidays)
+                    .holiday(LocalDate.of(2014, 12, 31))
+                    .build();
+            check(calendar, date -> !weekend.contains(date.getDayOfWeek()) && !holidays.contains(date), random);
+        }
+    }
+
+    @Test
+    public void andWorksTheDaysBothCalendarsWork() {
+        Random random = new Random(42);
+        for (int round = 0; round < 10; round++) {
+            Set<LocalDate> ours = holidays(random);
+            Set<LocalDate> theirs = holidays(random);
+            BusinessCalendar us = BusinessCalendar.builder(2015, 2018).name("us").holidays(ours).build();
+            BusinessCalendar them = BusinessCalendar.builder(2015, 2018).name("them")
+                    .weekend(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY).holidays(theirs).build();
+            BusinessCalendar both = us.and(them);
+
+            assertThat(both.getName()).isEqualTo("us and them");
+            check(both, date -> date.getDayOfWeek().getValue() < 5 && !ours.contains(date) && !theirs.contains(date),
+                    random);
+        }
+    }
+
+    @Test
+    public void derivedCalendarsShareTables() {
+        BusinessCalendar exchange = BusinessCalendar.builder(2016, 2016)
+                .annualHoliday(MonthDay.of(Month.JULY, 4))
+                .build();
+        BusinessCalendar clearing = exchange.named("clearing");
+        BusinessCalendar rebuilt = BusinessCalendar.builder(2016, 2016)
+                .annualHoliday(MonthDay.of(Month.JULY, 4))
+                .build();
+        BusinessCalendar weekdays = BusinessCalendar.builder(2016, 2016).build();
+
+        assertThat(clearing.getName()).isEqualTo("clearing");
+        assertThat(clearing.sharesTableWith(exchange)).isTrue();
+        assertThat(rebuilt.sharesTableWith(exchange)).isFalse();
+        assertThat(exchange.and(weekdays).sharesTableWith(exchange)).isTrue();
+        assertThat(weekdays.and(exchange).sharesTableWith(exchange)).isTrue();
+        assertThat(exchange.and(clearing).sharesTableWith(exchange)).isTrue();
+    }
+
+    @Test
+    public void datesOutsideTheYearsAreRejected() {
+        BusinessCalendar calendar = BusinessCalendar.builder(2016, 2016).name("2016 only").build();
+        for (LocalDate date : new LocalDate[]{LocalDate.of(2015, 12, 31), LocalDate.of(2017, 1, 1)}) {
+            try {
+                calendar.isBusinessDay(date);
+                fail("Expected " + date + " to be rejected");
+            } catch (DateTimeException expected) {
+                assertThat(expected.getMessage()).contains(date.toString()).contains("2016 only");
+            }
+        }
+        try {
+            calendar.plusBusinessDays(LocalDate.of(2016, 12, 30), 1);
+            fail("Expected a day past the end to be rejected");
+        } catch (DateTimeException expected) {
+            assertThat(expected.getMessage()).contains("2016 only");
+        }
+        try {
+            calendar.minusBusinessDays(LocalDate.of(2016, 1, 1), 1);
+            fail("Expected a day before the start to be rejected");
+        } catch (DateTimeException expected) {
+            assertThat(expected.getMessage()).contains("2016 only");
+        }
+        assertThat(calendar.businessDaysBetween(LocalDate.of(2016, 1, 1), LocalDate.of(2017, 1, 1)))
+                .isEqualTo(261);
+    }
+
+    @Test
+    public void andNeedsTheSameYears() {
+        try {
+            BusinessCalendar.builder(2016, 2016).name("a").build()
+                    .and(BusinessCalendar.builder(2016, 2017).name("b").build());
+            fail("Expected calendars over different years to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("a and b");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void yearsMustBeInOrder() {
+        BusinessCalendar.builder(2017, 2016);
+    }
+
+    /**
+     * Checks every day of the calendar, and random spans and steps from it,
+     * against a walk through the dates that works the days {@code open}
+     * accepts.
+     */
+    private static void check(BusinessCalendar calendar, Predicate<LocalDate> open, Random random) {
+        int days = (int) (END.toEpochDay() - FIRST.toEpochDay());
+        int[] prefix = new int[days + 1];
+        for (int i = 0; i < days; i++) {
+            LocalDate date = FIRST.plusDays(i);
+            assertThat(calendar.isBusinessDay(date)).as(date.toString()).isEqualTo(open.test(date));
+            prefix[i + 1] = prefix[i] + (open.test(date) ? 1 : 0);
+        }
+        for (int k = 0; k < 500; k++) {
+            int from = random.nextInt(days + 1);
+            int to = random.nextInt(days + 1);
+            assertThat(calendar.businessDaysBetween(FIRST.plusDays(from), FIRST.plusDays(to)))
+                    .isEqualTo(prefix[to] - prefix[from]);
+
+            LocalDate date = FIRST.plusDays(random.nextInt(days));
+            int n = random.nextInt(41) - 20;
+            LocalDate expected = step(date, n, open);
+            if (expected.isBefore(FIRST) || !expected.isBefore(END)) {
+                try {
+                    calendar.plusBusinessDays(date, n);
+                    fail("Expected " + n + " business days from " + date + " to be out of range");
+                } catch (DateTimeException e) {
+                    // Stepped past the calendar's years.
+                }
+            } else {
+                assertThat(calendar.plusBusinessDays(date, n)).as(n + " from " + date).isEqualTo(expected);
+                assertThat(calendar.minusBusinessDays(date, -n)).isEqualTo(expected);
+            }
+            if (!step(date, 1, open).isBefore(END)) {
+                continue;
+            }
+            assertThat(calendar.nextOrSameBusinessDay(date)).isEqualTo(open.test(date) ? date : step(date, 1, open));
+        }
+    }
+
+    private static LocalDate step(LocalDate date, int n, Predicate<LocalDate> open) {
+        int direction = Integer.signum(n);
+        for (int remaining = Math.abs(n); remaining > 0; ) {
+            date = date.plusDays(direction);
+            if (date.isBefore(FIRST.minusDays(30)) || date.isAfter(END.plusDays(30))) {
+                return date;
+            }
+            if (open.test(date)) {
+                remaining--;
+            }
+        }
+        return date;
+    }
+
+    private static Set<DayOfWeek> weekend(Random random) {
+        Set<DayOfWeek> weekend = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (random.nextInt(4) == 0) {
+                weekend.add(day);
+            }
+        }
+        return weekend;
+    }
+
+    private static Set<LocalDate> holidays(Random random) {
+        Set<LocalDate> holidays = new HashSet<>();
+        int count = random.nextInt(60);
+        for (int i = 0; i < count; i++) {
+            holidays.add(FIRST.plusDays(random.nextInt((int) (END.toEpochDay() - FIRST.toEpochDay()))));
+        }
+        return holidays;
+    }
+}
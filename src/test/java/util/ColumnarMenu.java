@@ -0,0 +1,494 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link Menu} that stores its items column by column instead of as one
+ * {@link Food} object per item.
+ *
+ * Prices live in a single {@code double} column, {@link Diet} attributes
+ * are packed into one {@code short} per item and names are dictionary
+ * encoded, so repeated names are stored once. Sections are just offsets into
+ * those columns. Every item has an ordinal, its position in the flattened
+ * menu, which is also its index into each column.
+ *
+ * Any {@code double} is a valid price. The menu also records the smallest
+ * {@link #priceScale() scale} at which every price is a whole number of
+ * minor units, if there is one, and the exact {@link Money} views,
+ * {@link #priceUnits(int)} and {@link #priceSummary()}, work at that scale.
+ * They are the only methods that need one.
+ *
+ * The columns are NIO buffers. A menu from {@link #builder()} or
+ * {@link #of(Menu)} wraps heap arrays; a {@link MenuSnapshot} is a
+ * {@code ColumnarMenu} over the regions of a mapped file, so every index
+ * built on it reads the mapping rather than a copy.
+ *
+ * {@link #getSections()} and {@link Section#getItems()} still work, but they
+ * are views: a {@link Food} is only created when an item is read through
+ * them. Scans that only need prices can use {@link #prices()} or
+ * {@link #priceSummary()} instead and never leave the columns.
+ */
+public class ColumnarMenu extends Menu {
+
+    /**
+     * The {@link #priceScale()} of a menu with a price that is not exact at
+     * any scale up to {@link Money#MAX_SCALE}.
+     */
+    public static final int NO_SCALE = -1;
+
+    final String[] sectionNames;
+    final int[] sectionOffsets;
+    final DoubleBuffer prices;
+    final int priceScale;
+    final ShortBuffer attributes;
+    final IntBuffer nameCodes;
+    final Dictionary dictionary;
+
+    /**
+     * The columns are read with absolute gets only, so their positions are
+     * never moved.
+     */
+    ColumnarMenu(String[] sectionNames, int[] sectionOffsets, DoubleBuffer prices, int priceScale,
+                 ShortBuffer attributes, IntBuffer nameCodes, Dictionary dictionary) {
+        this.sectionNames = sectionNames;
+        this.sectionOffsets = sectionOffsets;
+        this.prices = prices;
+        this.priceScale = priceScale;
+        this.attributes = attributes;
+        this.nameCodes = nameCodes;
+        this.dictionary = dictionary;
+
+        Section[] views = new Section[sectionNames.length];
+        for (int s = 0; s < views.length; s++) {
+            views[s] = new SectionView(s);
+        }
+        this.sections = Collections.unmodifiableList(Arrays.asList(views));
+    }
+
+    /**
+     * Returns the columnar form of the given menu, copying it only if it is
+     * not already columnar. Every price is kept as it is.
+     */
+    public static ColumnarMenu of(Menu menu) {
+        if (menu instanceof ColumnarMenu) {
+            return (ColumnarMenu) menu;
+        }
+        Builder builder = builder();
+        for (Section section : menu.getSections()) {
+            builder.section(section.getName());
+            for (Food food : section.getItems()) {
+                builder.add(food.getName(), food.isGlutenFree(), food.getPrice());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * A builder that takes any price and works out the menu's price scale:
+     * the smallest, at least 2, at which every price is exact, or
+     * {@link #NO_SCALE}.
+     */
+    public static Builder builder() {
+        return new Builder(2, false);
+    }
+
+    /**
+     * A builder for prices with at most {@code priceScale} decimal places.
+     * Any other price is rejected.
+     */
+    public static Builder builder(int priceScale) {
+        Money.checkScale(priceScale);
+        return new Builder(priceScale, true);
+    }
+
+    public int size() {
+        return prices.limit();
+    }
+
+    public int sectionCount() {
+        return sectionNames.length;
+    }
+
+    public String sectionName(int section) {
+        return sectionNames[section];
+    }
+
+    /**
+     * The ordinal of the first item in the given section.
+     */
+    public int sectionStart(int section) {
+        return sectionOffsets[section];
+    }
+
+    /**
+     * One past the ordinal of the last item in the given section.
+     */
+    public int sectionEnd(int section) {
+        return sectionOffsets[section + 1];
+    }
+
+    /**
+     * The index of the section holding the given item ordinal.
+     */
+    public int sectionOf(int ordinal) {
+        if (ordinal < 0 || ordinal >= size()) {
+            throw new IndexOutOfBoundsException("Ordinal: " + ordinal + ", Size: " + size());
+        }
+        int found = Arrays.binarySearch(sectionOffsets, ordinal);
+        if (found < 0) {
+            return -found - 2;
+        }
+        // Empty sections share an offset with the section after them.
+        while (sectionOffsets[found + 1] == ordinal) {
+            found++;
+        }
+        return found;
+    }
+
+    public String name(int ordinal) {
+        return dictionary.get(nameCodes.get(ordinal));
+    }
+
+    /**
+     * The dictionary code of the item's name; items with the same name
+     * share a code.
+     */
+    int nameCode(int ordinal) {
+        return nameCodes.get(ordinal);
+    }
+
+    public boolean isGlutenFree(int ordinal) {
+        return Diet.GLUTEN_FREE.isIn(attributes.get(ordinal));
+    }
+
+    /**
+     * The {@link Diet} bitmask of the item at the given ordinal.
+     */
+    public int attributes(int ordinal) {
+        return attributes.get(ordinal);
+    }
+
+    public boolean has(int ordinal, Diet diet) {
+        return diet.isIn(attributes.get(ordinal));
+    }
+
+    public double price(int ordinal) {
+        return prices.get(ordinal);
+    }
+
+    /**
+     * The price of the item at the given ordinal in minor units at the
+     * menu's {@link #priceScale()}. Throws {@link IllegalStateException} for
+     * a menu without one.
+     */
+    public long priceUnits(int ordinal) {
+        return Money.toUnits(price(ordinal), exactScale());
+    }
+
+    /**
+     * How many decimal places a unit of {@link #priceUnits(int)} stands for,
+     * or {@link #NO_SCALE} if some price is not exact at any scale.
+     */
+    public int priceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Materializes the item at the given ordinal.
+     */
+    public Item item(int ordinal) {
+        return new Item(this, ordinal);
+    }
+
+    /**
+     * Splits the ordinal range in half each time, so parallel streams over
+     * the items divide the work evenly whatever the sections look like.
+     */
+    @Override
+    public Spliterator<Food> itemSpliterator() {
+        return new ItemSpliterator(0, size());
+    }
+
+    public IntStream ordinals() {
+        return IntStream.range(0, size());
+    }
+
+    public DoubleStream prices() {
+        return ordinals().mapToDouble(this::price);
+    }
+
+    public DoubleStream prices(int section) {
+        return IntStream.range(sectionStart(section), sectionEnd(section)).mapToDouble(this::price);
+    }
+
+    /**
+     * Exact count, sum, min and max of every price on the menu, at its
+     * {@link #priceScale()}. Throws {@link IllegalStateException} for a menu
+     * without one.
+     */
+    public MoneySummary priceSummary() {
+        return MoneySummary.of(prices, 0, size(), exactScale());
+    }
+
+    public MoneySummary priceSummary(int section) {
+        return MoneySummary.of(prices, sectionStart(section), sectionEnd(section), exactScale());
+    }
+
+    private int exactScale() {
+        if (priceScale == NO_SCALE) {
+            throw new IllegalStateException("Not every price is exact at a scale of up to " + Money.MAX_SCALE
+                    + " decimal places");
+        }
+        return priceScale;
+    }
+
+    /**
+     * A {@link Food} read out of a {@link ColumnarMenu}. It remembers where it
+     * came from so that indexes can hand back ordinals instead of objects.
+     */
+    public static class Item extends Food {
+        final ColumnarMenu menu;
+        final int ordinal;
+
+        Item(ColumnarMenu menu, int ordinal) {
+            super(menu.name(ordinal), menu.isGlutenFree(ordinal), menu.price(ordinal));
+            this.menu = menu;
+            this.ordinal = ordinal;
+        }
+
+        public ColumnarMenu getMenu() {
+            return menu;
+        }
+
+        public int getOrdinal() {
+            return ordinal;
+        }
+
+        public int getAttributes() {
+            return menu.attributes(ordinal);
+        }
+
+        public boolean has(Diet diet) {
+            return menu.has(ordinal, diet);
+        }
+    }
+
+    /**
+     * The items of an ordinal range, each read out of the columns as it is
+     * reached.
+     */
+    final class ItemSpliterator implements Spliterator<Food> {
+        private int index;
+        private final int fence;
+
+        ItemSpliterator(int index, int fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Food> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(item(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Food> action) {
+            int i = index;
+            index = fence;
+            for (; i < fence; i++) {
+                action.accept(item(i));
+            }
+        }
+
+        @Override
+        public Spliterator<Food> trySplit() {
+            int low = index;
+            int mid = (low + fence) >>> 1;
+            if (low >= mid) {
+                return null;
+            }
+            index = mid;
+            return new ItemSpliterator(low, mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    class SectionView extends Section {
+        final int section;
+
+        SectionView(int section) {
+            super(sectionNames[section], null);
+            this.section = section;
+            this.items = new AbstractList<Food>() {
+                @Override
+                public Food get(int index) {
+                    int size = size();
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                    }
+                    return item(sectionStart(section) + index);
+                }
+
+                @Override
+                public int size() {
+                    return sectionEnd(section) - sectionStart(section);
+                }
+            };
+        }
+    }
+
+    /**
+     * Appends sections and items in menu order. Items added before the first
+     * call to {@link #section(String)} are rejected.
+     */
+    public static class Builder {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final boolean fixedScale;
+        private String[] dictionary = new String[16];
+        private String[] sectionNames = new String[4];
+        private int[] sectionOffsets = new int[5];
+        private int priceScale;
+        private double[] prices = new double[16];
+        private short[] attributes = new short[16];
+        private int[] nameCodes = new int[16];
+        private int sectionCount;
+        private int size;
+
+        Builder(int priceScale, boolean fixedScale) {
+            this.priceScale = priceScale;
+            this.fixedScale = fixedScale;
+        }
+
+        public Builder section(String name) {
+            if (sectionCount == sectionNames.length) {
+                sectionNames = Arrays.copyOf(sectionNames, sectionCount * 2);
+                sectionOffsets = Arrays.copyOf(sectionOffsets, sectionCount * 2 + 1);
+            }
+            sectionNames[sectionCount++] = name;
+            sectionOffsets[sectionCount] = size;
+            return this;
+        }
+
+        public Builder add(String name, boolean glutenFree, double price) {
+            return add(name, glutenFree ? Diet.GLUTEN_FREE.mask() : 0, price);
+        }
+
+        /**
+         * Adds an item whose dietary attributes are the given {@link Diet}
+         * bitmask. A builder with a fixed scale rejects a price that is not
+         * exact at that scale.
+         */
+        public Builder add(String name, int attributes, double price) {
+            if (sectionCount == 0) {
+                throw new IllegalStateException("No section to add " + name + " to");
+            }
+            if ((attributes & ~Diet.ALL) != 0) {
+                throw new IllegalArgumentException("Unknown attributes: " + Integer.toHexString(attributes));
+            }
+            if (fixedScale) {
+                Money.toUnits(price, priceScale);
+            } else if (priceScale != NO_SCALE) {
+                priceScale = Money.scaleOf(price, priceScale);
+            }
+            if (size == prices.length) {
+                int capacity = size * 2;
+                prices = Arrays.copyOf(prices, capacity);
+                this.attributes = Arrays.copyOf(this.attributes, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+            }
+            prices[size] = price;
+            this.attributes[size] = (short) attributes;
+            nameCodes[size] = encode(name);
+            size++;
+            sectionOffsets[sectionCount] = size;
+            return this;
+        }
+
+        private int encode(String name) {
+            Integer code = codes.get(name);
+            if (code == null) {
+                code = codes.size();
+                if (code == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, code * 2);
+                }
+                dictionary[code] = name;
+                codes.put(name, code);
+            }
+            return code;
+        }
+
+        public ColumnarMenu build() {
+            return new ColumnarMenu(
+                    Arrays.copyOf(sectionNames, sectionCount),
+                    Arrays.copyOf(sectionOffsets, sectionCount + 1),
+                    DoubleBuffer.wrap(Arrays.copyOf(prices, size)),
+                    priceScale,
+                    ShortBuffer.wrap(Arrays.copyOf(attributes, size)),
+                    IntBuffer.wrap(Arrays.copyOf(nameCodes, size)),
+                    Dictionary.of(Arrays.copyOf(dictionary, codes.size())));
+        }
+    }
+
+    /**
+     * The distinct item names, looked up by code.
+     */
+    interface Dictionary {
+        int size();
+
+        String get(int code);
+
+        /**
+         * Every name in code order. The array may be the dictionary's own,
+         * so callers must not modify it.
+         */
+        String[] toArray();
+
+        static Dictionary of(String[] names) {
+            return new Dictionary() {
+                @Override
+                public int size() {
+                    return names.length;
+                }
+
+                @Override
+                public String get(int code) {
+                    return names[code];
+                }
+
+                @Override
+                public String[] toArray() {
+                    return names;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class ColumnarMenuTest {
+
+    @Test
+    public void copiesEveryItemInMenuOrder() {
+        Random random = new Random(1);
+        for (int i = 0; i < 300; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 50);
+            ColumnarMenu columns = ColumnarMenu.of(menu);
+
+            assertThat(columns.sectionCount()).isEqualTo(menu.getSections().size());
+            int ordinal = 0;
+            for (int s = 0; s < columns.sectionCount(); s++) {
+                Section section = menu.getSections().get(s);
+                Section view = columns.getSections().get(s);
+                assertThat(view.getName()).isEqualTo(section.getName());
+                assertThat(view.getItems()).hasSize(section.getItems().size());
+                for (int k = 0; k < section.getItems().size(); k++, ordinal++) {
+                    Food food = section.getItems().get(k);
+                    Food item = view.getItems().get(k);
+                    assertThat(item.getName()).isEqualTo(food.getName());
+                    assertThat(item.isGlutenFree()).isEqualTo(food.isGlutenFree());
+                    assertThat(item.getPrice()).isEqualTo(food.getPrice());
+                    assertThat(item.price).isEqualTo(food.getPrice());
+                    assertThat(columns.sectionOf(ordinal)).isEqualTo(s);
+                    assertThat(columns.price(ordinal)).isEqualTo(food.getPrice());
+                }
+            }
+            assertThat(columns.size()).isEqualTo(ordinal);
+        }
+    }
+
+    @Test
+    public void streamsGiveTheSameResultsAsTheOriginalMenu() {
+        Random random = new Random(10);
+        for (int i = 0; i < 300; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 50);
+            ColumnarMenu columns = ColumnarMenu.of(menu);
+
+            assertThat(columns.prices().sum()).isEqualTo(items(menu).stream().mapToDouble(Food::getPrice).sum());
+            assertThat(names(columns.items().collect(Collectors.toList())))
+                    .isEqualTo(names(items(menu)));
+            if (columns.priceScale() != ColumnarMenu.NO_SCALE) {
+                assertThat(columns.priceSummary().getCount()).isEqualTo(items(menu).size());
+            }
+        }
+    }
+
+    @Test
+    public void priceSummaryIsExact() {
+        ColumnarMenu columns = ColumnarMenu.builder()
+                .section("Drinks")
+                .add("coffee", true, 0.1)
+                .add("tea", true, 0.2)
+                .build();
+
+        assertThat(columns.priceSummary().getSum().toString()).isEqualTo("0.30");
+        assertThat(columns.priceSummary().getMin().get().toString()).isEqualTo("0.10");
+    }
+
+    @Test
+    public void ofReturnsAColumnarMenuAsItIs() {
+        ColumnarMenu columns = ColumnarMenu.of(createMenu());
+
+        assertThat(ColumnarMenu.of(columns)).isSameAs(columns);
+    }
+
+    @Test
+    public void ofPicksTheSmallestExactScale() {
+        Menu menu = new Menu(new Section("Sides", java.util.Arrays.asList(
+                new Food("fries", false, 1.5),
+                new Food("slaw", true, 1.234))));
+
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+
+        assertThat(columns.priceScale()).isEqualTo(3);
+        assertThat(columns.priceUnits(1)).isEqualTo(1234);
+        assertThat(columns.price(1)).isEqualTo(1.234);
+    }
+
+    @Test
+    public void emptySectionsKeepTheirPlace() {
+        ColumnarMenu columns = ColumnarMenu.builder()
+                .section("Breakfast")
+                .section("Brunch")
+                .add("eggs", true, 1.0)
+                .section("Lunch")
+                .build();
+
+        assertThat(columns.sectionOf(0)).isEqualTo(1);
+        assertThat(columns.getSections().get(0).getItems()).isEmpty();
+        assertThat(columns.getSections().get(2).getItems()).isEmpty();
+    }
+
+    @Test
+    public void keepsPricesWithNoExactScale() {
+        Menu menu = new Menu(new Section("Drinks", java.util.Arrays.asList(
+                new Food("punch", false, 0.1 + 0.2),
+                new Food("third", false, 1.0 / 3))));
+
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+
+        assertThat(columns.price(0)).isEqualTo(0.1 + 0.2);
+        assertThat(columns.price(1)).isEqualTo(1.0 / 3);
+        assertThat(columns.priceScale()).isEqualTo(ColumnarMenu.NO_SCALE);
+        assertThat(NameIndex.of(columns).ordinalOf("third")).isEqualTo(1);
+        try {
+            columns.priceSummary();
+            fail("Expected a summary of inexact prices to be refused");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage()).contains("exact");
+        }
+        try {
+            columns.priceUnits(0);
+            fail("Expected units of an inexact price to be refused");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage()).contains("exact");
+        }
+    }
+
+    @Test
+    public void builderRejectsBadItems() {
+        try {
+            ColumnarMenu.builder().add("eggs", true, 1.0);
+            fail("Expected an item without a section to be rejected");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage()).contains("eggs");
+        }
+        try {
+            ColumnarMenu.builder(2).section("Breakfast").add("eggs", true, 1.005);
+            fail("Expected a price finer than cents to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("scale 2");
+        }
+        try {
+            ColumnarMenu.builder().section("Breakfast").add("eggs", 1 << 15, 1.0);
+            fail("Expected unknown attributes to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Unknown attributes");
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void sectionViewsCheckTheirBounds() {
+        ColumnarMenu.of(createMenu()).getSections().get(1).getItems().get(3);
+    }
+
+    private static List<Food> items(Menu menu) {
+        return menu.getSections().stream()
+                .flatMap(section -> section.getItems().stream())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<Food> foods) {
+        return foods.stream().map(Food::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,372 @@
+package util;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable, compressed set of non-negative ints in the style of a
+ * Roaring bitmap.
+ *
+ * Values are split into chunks of 65536 by their high 16 bits. A sparse
+ * chunk is stored as a sorted {@code char[]} of its low 16 bits; once it holds
+ * more than {@value #ARRAY_LIMIT} values it switches to a 1024-word bitmap,
+ * which is never larger. AND, OR and ANDNOT work chunk by chunk, a whole
+ * {@code long} at a time where both sides are bitmaps, and
+ * {@link #cardinality()} is a sum of per-chunk counts taken with
+ * {@link Long#bitCount}.
+ */
+public final class CompressedBitmap {
+
+    static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Chunk[0]);
+
+    private final char[] keys;
+    private final Chunk[] chunks;
+
+    private CompressedBitmap(char[] keys, Chunk[] chunks) {
+        this.keys = keys;
+        this.chunks = chunks;
+    }
+
+    public static CompressedBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * All values in {@code [0, size)}.
+     */
+    public static CompressedBitmap range(int size) {
+        Builder builder = builder();
+        for (int value = 0; value < size; value++) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (Chunk chunk : chunks) {
+            cardinality += chunk.cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return chunks.length == 0;
+    }
+
+    public boolean contains(int value) {
+        int at = Arrays.binarySearch(keys, (char) (value >>> 16));
+        return value >= 0 && at >= 0 && chunks[at].contains((char) value);
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        Combiner combiner = new Combiner(Math.min(chunks.length, other.chunks.length));
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                combiner.add(keys[i], chunks[i++].and(other.chunks[j++]));
+            }
+        }
+        return combiner.build();
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        Combiner combiner = new Combiner(chunks.length + other.chunks.length);
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                combiner.add(keys[i], chunks[i++]);
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                combiner.add(other.keys[j], other.chunks[j++]);
+            } else {
+                combiner.add(keys[i], chunks[i++].or(other.chunks[j++]));
+            }
+        }
+        return combiner.build();
+    }
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        Combiner combiner = new Combiner(chunks.length);
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.keys.length && other.keys[j] == keys[i]) {
+                combiner.add(keys[i], chunks[i].andNot(other.chunks[j]));
+            } else {
+                combiner.add(keys[i], chunks[i]);
+            }
+        }
+        return combiner.build();
+    }
+
+    /**
+     * The values in ascending order.
+     */
+    public IntStream stream() {
+        return IntStream.range(0, chunks.length).flatMap(i -> chunks[i].stream(keys[i] << 16));
+    }
+
+    public int[] toArray() {
+        return stream().toArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CompressedBitmap)) {
+            return false;
+        }
+        CompressedBitmap other = (CompressedBitmap) o;
+        return Arrays.equals(keys, other.keys) && Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedBitmap{cardinality=" + cardinality() + ", chunks=" + chunks.length + "}";
+    }
+
+    /**
+     * One 65536-value chunk. Exactly one of {@code values} and {@code words}
+     * is set.
+     */
+    private static final class Chunk {
+        final char[] values;
+        final long[] words;
+        final int cardinality;
+
+        private Chunk(char[] values, long[] words, int cardinality) {
+            this.values = values;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static Chunk ofWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                return new Chunk(null, words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new Chunk(values, null, cardinality);
+        }
+
+        static Chunk ofValues(char[] values, int cardinality) {
+            if (cardinality > ARRAY_LIMIT) {
+                long[] words = new long[WORDS];
+                for (int i = 0; i < cardinality; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                return new Chunk(null, words, cardinality);
+            }
+            return new Chunk(values.length == cardinality ? values : Arrays.copyOf(values, cardinality),
+                    null, cardinality);
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        Chunk and(Chunk other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] = words[w] & other.words[w];
+                }
+                return ofWords(result);
+            }
+            Chunk array = words == null ? this : other;
+            Chunk probe = array == this ? other : this;
+            char[] result = new char[array.cardinality];
+            int n = 0;
+            for (char value : array.values) {
+                if (probe.contains(value)) {
+                    result[n++] = value;
+                }
+            }
+            return ofValues(result, n);
+        }
+
+        Chunk or(Chunk other) {
+            if (words == null && other.words == null) {
+                char[] result = new char[cardinality + other.cardinality];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        result[n++] = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        result[n++] = other.values[j++];
+                    } else {
+                        result[n++] = values[i++];
+                        j++;
+                    }
+                }
+                return ofValues(result, n);
+            }
+            long[] result = toWords();
+            if (other.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] |= other.words[w];
+                }
+            } else {
+                for (char value : other.values) {
+                    result[value >>> 6] |= 1L << value;
+                }
+            }
+            return ofWords(result);
+        }
+
+        Chunk andNot(Chunk other) {
+            if (words == null) {
+                char[] result = new char[cardinality];
+                int n = 0;
+                for (char value : values) {
+                    if (!other.contains(value)) {
+                        result[n++] = value;
+                    }
+                }
+                return ofValues(result, n);
+            }
+            long[] result = words.clone();
+            if (other.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] &= ~other.words[w];
+                }
+            } else {
+                for (char value : other.values) {
+                    result[value >>> 6] &= ~(1L << value);
+                }
+            }
+            return ofWords(result);
+        }
+
+        long[] toWords() {
+            if (words != null) {
+                return words.clone();
+            }
+            long[] result = new long[WORDS];
+            for (char value : values) {
+                result[value >>> 6] |= 1L << value;
+            }
+            return result;
+        }
+
+        IntStream stream(int high) {
+            if (words == null) {
+                return IntStream.range(0, cardinality).map(i -> high | values[i]);
+            }
+            return IntStream.range(0, WORDS << 6)
+                    .filter(bit -> (words[bit >>> 6] & (1L << bit)) != 0)
+                    .map(bit -> high | bit);
+        }
+    }
+
+    /**
+     * Collects the non-empty chunks produced by a set operation.
+     */
+    private static final class Combiner {
+        private final char[] keys;
+        private final Chunk[] chunks;
+        private int size;
+
+        Combiner(int capacity) {
+            keys = new char[capacity];
+            chunks = new Chunk[capacity];
+        }
+
+        void add(char key, Chunk chunk) {
+            if (chunk.cardinality > 0) {
+                keys[size] = key;
+                chunks[size++] = chunk;
+            }
+        }
+
+        CompressedBitmap build() {
+            return size == 0 ? EMPTY
+                    : new CompressedBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(chunks, size));
+        }
+    }
+
+    /**
+     * Builds a bitmap from values added in strictly ascending order.
+     */
+    public static final class Builder {
+        private char[] keys = new char[4];
+        private Chunk[] chunks = new Chunk[4];
+        private int size;
+        private long[] words = new long[WORDS];
+        private int current = -1;
+        private int last = -1;
+
+        Builder() {
+        }
+
+        public Builder add(int value) {
+            if (value <= last) {
+                throw new IllegalArgumentException("Values must be ascending and non-negative: " + value);
+            }
+            last = value;
+            int key = value >>> 16;
+            if (key != current) {
+                flush();
+                current = key;
+            }
+            words[(value >>> 6) & (WORDS - 1)] |= 1L << value;
+            return this;
+        }
+
+        private void flush() {
+            if (current < 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                chunks = Arrays.copyOf(chunks, size * 2);
+            }
+            keys[size] = (char) current;
+            chunks[size++] = Chunk.ofWords(words);
+            words = new long[WORDS];
+        }
+
+        public CompressedBitmap build() {
+            flush();
+            current = -1;
+            CompressedBitmap bitmap = size == 0 ? EMPTY
+                    : new CompressedBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(chunks, size));
+            size = 0;
+            last = -1;
+            return bitmap;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package util;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class CompressedBitmapTest {
+
+    @Test
+    public void setOperationsMatchBitSet() {
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            CompressedBitmap x = of(a);
+            CompressedBitmap y = of(b);
+
+            check(x, a);
+            check(x.and(y), op(a, b, 0));
+            check(x.or(y), op(a, b, 1));
+            check(x.andNot(y), op(a, b, 2));
+            check(y.andNot(x), op(b, a, 2));
+        }
+    }
+
+    @Test
+    public void containsMatchesBitSet() {
+        Random random = new Random(6);
+        for (int i = 0; i < 50; i++) {
+            BitSet set = randomSet(random);
+            CompressedBitmap bitmap = of(set);
+            for (int k = 0; k < 2000; k++) {
+                int value = random.nextInt(5 << 16);
+                assertThat(bitmap.contains(value)).isEqualTo(set.get(value));
+            }
+            assertThat(bitmap.contains(-1)).isFalse();
+        }
+    }
+
+    @Test
+    public void equalSetsAreEqualWhateverTheirChunks() {
+        BitSet set = new BitSet();
+        set.set(3);
+        set.set(70000, 70000 + CompressedBitmap.ARRAY_LIMIT + 1);
+        CompressedBitmap dense = of(set);
+        // Removing values drops the second chunk back below the array limit.
+        CompressedBitmap fewer = dense.andNot(of(range(70000, 70000 + CompressedBitmap.ARRAY_LIMIT)));
+
+        assertThat(fewer.toArray()).containsExactly(3, 70000 + CompressedBitmap.ARRAY_LIMIT);
+        assertThat(fewer).isEqualTo(of(fewer.stream().collect(BitSet::new, BitSet::set, BitSet::or)));
+        assertThat(fewer.hashCode()).isEqualTo(of(fewer.stream().collect(BitSet::new, BitSet::set, BitSet::or))
+                .hashCode());
+        assertThat(dense.and(CompressedBitmap.empty()).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void rangeHoldsEveryValueBelowTheSize() {
+        assertThat(CompressedBitmap.range(0).isEmpty()).isTrue();
+        assertThat(CompressedBitmap.range(200000).cardinality()).isEqualTo(200000);
+        assertThat(CompressedBitmap.range(200000)).isEqualTo(of(range(0, 200000)));
+    }
+
+    @Test
+    public void builderRejectsValuesOutOfOrder() {
+        try {
+            CompressedBitmap.builder().add(5).add(5);
+            fail("Expected a repeated value to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("5");
+        }
+        try {
+            CompressedBitmap.builder().add(-1);
+            fail("Expected a negative value to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("-1");
+        }
+    }
+
+    private static void check(CompressedBitmap bitmap, BitSet expected) {
+        assertThat(bitmap.toArray()).isEqualTo(expected.stream().toArray());
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(bitmap.isEmpty()).isEqualTo(expected.isEmpty());
+    }
+
+    private static BitSet op(BitSet a, BitSet b, int op) {
+        BitSet result = (BitSet) a.clone();
+        if (op == 0) {
+            result.and(b);
+        } else if (op == 1) {
+            result.or(b);
+        } else {
+            result.andNot(b);
+        }
+        return result;
+    }
+
+    /**
+     * Up to five chunks, each empty, sparse, near the array limit or dense,
+     * so that every pairing of array and bitmap chunks comes up.
+     */
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 5; chunk++) {
+            int count;
+            switch (random.nextInt(4)) {
+                case 0:
+                    continue;
+                case 1:
+                    count = random.nextInt(50);
+                    break;
+                case 2:
+                    count = CompressedBitmap.ARRAY_LIMIT - 20 + random.nextInt(40);
+                    break;
+                default:
+                    count = 20000 + random.nextInt(40000);
+                    break;
+            }
+            BitSet values = new BitSet();
+            while (values.cardinality() < count) {
+                values.set(random.nextInt(1 << 16));
+            }
+            int base = chunk << 16;
+            values.stream().forEach(v -> set.set(base + v));
+        }
+        return set;
+    }
+
+    private static BitSet range(int from, int to) {
+        BitSet set = new BitSet();
+        set.set(from, to);
+        return set;
+    }
+
+    private static CompressedBitmap of(BitSet set) {
+        CompressedBitmap.Builder builder = CompressedBitmap.builder();
+        set.stream().forEach(builder::add);
+        return builder.build();
+    }
+}
@@ -0,0 +1,41 @@
+package util;
+
+/**
+ * Dietary attributes an item can carry. Each attribute is one bit, so an
+ * item's attributes pack into a single {@code short}.
+ */
+public enum Diet {
+    GLUTEN_FREE,
+    VEGETARIAN,
+    VEGAN,
+    DAIRY_FREE,
+    EGG_FREE,
+    NUT_FREE,
+    SOY_FREE,
+    SHELLFISH_FREE,
+    HALAL,
+    KOSHER,
+    LOW_SODIUM,
+    ORGANIC;
+
+    /**
+     * Every attribute bit that is in use.
+     */
+    public static final int ALL = (1 << values().length) - 1;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int attributes) {
+        return (attributes & mask()) != 0;
+    }
+
+    public static int maskOf(Diet... diets) {
+        int mask = 0;
+        for (Diet diet : diets) {
+            mask |= diet.mask();
+        }
+        return mask;
+    }
+}
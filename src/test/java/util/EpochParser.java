@@ -0,0 +1,476 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Parses dates and timestamps straight into primitive columns: epoch days
+ * as {@code int}, epoch seconds as {@code long} and, if wanted, the nanos of
+ * each second as {@code int}. Text is read from a {@link CharSequence} or an
+ * ASCII {@code byte[]}, one value at a time or a whole buffer of delimited
+ * values at once.
+ *
+ * <pre>
+ *     EpochParser dates = EpochParser.isoDate();
+ *     int[] days = new int[rows];
+ *     int count = dates.parseEpochDays(buffer, 0, buffer.length, (byte) '\n', days, 0);
+ * </pre>
+ *
+ * Each parser gives the same answers as its {@link DateTimeFormatter}:
+ * {@link #isoDate()} as {@code LocalDate.parse}, {@link #isoDateTime()} as
+ * {@code LocalDateTime.parse}, and {@link #ofPattern} as parsing with
+ * {@code DateTimeFormatter.ofPattern}, which uses the SMART resolver. The
+ * common shape of each, four digit years and every field in range, is
+ * checked and converted inline without creating a {@code LocalDate} or
+ * anything else. Text that does not fit that shape, whether invalid or just
+ * unusual like a signed year or {@code 24:00} in a pattern, goes to the
+ * formatter, which either parses it or throws its usual
+ * {@link java.time.format.DateTimeParseException}.
+ *
+ * Patterns use the letters of {@link FixedDateTimeFormat}.
+ */
+public final class EpochParser {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final long DAYS_0000_TO_1970 = 719528;
+    private static final int[] NANO_SCALE = {
+            1_000_000_000, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    private static final int ISO_DATE = 0;
+    private static final int ISO_DATE_TIME = 1;
+    private static final int PATTERN = 2;
+
+    private static final EpochParser ISO_LOCAL_DATE = new EpochParser(ISO_DATE, DateTimeFormatter.ISO_LOCAL_DATE,
+            null, true, false);
+    private static final EpochParser ISO_LOCAL_DATE_TIME = new EpochParser(ISO_DATE_TIME,
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME, null, true, true);
+
+    private final int kind;
+    private final DateTimeFormatter formatter;
+    private final FixedDateTimeFormat format;
+    private final boolean[] digitAt;
+    private final boolean hasDate;
+    private final boolean hasTime;
+
+    private EpochParser(int kind, DateTimeFormatter formatter, FixedDateTimeFormat format,
+                        boolean hasDate, boolean hasTime) {
+        this.kind = kind;
+        this.formatter = formatter;
+        this.format = format;
+        this.digitAt = format == null ? null : digitPositions(format);
+        this.hasDate = hasDate;
+        this.hasTime = hasTime;
+    }
+
+    /**
+     * {@code yyyy-MM-dd}, as {@link DateTimeFormatter#ISO_LOCAL_DATE}.
+     */
+    public static EpochParser isoDate() {
+        return ISO_LOCAL_DATE;
+    }
+
+    /**
+     * {@code yyyy-MM-ddTHH:mm}, optionally followed by {@code :ss} and then
+     * a fraction of up to nine digits, as
+     * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}.
+     */
+    public static EpochParser isoDateTime() {
+        return ISO_LOCAL_DATE_TIME;
+    }
+
+    /**
+     * A fixed-width numeric pattern such as {@code "MM/dd/yyyy HH:mm"}.
+     */
+    public static EpochParser ofPattern(String pattern) {
+        FixedDateTimeFormat format = FixedDateTimeFormat.ofPattern(pattern);
+        int[] dateCounts = new int[FixedDateTimeFormat.DAY + 1];
+        for (int field : format.dateFields) {
+            dateCounts[field]++;
+        }
+        int[] timeCounts = new int[FixedDateTimeFormat.FRACTION + 1];
+        for (int field : format.timeFields) {
+            timeCounts[field]++;
+        }
+        int years = dateCounts[FixedDateTimeFormat.YEAR] + dateCounts[FixedDateTimeFormat.YEAR_OF_CENTURY];
+        // Inline parsing needs each field at most once and enough of them to
+        // make a date, or a time from the hour down. Other combinations are
+        // left to the formatter to resolve or reject.
+        boolean hasDate = years == 1 && !yearIsGreedy(format)
+                && dateCounts[FixedDateTimeFormat.MONTH] == 1 && dateCounts[FixedDateTimeFormat.DAY] == 1;
+        int hours = timeCounts[FixedDateTimeFormat.HOUR];
+        int minutes = timeCounts[FixedDateTimeFormat.MINUTE];
+        int seconds = timeCounts[FixedDateTimeFormat.SECOND];
+        int fractions = timeCounts[FixedDateTimeFormat.FRACTION];
+        boolean hasTime = hasDate && hours == 1 && minutes <= 1 && seconds <= minutes && fractions <= seconds;
+        return new EpochParser(PATTERN, format.formatter, format, hasDate, hasTime);
+    }
+
+    /**
+     * Whether {@code yyyy} is followed by a digit that is not a field of its
+     * own. The formatter then reads the digit as part of a longer year.
+     */
+    private static boolean yearIsGreedy(FixedDateTimeFormat format) {
+        for (int d = 0; d < format.dateFields.length; d++) {
+            int next = format.datePositions[d] + 4;
+            if (format.dateFields[d] == FixedDateTimeFormat.YEAR && next < format.literals.length) {
+                for (int t = 0; t < format.timeFields.length; t++) {
+                    if (format.timePositions[t] == next) {
+                        return format.timeFields[t] == FixedDateTimeFormat.FRACTION;
+                    }
+                }
+                for (int position : format.datePositions) {
+                    if (position == next) {
+                        return false;
+                    }
+                }
+                return format.literals[next] >= '0' && format.literals[next] <= '9';
+            }
+        }
+        return false;
+    }
+
+    public long parseEpochDay(CharSequence text) {
+        return parseEpochDay(text, 0, text.length());
+    }
+
+    /**
+     * The epoch day of the date in {@code text[start, end)}. For a parser
+     * with a time, this is the date part of the timestamp.
+     */
+    public long parseEpochDay(CharSequence text, int start, int end) {
+        if (hasDate) {
+            long epochSecond = parseInline(text, start, end, null, 0);
+            if (epochSecond != Long.MIN_VALUE) {
+                return Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            }
+        }
+        return LocalDate.parse(text.subSequence(start, end), formatter).toEpochDay();
+    }
+
+    public long parseEpochDay(byte[] text, int start, int end) {
+        return parseEpochDay(new AsciiSequence(text), start, end);
+    }
+
+    public long parseEpochSecond(CharSequence text) {
+        return parseEpochSecond(text, 0, text.length());
+    }
+
+    /**
+     * The timestamp in {@code text[start, end)} as seconds since the epoch
+     * in UTC, any fraction of a second dropped. Throws for a parser without
+     * a time, just as {@code LocalDateTime.parse} would.
+     */
+    public long parseEpochSecond(CharSequence text, int start, int end) {
+        return parseEpochSecond(text, start, end, null, 0);
+    }
+
+    public long parseEpochSecond(byte[] text, int start, int end) {
+        return parseEpochSecond(new AsciiSequence(text), start, end, null, 0);
+    }
+
+    /**
+     * Parses each delimited value of {@code buffer[from, to)} into
+     * {@code epochDays} from {@code offset}, and returns how many there were.
+     * A delimiter at the very end does not start another value, and a
+     * carriage return before a {@code '\n'} delimiter is dropped.
+     */
+    public int parseEpochDays(byte[] buffer, int from, int to, byte delimiter, int[] epochDays, int offset) {
+        return parseEpochDays(new AsciiSequence(buffer), from, to, (char) (delimiter & 0xFF), epochDays, offset);
+    }
+
+    public int parseEpochDays(CharSequence buffer, int from, int to, char delimiter, int[] epochDays, int offset) {
+        int count = 0;
+        for (int start = from; start < to; ) {
+            int end = endOf(buffer, start, to, delimiter);
+            epochDays[offset + count++] = Math.toIntExact(parseEpochDay(buffer, start, trim(buffer, start, end,
+                    delimiter)));
+            start = end + 1;
+        }
+        return count;
+    }
+
+    public void parseEpochDays(CharSequence[] texts, int[] epochDays) {
+        for (int i = 0; i < texts.length; i++) {
+            epochDays[i] = Math.toIntExact(parseEpochDay(texts[i]));
+        }
+    }
+
+    /**
+     * Parses each delimited timestamp of {@code buffer[from, to)} into
+     * {@code epochSeconds} from {@code offset}, and its fraction of a second
+     * into {@code nanos} unless that is null. Values are delimited as for
+     * {@link #parseEpochDays(byte[], int, int, byte, int[], int)}.
+     */
+    public int parseEpochSeconds(byte[] buffer, int from, int to, byte delimiter, long[] epochSeconds,
+                                 int[] nanos, int offset) {
+        return parseEpochSeconds(new AsciiSequence(buffer), from, to, (char) (delimiter & 0xFF), epochSeconds,
+                                 nanos, offset);
+    }
+
+    public int parseEpochSeconds(CharSequence buffer, int from, int to, char delimiter, long[] epochSeconds,
+                                 int[] nanos, int offset) {
+        int count = 0;
+        for (int start = from; start < to; ) {
+            int end = endOf(buffer, start, to, delimiter);
+            epochSeconds[offset + count] = parseEpochSecond(buffer, start, trim(buffer, start, end, delimiter),
+                    nanos, offset + count);
+            count++;
+            start = end + 1;
+        }
+        return count;
+    }
+
+    public void parseEpochSeconds(CharSequence[] texts, long[] epochSeconds, int[] nanos) {
+        for (int i = 0; i < texts.length; i++) {
+            epochSeconds[i] = parseEpochSecond(texts[i], 0, texts[i].length(), nanos, i);
+        }
+    }
+
+    private long parseEpochSecond(CharSequence text, int start, int end, int[] nanos, int index) {
+        if (hasTime) {
+            long epochSecond = parseInline(text, start, end, nanos, index);
+            if (epochSecond != Long.MIN_VALUE) {
+                return epochSecond;
+            }
+        }
+        LocalDateTime dateTime = LocalDateTime.parse(text.subSequence(start, end), formatter);
+        if (nanos != null) {
+            nanos[index] = dateTime.getNano();
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int endOf(CharSequence buffer, int start, int to, char delimiter) {
+        int end = start;
+        while (end < to && buffer.charAt(end) != delimiter) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int trim(CharSequence buffer, int start, int end, char delimiter) {
+        return delimiter == '\n' && end > start && buffer.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * The epoch second of text in the common shape, writing its nanos if
+     * asked, or {@code Long.MIN_VALUE} if the formatter has to decide.
+     */
+    private long parseInline(CharSequence text, int start, int end, int[] nanos, int index) {
+        switch (kind) {
+            case ISO_DATE:
+                return end - start == 10 ? isoDate(text, start) : Long.MIN_VALUE;
+            case ISO_DATE_TIME:
+                return isoDateTime(text, start, end, nanos, index);
+            default:
+                return pattern(text, start, end, nanos, index);
+        }
+    }
+
+    private static long isoDate(CharSequence text, int start) {
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        if (year < 0 || month < 0 || day < 0 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-'
+                || !isValidDate(year, month, day)) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day) * SECONDS_PER_DAY;
+    }
+
+    private static long isoDateTime(CharSequence text, int start, int end, int[] nanos, int index) {
+        int length = end - start;
+        if (length != 16 && length != 19 && (length < 21 || length > 29) || text.charAt(start + 10) != 'T'
+                || text.charAt(start + 13) != ':') {
+            return Long.MIN_VALUE;
+        }
+        long date = isoDate(text, start);
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            second = text.charAt(start + 16) == ':' ? digits(text, start + 17, 2) : -1;
+            if (length > 19) {
+                nano = text.charAt(start + 19) == '.' ? digits(text, start + 20, length - 20) : -1;
+            }
+        }
+        if (date == Long.MIN_VALUE || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0
+                || second > 59 || nano < 0) {
+            return Long.MIN_VALUE;
+        }
+        if (nanos != null) {
+            nanos[index] = length > 19 ? nano * NANO_SCALE[length - 20] : 0;
+        }
+        return date + hour * 3600 + minute * 60 + second;
+    }
+
+    private long pattern(CharSequence text, int start, int end, int[] nanos, int index) {
+        byte[] literals = format.literals;
+        if (end - start != literals.length) {
+            return Long.MIN_VALUE;
+        }
+        for (int i = 0; i < literals.length; i++) {
+            char c = text.charAt(start + i);
+            if (digitAt[i] ? c < '0' || c > '9' : c != literals[i]) {
+                return Long.MIN_VALUE;
+            }
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int d = 0; d < format.dateFields.length; d++) {
+            int position = start + format.datePositions[d];
+            switch (format.dateFields[d]) {
+                case FixedDateTimeFormat.YEAR:
+                    year = digits(text, position, 4);
+                    break;
+                case FixedDateTimeFormat.YEAR_OF_CENTURY:
+                    year = 2000 + digits(text, position, 2);
+                    break;
+                case FixedDateTimeFormat.MONTH:
+                    month = digits(text, position, 2);
+                    break;
+                default:
+                    day = digits(text, position, 2);
+                    break;
+            }
+        }
+        if (year < 1 || !isValidDate(year, month, day)) {
+            return Long.MIN_VALUE;
+        }
+        int secondOfDay = 0;
+        int nano = 0;
+        for (int t = 0; t < format.timeFields.length; t++) {
+            int position = start + format.timePositions[t];
+            switch (format.timeFields[t]) {
+                case FixedDateTimeFormat.HOUR:
+                    int hour = digits(text, position, 2);
+                    if (hour > 23) {
+                        return Long.MIN_VALUE;
+                    }
+                    secondOfDay += hour * 3600;
+                    break;
+                case FixedDateTimeFormat.MINUTE:
+                    int minute = digits(text, position, 2);
+                    if (minute > 59) {
+                        return Long.MIN_VALUE;
+                    }
+                    secondOfDay += minute * 60;
+                    break;
+                case FixedDateTimeFormat.SECOND:
+                    int second = digits(text, position, 2);
+                    if (second > 59) {
+                        return Long.MIN_VALUE;
+                    }
+                    secondOfDay += second;
+                    break;
+                default:
+                    int width = format.timeWidths[t];
+                    nano = digits(text, position, width) * NANO_SCALE[width];
+                    break;
+            }
+        }
+        if (nanos != null) {
+            nanos[index] = nano;
+        }
+        return epochDay(year, month, day) * SECONDS_PER_DAY + secondOfDay;
+    }
+
+    private static boolean[] digitPositions(FixedDateTimeFormat format) {
+        boolean[] digits = new boolean[format.literals.length];
+        for (int d = 0; d < format.dateFields.length; d++) {
+            int width = format.dateFields[d] == FixedDateTimeFormat.YEAR ? 4 : 2;
+            Arrays.fill(digits, format.datePositions[d], format.datePositions[d] + width, true);
+        }
+        for (int t = 0; t < format.timeFields.length; t++) {
+            Arrays.fill(digits, format.timePositions[t], format.timePositions[t] + format.timeWidths[t], true);
+        }
+        return digits;
+    }
+
+    /**
+     * The value of {@code count} decimal digits, or -1 if any is not a digit.
+     */
+    private static int digits(CharSequence text, int position, int count) {
+        int value = 0;
+        for (int i = position; i < position + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isValidDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        switch (month) {
+            case 2:
+                return day <= (isLeap(year) ? 29 : 28);
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return day <= 30;
+            default:
+                return day <= 31;
+        }
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * {@link LocalDate#toEpochDay()} for a year from 0 to 9999.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total -= isLeap(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * ASCII bytes read as chars, so both kinds of input share one parser.
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final byte[] bytes;
+
+        AsciiSequence(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package util;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class EpochParserTest {
+
+    private static final String[] PATTERNS = {
+            "yyyy-MM-dd", "MM/dd/yyyy HH:mm", "yyyyMMddHHmmss", "dd.MM.yy", "yyyy-MM-dd HH:mm:ss.SSS",
+            "yyyy-MM-dd HH:mm:ss.SSSSSSSSS", "yyyy0MM0dd", "yyyy MM dd HH", "HH:mm", "yyyy-MM", "dd/MM/yyyy mm"
+    };
+
+    @Test
+    public void isoDatesParseAsLocalDateDoes() {
+        Random random = new Random(35);
+        EpochParser parser = EpochParser.isoDate();
+        for (int i = 0; i < 20000; i++) {
+            String text = mutate(random, DateTimeFormatter.ISO_LOCAL_DATE.format(dateTime(random)));
+            check(parser, DateTimeFormatter.ISO_LOCAL_DATE, text);
+        }
+        for (String text : new String[]{"0000-01-01", "+10000-01-01", "-0001-12-31", "2016-02-29", "2015-02-29",
+                "2016-04-31", "2016-1-01", ""}) {
+            check(parser, DateTimeFormatter.ISO_LOCAL_DATE, text);
+        }
+    }
+
+    @Test
+    public void isoDateTimesParseAsLocalDateTimeDoes() {
+        Random random = new Random(36);
+        EpochParser parser = EpochParser.isoDateTime();
+        for (int i = 0; i < 20000; i++) {
+            String text = mutate(random, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime(random)));
+            check(parser, DateTimeFormatter.ISO_LOCAL_DATE_TIME, text);
+        }
+        for (String text : new String[]{"2016-02-29T24:00", "2016-02-29T23:59:60", "2016-02-29T10:15:30.",
+                "2016-02-29T10:15:30.1234567891", "2016-02-29T10:15", "2016-02-29T10:15:30.5"}) {
+            check(parser, DateTimeFormatter.ISO_LOCAL_DATE_TIME, text);
+        }
+    }
+
+    @Test
+    public void patternsParseAsTheirFormatterDoes() {
+        Random random = new Random(37);
+        for (String pattern : PATTERNS) {
+            EpochParser parser = EpochParser.ofPattern(pattern);
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+            for (int i = 0; i < 5000; i++) {
+                check(parser, formatter, mutate(random, formatter.format(dateTime(random))));
+            }
+            // Out of range fields that the SMART resolver still accepts.
+            check(parser, formatter, formatter.format(LocalDateTime.of(2016, 4, 30, 0, 0)).replace("30", "31"));
+            check(parser, formatter, formatter.format(LocalDateTime.of(2016, 4, 30, 23, 0)).replace("23", "24"));
+        }
+    }
+
+    @Test
+    public void buffersParseValueByValue() {
+        Random random = new Random(38);
+        EpochParser parser = EpochParser.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        List<LocalDateTime> expected = new ArrayList<>();
+        StringBuilder text = new StringBuilder("#");
+        for (int i = 0; i < 500; i++) {
+            // yyyy is the year of era, so years before 1 would not come back.
+            LocalDateTime dateTime = dateTime(random).withYear(1 + random.nextInt(9999))
+                    .withNano(random.nextInt(1000) * 1_000_000);
+            expected.add(dateTime);
+            text.append(formatter.format(dateTime)).append(random.nextBoolean() ? "\r\n" : "\n");
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        long[] seconds = new long[expected.size() + 1];
+        int[] nanos = new int[expected.size() + 1];
+        int[] days = new int[expected.size() + 1];
+        assertThat(parser.parseEpochSeconds(bytes, 1, bytes.length, (byte) '\n', seconds, nanos, 1))
+                .isEqualTo(expected.size());
+        assertThat(parser.parseEpochDays(text, 1, text.length(), '\n', days, 1)).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(seconds[i + 1]).isEqualTo(expected.get(i).toEpochSecond(ZoneOffset.UTC));
+            assertThat(nanos[i + 1]).isEqualTo(expected.get(i).getNano());
+            assertThat(days[i + 1]).isEqualTo((int) expected.get(i).toLocalDate().toEpochDay());
+        }
+    }
+
+    @Test
+    public void invalidTextThrowsTheFormattersException() {
+        try {
+            EpochParser.isoDate().parseEpochDay("2016-13-01");
+            fail("Expected month 13 to be rejected");
+        } catch (DateTimeParseException expected) {
+            assertThat(expected.getParsedString()).isEqualTo("2016-13-01");
+        }
+        try {
+            EpochParser.isoDate().parseEpochSecond("2016-01-01");
+            fail("Expected a date without a time to be rejected");
+        } catch (DateTimeParseException expected) {
+            assertThat(expected.getParsedString()).isEqualTo("2016-01-01");
+        }
+    }
+
+    /**
+     * Parses the text every way there is and checks each against the
+     * formatter, which either gives the answer or throws, in which case the
+     * parser must throw too.
+     */
+    private static void check(EpochParser parser, DateTimeFormatter formatter, String text) {
+        byte[] bytes = ("[" + text + "]").getBytes(StandardCharsets.ISO_8859_1);
+        Long day = null;
+        try {
+            day = LocalDate.parse(text, formatter).toEpochDay();
+        } catch (DateTimeParseException e) {
+            // The parser must throw as well.
+        }
+        Long second = null;
+        int nano = -1;
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(text, formatter);
+            second = dateTime.toEpochSecond(ZoneOffset.UTC);
+            nano = dateTime.getNano();
+        } catch (DateTimeParseException e) {
+            // The parser must throw as well.
+        }
+
+        try {
+            assertThat(parser.parseEpochDay(text)).as(text).isEqualTo(day);
+            assertThat(parser.parseEpochDay(bytes, 1, bytes.length - 1)).as(text).isEqualTo(day);
+        } catch (DateTimeParseException e) {
+            assertThat(day).as(text + " parses as " + day).isNull();
+        }
+        try {
+            int[] nanos = new int[1];
+            long[] seconds = new long[1];
+            parser.parseEpochSeconds(new CharSequence[]{text}, seconds, nanos);
+            assertThat(seconds[0]).as(text).isEqualTo(second);
+            assertThat(nanos[0]).as(text).isEqualTo(nano);
+            assertThat(parser.parseEpochSecond(bytes, 1, bytes.length - 1)).as(text).isEqualTo(second);
+        } catch (DateTimeParseException e) {
+            assertThat(second).as(text + " parses as " + second).isNull();
+        }
+    }
+
+    /**
+     * Usually the text as it is; otherwise one char replaced, dropped or
+     * added, to land on both sides of every check.
+     */
+    private static String mutate(Random random, String text) {
+        if (text.isEmpty() || random.nextInt(3) != 0) {
+            return text;
+        }
+        int at = random.nextInt(text.length());
+        String replacement = random.nextInt(4) == 0 ? "x" : String.valueOf(random.nextInt(10));
+        switch (random.nextInt(3)) {
+            case 0:
+                return text.substring(0, at) + replacement + text.substring(at + 1);
+            case 1:
+                return text.substring(0, at) + text.substring(at + 1);
+            default:
+                return text.substring(0, at) + replacement + text.substring(at);
+        }
+    }
+
+    private static LocalDateTime dateTime(Random random) {
+        int year = random.nextInt(10) == 0 ? random.nextInt(20000) - 5000 : 1900 + random.nextInt(200);
+        return LocalDateTime.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000_000));
+    }
+}
@@ -0,0 +1,381 @@
+package util;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * A formatter for fixed-width numeric patterns such as
+ * {@code "MM/dd/yyyy HH:mm"} that writes straight into a caller's
+ * {@code byte[]}, {@link ByteBuffer} or {@link StringBuilder}.
+ *
+ * The output is exactly what {@link DateTimeFormatter#ofPattern} gives for
+ * the same pattern, but nothing is allocated per call. The formatter keeps
+ * the last date it rendered as a template of the whole output, literals and
+ * date fields already in place. While timestamps stay on that date a call
+ * is one copy of the template plus the time digits; a new date renders a
+ * new template. The template is swapped in whole, so one formatter can be
+ * shared between threads.
+ *
+ * Supported pattern letters are {@code yyyy}, {@code yy}, {@code MM},
+ * {@code dd}, {@code HH}, {@code mm}, {@code ss} and one to nine {@code S}
+ * for a truncated fraction of a second. Anything else that is not a letter
+ * is copied as a literal; literals must be ASCII. Years outside 1 to 9999,
+ * which {@code DateTimeFormatter} prints with an era or sign, are handed to
+ * it.
+ */
+public final class FixedDateTimeFormat {
+
+    private static final byte[] DIGITS = new byte[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGITS[2 * i] = (byte) ('0' + i / 10);
+            DIGITS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    static final int YEAR = 0;
+    static final int YEAR_OF_CENTURY = 1;
+    static final int MONTH = 2;
+    static final int DAY = 3;
+    static final int HOUR = 4;
+    static final int MINUTE = 5;
+    static final int SECOND = 6;
+    static final int FRACTION = 7;
+
+    private final String pattern;
+    final DateTimeFormatter formatter;
+    final byte[] literals;
+    final int[] dateFields;
+    final int[] datePositions;
+    final int[] timeFields;
+    final int[] timePositions;
+    final int[] timeWidths;
+    private volatile Template template;
+
+    private FixedDateTimeFormat(String pattern, byte[] literals, int[] dateFields, int[] datePositions,
+                                int[] timeFields, int[] timePositions, int[] timeWidths) {
+        this.pattern = pattern;
+        this.formatter = DateTimeFormatter.ofPattern(pattern);
+        this.literals = literals;
+        this.dateFields = dateFields;
+        this.datePositions = datePositions;
+        this.timeFields = timeFields;
+        this.timePositions = timePositions;
+        this.timeWidths = timeWidths;
+        this.template = new Template(Long.MIN_VALUE, literals);
+    }
+
+    public static FixedDateTimeFormat ofPattern(String pattern) {
+        byte[] literals = new byte[pattern.length() + 8];
+        int[] fields = new int[pattern.length()];
+        int[] positions = new int[pattern.length()];
+        int[] widths = new int[pattern.length()];
+        int fieldCount = 0;
+        int length = 0;
+        for (int i = 0; i < pattern.length(); ) {
+            char c = pattern.charAt(i);
+            int run = 1;
+            while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                run++;
+            }
+            if (isLetter(c)) {
+                int field = fieldOf(c, run, pattern);
+                literals = ensureCapacity(literals, length + run);
+                for (int k = 0; k < run; k++) {
+                    literals[length + k] = '0';
+                }
+                fields[fieldCount] = field;
+                positions[fieldCount] = length;
+                widths[fieldCount] = run;
+                fieldCount++;
+                length += run;
+            } else {
+                if (c > 0x7F || c == '\'' || c == '[' || c == ']' || c == '#' || c == '{' || c == '}') {
+                    throw new IllegalArgumentException("Unsupported literal '" + c + "' in " + pattern);
+                }
+                literals = ensureCapacity(literals, length + run);
+                for (int k = 0; k < run; k++) {
+                    literals[length + k] = (byte) c;
+                }
+                length += run;
+            }
+            i += run;
+        }
+        int dateCount = 0;
+        for (int f = 0; f < fieldCount; f++) {
+            if (fields[f] <= DAY) {
+                dateCount++;
+            }
+        }
+        int[] dateFields = new int[dateCount];
+        int[] datePositions = new int[dateCount];
+        int[] timeFields = new int[fieldCount - dateCount];
+        int[] timePositions = new int[fieldCount - dateCount];
+        int[] timeWidths = new int[fieldCount - dateCount];
+        for (int f = 0, d = 0, t = 0; f < fieldCount; f++) {
+            if (fields[f] <= DAY) {
+                dateFields[d] = fields[f];
+                datePositions[d++] = positions[f];
+            } else {
+                timeFields[t] = fields[f];
+                timePositions[t] = positions[f];
+                timeWidths[t++] = widths[f];
+            }
+        }
+        return new FixedDateTimeFormat(pattern, Arrays.copyOf(literals, length),
+                dateFields, datePositions, timeFields, timePositions, timeWidths);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * The number of bytes or chars every supported timestamp formats to.
+     */
+    public int length() {
+        return literals.length;
+    }
+
+    /**
+     * Writes the timestamp at {@code offset} and returns the offset just
+     * past it.
+     */
+    public int format(LocalDateTime dateTime, byte[] destination, int offset) {
+        byte[] rendered = template(dateTime);
+        if (rendered == null) {
+            byte[] bytes = formatter.format(dateTime).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(bytes, 0, destination, offset, bytes.length);
+            return offset + bytes.length;
+        }
+        System.arraycopy(rendered, 0, destination, offset, rendered.length);
+        writeTime(dateTime, destination, offset);
+        return offset + rendered.length;
+    }
+
+    /**
+     * Writes the timestamp at the buffer's position and advances it.
+     */
+    public void format(LocalDateTime dateTime, ByteBuffer destination) {
+        byte[] rendered = template(dateTime);
+        if (rendered == null) {
+            destination.put(formatter.format(dateTime).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (destination.remaining() < rendered.length) {
+            throw new BufferOverflowException();
+        }
+        int start = destination.position();
+        if (destination.hasArray()) {
+            int end = format(dateTime, destination.array(), destination.arrayOffset() + start);
+            destination.position(end - destination.arrayOffset());
+            return;
+        }
+        destination.put(rendered);
+        for (int t = 0; t < timeFields.length; t++) {
+            int value = timeValue(timeFields[t], dateTime);
+            int position = start + timePositions[t];
+            int width = timeWidths[t];
+            if (timeFields[t] == FRACTION) {
+                for (int k = 8; k >= 0; k--, value /= 10) {
+                    if (k < width) {
+                        destination.put(position + k, (byte) ('0' + value % 10));
+                    }
+                }
+            } else {
+                destination.put(position, DIGITS[2 * value]);
+                destination.put(position + 1, DIGITS[2 * value + 1]);
+            }
+        }
+    }
+
+    public StringBuilder formatTo(LocalDateTime dateTime, StringBuilder destination) {
+        byte[] rendered = template(dateTime);
+        if (rendered == null) {
+            return destination.append(formatter.format(dateTime));
+        }
+        int start = destination.length();
+        for (byte b : rendered) {
+            destination.append((char) b);
+        }
+        for (int t = 0; t < timeFields.length; t++) {
+            int value = timeValue(timeFields[t], dateTime);
+            int position = start + timePositions[t];
+            int width = timeWidths[t];
+            if (timeFields[t] == FRACTION) {
+                for (int k = 8; k >= 0; k--, value /= 10) {
+                    if (k < width) {
+                        destination.setCharAt(position + k, (char) ('0' + value % 10));
+                    }
+                }
+            } else {
+                destination.setCharAt(position, (char) DIGITS[2 * value]);
+                destination.setCharAt(position + 1, (char) DIGITS[2 * value + 1]);
+            }
+        }
+        return destination;
+    }
+
+    /**
+     * Formats to a new string. This allocates the result, but nothing else.
+     */
+    public String format(LocalDateTime dateTime) {
+        if (template(dateTime) == null) {
+            return formatter.format(dateTime);
+        }
+        byte[] bytes = new byte[literals.length];
+        format(dateTime, bytes, 0);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The rendered date part for this timestamp's date, or null if the year
+     * is one that has to go through {@code DateTimeFormatter}.
+     */
+    private byte[] template(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            return null;
+        }
+        long epochDay = dateTime.toLocalDate().toEpochDay();
+        Template current = template;
+        if (current.epochDay == epochDay) {
+            return current.bytes;
+        }
+        byte[] bytes = literals.clone();
+        for (int d = 0; d < dateFields.length; d++) {
+            int position = datePositions[d];
+            switch (dateFields[d]) {
+                case YEAR:
+                    writeTwoDigits(bytes, position, year / 100);
+                    writeTwoDigits(bytes, position + 2, year % 100);
+                    break;
+                case YEAR_OF_CENTURY:
+                    writeTwoDigits(bytes, position, year % 100);
+                    break;
+                case MONTH:
+                    writeTwoDigits(bytes, position, dateTime.getMonthValue());
+                    break;
+                default:
+                    writeTwoDigits(bytes, position, dateTime.getDayOfMonth());
+                    break;
+            }
+        }
+        template = new Template(epochDay, bytes);
+        return bytes;
+    }
+
+    private void writeTime(LocalDateTime dateTime, byte[] destination, int offset) {
+        for (int t = 0; t < timeFields.length; t++) {
+            int value = timeValue(timeFields[t], dateTime);
+            int position = offset + timePositions[t];
+            if (timeFields[t] == FRACTION) {
+                int width = timeWidths[t];
+                for (int k = 8; k >= 0; k--, value /= 10) {
+                    if (k < width) {
+                        destination[position + k] = (byte) ('0' + value % 10);
+                    }
+                }
+            } else {
+                writeTwoDigits(destination, position, value);
+            }
+        }
+    }
+
+    private static int timeValue(int field, LocalDateTime dateTime) {
+        switch (field) {
+            case HOUR:
+                return dateTime.getHour();
+            case MINUTE:
+                return dateTime.getMinute();
+            case SECOND:
+                return dateTime.getSecond();
+            default:
+                return dateTime.getNano();
+        }
+    }
+
+    private static void writeTwoDigits(byte[] destination, int position, int value) {
+        destination[position] = DIGITS[2 * value];
+        destination[position + 1] = DIGITS[2 * value + 1];
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+    }
+
+    private static int fieldOf(char letter, int count, String pattern) {
+        switch (letter) {
+            case 'y':
+                if (count == 4) {
+                    return YEAR;
+                }
+                if (count == 2) {
+                    return YEAR_OF_CENTURY;
+                }
+                break;
+            case 'M':
+                if (count == 2) {
+                    return MONTH;
+                }
+                break;
+            case 'd':
+                if (count == 2) {
+                    return DAY;
+                }
+                break;
+            case 'H':
+                if (count == 2) {
+                    return HOUR;
+                }
+                break;
+            case 'm':
+                if (count == 2) {
+                    return MINUTE;
+                }
+                break;
+            case 's':
+                if (count == 2) {
+                    return SECOND;
+                }
+                break;
+            case 'S':
+                if (count <= 9) {
+                    return FRACTION;
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unsupported field '" + repeat(letter, count) + "' in " + pattern
+                + "; only fixed-width numeric fields are supported");
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static byte[] ensureCapacity(byte[] bytes, int length) {
+        return length <= bytes.length ? bytes : Arrays.copyOf(bytes, Math.max(length, 2 * bytes.length));
+    }
+
+    /**
+     * The output for one date with every time field still zero.
+     */
+    private static final class Template {
+        final long epochDay;
+        final byte[] bytes;
+
+        Template(long epochDay, byte[] bytes) {
+            this.epochDay = epochDay;
+            this.bytes = bytes;
+        }
+    }
+}
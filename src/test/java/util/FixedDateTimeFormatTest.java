@@ -0,0 +1,149 @@
+package util;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class FixedDateTimeFormatTest {
+
+    private static final String[] PATTERNS = {
+            "MM/dd/yyyy HH:mm", "yyyy-MM-dd HH:mm:ss.SSS", "yyyyMMddHHmmssSSSSSSSSS",
+            "dd.MM.yy", "HH:mm:ss", "S", "yy-MM-dd HH:mm:ss.SSSSSS", "<yyyy>"
+    };
+
+    @Test
+    public void everyOutputMatchesDateTimeFormatter() {
+        Random random = new Random(29);
+        for (String pattern : PATTERNS) {
+            FixedDateTimeFormat format = FixedDateTimeFormat.ofPattern(pattern);
+            DateTimeFormatter expected = DateTimeFormatter.ofPattern(pattern);
+            LocalDateTime dateTime = dateTime(random);
+            for (int i = 0; i < 2000; i++) {
+                // Runs of timestamps on one date reuse the template.
+                dateTime = random.nextInt(8) == 0
+                        ? dateTime(random)
+                        : dateTime.toLocalDate().atTime(time(random));
+                check(format, expected.format(dateTime), dateTime);
+            }
+        }
+    }
+
+    @Test
+    public void yearsOutsideOneToNineThousandNineHundredNinetyNineGoThroughTheFormatter() {
+        FixedDateTimeFormat format = FixedDateTimeFormat.ofPattern("yyyy-MM-dd HH:mm");
+        DateTimeFormatter expected = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        int[] years = {-10000, -1, 0, 1, 9999, 10000, 123456};
+        for (int year : years) {
+            LocalDateTime dateTime = LocalDateTime.of(year, 2, 28, 13, 45, 7, 123456789);
+            check(format, expected.format(dateTime), dateTime);
+        }
+    }
+
+    @Test
+    public void aSharedFormatterAgreesAcrossThreads() throws Exception {
+        FixedDateTimeFormat format = FixedDateTimeFormat.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        DateTimeFormatter expected = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Random random = new Random(30 + t);
+                results.add(executor.submit(() -> {
+                    byte[] bytes = new byte[format.length()];
+                    for (int i = 0; i < 20000; i++) {
+                        LocalDateTime dateTime = LocalDate.of(2016, 1 + random.nextInt(2), 1).atTime(time(random));
+                        format.format(dateTime, bytes, 0);
+                        assertThat(new String(bytes, StandardCharsets.US_ASCII))
+                                .isEqualTo(expected.format(dateTime));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void unsupportedPatternsAreRejected() {
+        for (String pattern : new String[]{"MMM dd", "yyy", "EEE HH:mm", "HH'h'mm", "dd [MM]", "dd \u00e9",
+                "SSSSSSSSSS"}) {
+            try {
+                FixedDateTimeFormat.ofPattern(pattern);
+                fail("Expected " + pattern + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertThat(expected.getMessage()).contains(pattern);
+            }
+        }
+    }
+
+    @Test
+    public void fullBuffersAreLeftAlone() {
+        FixedDateTimeFormat format = FixedDateTimeFormat.ofPattern("yyyy-MM-dd");
+        LocalDateTime dateTime = LocalDateTime.of(2016, 2, 29, 0, 0);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(9), ByteBuffer.allocateDirect(9)}) {
+            try {
+                format.format(dateTime, buffer);
+                fail("Expected " + buffer + " to overflow");
+            } catch (BufferOverflowException expected) {
+                assertThat(buffer.position()).isEqualTo(0);
+            }
+        }
+    }
+
+    /**
+     * Formats to every destination, each at an offset, and checks each one.
+     */
+    private static void check(FixedDateTimeFormat format, String expected, LocalDateTime dateTime) {
+        assertThat(format.format(dateTime)).isEqualTo(expected);
+
+        byte[] bytes = new byte[expected.length() + 5];
+        assertThat(format.format(dateTime, bytes, 3)).isEqualTo(3 + expected.length());
+        assertThat(new String(bytes, 3, expected.length(), StandardCharsets.US_ASCII)).isEqualTo(expected);
+
+        ByteBuffer backing = ByteBuffer.allocate(expected.length() + 6);
+        backing.position(2);
+        ByteBuffer heap = backing.slice();
+        heap.position(1);
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length() + 4);
+        direct.position(1);
+        for (ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+            format.format(dateTime, buffer);
+            assertThat(buffer.position()).isEqualTo(1 + expected.length());
+            byte[] written = new byte[expected.length()];
+            ((ByteBuffer) buffer.duplicate().position(1)).get(written);
+            assertThat(new String(written, StandardCharsets.US_ASCII)).isEqualTo(expected);
+        }
+
+        assertThat(format.formatTo(dateTime, new StringBuilder("at ")).toString()).isEqualTo("at " + expected);
+    }
+
+    private static LocalDateTime dateTime(Random random) {
+        LocalDate date = LocalDate.ofEpochDay(LocalDate.of(1, 1, 1).toEpochDay()
+                + (long) (random.nextDouble() * (LocalDate.of(9999, 12, 31).toEpochDay()
+                - LocalDate.of(1, 1, 1).toEpochDay())));
+        return date.atTime(time(random));
+    }
+
+    private static LocalTime time(Random random) {
+        return LocalTime.ofNanoOfDay((long) (random.nextDouble() * LocalTime.MAX.toNanoOfDay()));
+    }
+}
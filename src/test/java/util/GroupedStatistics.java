@@ -0,0 +1,140 @@
+package util;
+
+import util.LessonResources.Menu;
+
+import java.util.Arrays;
+
+/**
+ * Count, sum, min, max and average of a {@code double} value for each of a
+ * small range of integer keys, such as section ordinals. It is the
+ * primitive counterpart of a {@code Map<Integer, DoubleSummaryStatistics>}:
+ * each figure is one array indexed by key, so collecting boxes nothing and
+ * there is no map to look keys up in or merge.
+ *
+ * Sums use the same compensated summation as
+ * {@link java.util.DoubleSummaryStatistics}, compensation and all, and a key
+ * that saw no values follows its conventions too: a min of positive
+ * infinity, a max of negative infinity and an average of zero. Sums may
+ * still differ from {@code groupingBy(key, summarizingDouble(value))} in the
+ * last bits when the values are split and combined in another order.
+ *
+ * Built by the collectors in {@link GroupingCollectors}, or by
+ * {@link #bySection(Menu)} straight from a menu's price column.
+ */
+public final class GroupedStatistics {
+
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] compensations;
+    private final double[] simpleSums;
+    private final double[] mins;
+    private final double[] maxes;
+
+    GroupedStatistics(int keys) {
+        if (keys < 0) {
+            throw new IllegalArgumentException("Key count must not be negative: " + keys);
+        }
+        counts = new long[keys];
+        sums = new double[keys];
+        compensations = new double[keys];
+        simpleSums = new double[keys];
+        mins = new double[keys];
+        maxes = new double[keys];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Price statistics for each section of the menu, keyed by section index.
+     */
+    public static GroupedStatistics bySection(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        GroupedStatistics statistics = new GroupedStatistics(columns.sectionCount());
+        for (int s = 0; s < columns.sectionCount(); s++) {
+            for (int ordinal = columns.sectionStart(s); ordinal < columns.sectionEnd(s); ordinal++) {
+                statistics.accept(s, columns.price(ordinal));
+            }
+        }
+        return statistics;
+    }
+
+    void accept(int key, double value) {
+        if (key < 0 || key >= counts.length) {
+            throw new IllegalArgumentException("Key " + key + " is outside [0, " + counts.length + ")");
+        }
+        counts[key]++;
+        simpleSums[key] += value;
+        add(key, value);
+        mins[key] = Math.min(mins[key], value);
+        maxes[key] = Math.max(maxes[key], value);
+    }
+
+    GroupedStatistics combine(GroupedStatistics other) {
+        for (int key = 0; key < counts.length; key++) {
+            if (other.counts[key] == 0) {
+                continue;
+            }
+            counts[key] += other.counts[key];
+            simpleSums[key] += other.simpleSums[key];
+            add(key, other.sums[key]);
+            // The other side's compensation is what its sum is too high by.
+            add(key, -other.compensations[key]);
+            mins[key] = Math.min(mins[key], other.mins[key]);
+            maxes[key] = Math.max(maxes[key], other.maxes[key]);
+        }
+        return this;
+    }
+
+    private void add(int key, double value) {
+        double corrected = value - compensations[key];
+        double sum = sums[key];
+        double next = sum + corrected;
+        compensations[key] = (next - sum) - corrected;
+        sums[key] = next;
+    }
+
+    /**
+     * How many keys there are; keys run from zero to one less than this.
+     */
+    public int keyCount() {
+        return counts.length;
+    }
+
+    public long getCount(int key) {
+        return counts[key];
+    }
+
+    public double getSum(int key) {
+        double sum = sums[key] - compensations[key];
+        if (Double.isNaN(sum) && Double.isInfinite(simpleSums[key])) {
+            return simpleSums[key];
+        }
+        return sum;
+    }
+
+    public double getMin(int key) {
+        return mins[key];
+    }
+
+    public double getMax(int key) {
+        return maxes[key];
+    }
+
+    public double getAverage(int key) {
+        return counts[key] == 0 ? 0.0 : getSum(key) / counts[key];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("GroupedStatistics{");
+        for (int key = 0; key < counts.length; key++) {
+            builder.append(key == 0 ? "" : ", ").append(key)
+                    .append("={count=").append(counts[key])
+                    .append(", sum=").append(getSum(key))
+                    .append(", min=").append(mins[key])
+                    .append(", average=").append(getAverage(key))
+                    .append(", max=").append(maxes[key]).append('}');
+        }
+        return builder.append('}').toString();
+    }
+}
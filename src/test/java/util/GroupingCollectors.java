@@ -0,0 +1,147 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Collectors that group by a small integer key into a
+ * {@link GroupedStatistics}, in place of
+ * <pre>
+ *     groupingBy(section, summarizingDouble(Food::getPrice))
+ * </pre>
+ * For per-section prices:
+ * <pre>
+ *     GroupedStatistics bySection = menu.items().collect(GroupingCollectors.bySection(menu));
+ *     double averageDinner = bySection.getAverage(2);
+ * </pre>
+ *
+ * The plain collectors give each stream split its own arrays and merge them
+ * key by key, which costs O(keys) per merge instead of a map merge. The
+ * concurrent ones share one container between all threads of a parallel
+ * stream: each thread fills arrays of its own without taking a lock, and
+ * those are combined once when the stream finishes.
+ */
+public final class GroupingCollectors {
+
+    private GroupingCollectors() {
+    }
+
+    /**
+     * Statistics of {@code value} for each key in {@code [0, keys)}.
+     */
+    public static <T> Collector<T, ?, GroupedStatistics> summarizing(
+            int keys, ToIntFunction<? super T> key, ToDoubleFunction<? super T> value) {
+        return Collector.of(
+                () -> new GroupedStatistics(keys),
+                (statistics, t) -> statistics.accept(key.applyAsInt(t), value.applyAsDouble(t)),
+                GroupedStatistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * As {@link #summarizing}, but one container is shared by every thread
+     * of a parallel stream. Sums may then depend on how threads interleave,
+     * just as with {@code groupingByConcurrent}.
+     */
+    public static <T> Collector<T, ?, GroupedStatistics> summarizingConcurrent(
+            int keys, ToIntFunction<? super T> key, ToDoubleFunction<? super T> value) {
+        return Collector.of(
+                () -> new PerThread(keys),
+                (parts, t) -> parts.accept(key.applyAsInt(t), value.applyAsDouble(t)),
+                PerThread::combine,
+                PerThread::finish,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Price statistics of a menu's items keyed by section index.
+     */
+    public static Collector<Food, ?, GroupedStatistics> bySection(Menu menu) {
+        return summarizing(menu.getSections().size(), sectionOf(menu), Food::getPrice);
+    }
+
+    public static Collector<Food, ?, GroupedStatistics> bySectionConcurrent(Menu menu) {
+        return summarizingConcurrent(menu.getSections().size(), sectionOf(menu), Food::getPrice);
+    }
+
+    /**
+     * Maps an item of the menu to the index of its section. Items of a
+     * {@link ColumnarMenu} know their ordinal; any other menu's items are
+     * looked up by identity in a table built here once.
+     */
+    public static ToIntFunction<Food> sectionOf(Menu menu) {
+        if (menu instanceof ColumnarMenu) {
+            ColumnarMenu columns = (ColumnarMenu) menu;
+            return food -> {
+                if (!(food instanceof ColumnarMenu.Item) || ((ColumnarMenu.Item) food).getMenu() != columns) {
+                    throw new IllegalArgumentException(food.getName() + " is not on this menu");
+                }
+                return columns.sectionOf(((ColumnarMenu.Item) food).getOrdinal());
+            };
+        }
+        Map<Food, Integer> sections = new IdentityHashMap<>();
+        for (int s = 0; s < menu.getSections().size(); s++) {
+            Section section = menu.getSections().get(s);
+            for (Food food : section.getItems()) {
+                sections.put(food, s);
+            }
+        }
+        return food -> {
+            Integer section = sections.get(food);
+            if (section == null) {
+                throw new IllegalArgumentException(food.getName() + " is not on this menu");
+            }
+            return section;
+        };
+    }
+
+    /**
+     * The shared container of the concurrent collectors. Each thread gets
+     * its own {@link GroupedStatistics} the first time it accepts a value
+     * and from then on updates it without any locking; the parts are
+     * combined once when the stream finishes, by which time the stream has
+     * waited for every thread that fed them.
+     */
+    static final class PerThread {
+        private final int keys;
+        private final Queue<GroupedStatistics> parts = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<GroupedStatistics> local = ThreadLocal.withInitial(this::newPart);
+
+        PerThread(int keys) {
+            this.keys = keys;
+        }
+
+        private GroupedStatistics newPart() {
+            GroupedStatistics part = new GroupedStatistics(keys);
+            parts.add(part);
+            return part;
+        }
+
+        void accept(int key, double value) {
+            local.get().accept(key, value);
+        }
+
+        PerThread combine(PerThread other) {
+            parts.addAll(other.parts);
+            return this;
+        }
+
+        GroupedStatistics finish() {
+            GroupedStatistics result = new GroupedStatistics(keys);
+            for (GroupedStatistics part : parts) {
+                result.combine(part);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.data.Offset.offset;
+import static util.LessonResources.createMenu;
+
+public class GroupingCollectorsTest {
+
+    @Test
+    public void matchesGroupingBySummarizingDouble() {
+        Random random = new Random(18);
+        for (int i = 0; i < 2000; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 200);
+            ToIntFunction<Food> section = GroupingCollectors.sectionOf(menu);
+            boolean parallel = i % 2 == 1;
+
+            GroupedStatistics grouped = (parallel ? menu.items().parallel() : menu.items())
+                    .collect(GroupingCollectors.bySection(menu));
+            Map<Integer, DoubleSummaryStatistics> expected = (parallel ? menu.items().parallel() : menu.items())
+                    .collect(Collectors.groupingBy(section::applyAsInt, Collectors.summarizingDouble(Food::getPrice)));
+
+            assertMatches(grouped, expected);
+        }
+    }
+
+    @Test
+    public void bySectionMatchesEachSectionsStream() {
+        Random random = new Random(180);
+        for (int i = 0; i < 500; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 100);
+            GroupedStatistics grouped = GroupedStatistics.bySection(menu);
+
+            assertThat(grouped.keyCount()).isEqualTo(menu.getSections().size());
+            for (int s = 0; s < grouped.keyCount(); s++) {
+                DoubleSummaryStatistics expected = menu.getSections().get(s).getItems().stream()
+                        .mapToDouble(Food::getPrice).summaryStatistics();
+                assertMatches(grouped, s, expected);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentCollectorMatchesGroupingByConcurrent() {
+        Random random = new Random(181);
+        for (int i = 0; i < 200; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 2000);
+            ToIntFunction<Food> section = GroupingCollectors.sectionOf(menu);
+
+            GroupedStatistics concurrent = menu.items().parallel()
+                    .collect(GroupingCollectors.bySectionConcurrent(menu));
+            Map<Integer, DoubleSummaryStatistics> expected = menu.items().parallel()
+                    .collect(Collectors.groupingByConcurrent(section::applyAsInt,
+                            Collectors.summarizingDouble(Food::getPrice)));
+
+            assertMatches(concurrent, expected);
+        }
+    }
+
+    @Test
+    public void infiniteAndNaNValuesFollowDoubleSummaryStatistics() {
+        double[] values = {1.0, Double.POSITIVE_INFINITY, 2.0, Double.NEGATIVE_INFINITY, Double.NaN};
+        for (int n = 1; n <= values.length; n++) {
+            double[] some = Arrays.copyOf(values, n);
+            GroupedStatistics sequential = Arrays.stream(some).boxed()
+                    .collect(GroupingCollectors.summarizing(1, value -> 0, Double::doubleValue));
+            GroupedStatistics parallel = Arrays.stream(some).boxed().parallel()
+                    .collect(GroupingCollectors.summarizing(1, value -> 0, Double::doubleValue));
+            DoubleSummaryStatistics expected = Arrays.stream(some).summaryStatistics();
+
+            assertThat(sequential.getSum(0)).isEqualTo(expected.getSum());
+            assertThat(parallel.getSum(0)).isEqualTo(expected.getSum());
+            assertThat(sequential.getMin(0)).isEqualTo(expected.getMin());
+            assertThat(sequential.getMax(0)).isEqualTo(expected.getMax());
+        }
+    }
+
+    @Test
+    public void emptyKeysFollowDoubleSummaryStatistics() {
+        GroupedStatistics grouped = createMenu().getSections().get(0).getItems().stream()
+                .collect(GroupingCollectors.summarizing(3, food -> 2, Food::getPrice));
+
+        assertThat(grouped.getCount(0)).isEqualTo(0);
+        assertThat(grouped.getMin(0)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(grouped.getMax(0)).isEqualTo(Double.NEGATIVE_INFINITY);
+        assertThat(grouped.getAverage(0)).isEqualTo(0.0);
+        assertThat(grouped.getSum(2)).isEqualTo(10.0);
+    }
+
+    @Test
+    public void keysOutsideTheRangeAreRejected() {
+        try {
+            createMenu().items().collect(GroupingCollectors.summarizing(2, food -> 2, Food::getPrice));
+            fail("Expected the key to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("outside [0, 2)");
+        }
+    }
+
+    @Test
+    public void itemsFromAnotherMenuAreRejected() {
+        Menu menu = createMenu();
+        try {
+            createMenu().items().collect(GroupingCollectors.bySection(menu));
+            fail("Expected an item of another menu to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("is not on this menu");
+        }
+    }
+
+    private static void assertMatches(GroupedStatistics grouped, Map<Integer, DoubleSummaryStatistics> expected) {
+        for (int key = 0; key < grouped.keyCount(); key++) {
+            DoubleSummaryStatistics statistics = expected.get(key);
+            assertMatches(grouped, key, statistics == null ? new DoubleSummaryStatistics() : statistics);
+        }
+    }
+
+    private static void assertMatches(GroupedStatistics grouped, int key, DoubleSummaryStatistics expected) {
+        assertThat(grouped.getCount(key)).isEqualTo(expected.getCount());
+        assertThat(grouped.getSum(key)).isCloseTo(expected.getSum(), offset(1e-9));
+        assertThat(grouped.getMin(key)).isEqualTo(expected.getMin());
+        assertThat(grouped.getMax(key)).isEqualTo(expected.getMax());
+        assertThat(grouped.getAverage(key)).isCloseTo(expected.getAverage(), offset(1e-9));
+    }
+}
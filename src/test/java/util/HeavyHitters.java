@@ -0,0 +1,359 @@
+package util;
+
+import util.LessonResources.Menu;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The most popular items of each section, estimated in fixed memory with the
+ * Space-Saving algorithm.
+ *
+ * Each section keeps at most {@code capacity} candidate items. When a new
+ * item arrives and the sketch is full, it replaces the candidate with the
+ * lowest count and inherits that count as its possible error. Any item whose
+ * true count is more than {@code 1/capacity} of its section's total is
+ * guaranteed to be a candidate, and every reported count is at least the
+ * true count and at most {@link Entry#getError()} above it.
+ *
+ * For concurrent updates each section's sketch is split into stripes, each
+ * with its own lock. A thread starts at a stripe picked from its id and moves
+ * on to the next one if that is busy, so threads rarely wait for each other
+ * and there is no lock shared by the whole menu. {@link #top} merges the
+ * stripes of a section.
+ */
+public class HeavyHitters {
+
+    final ColumnarMenu menu;
+    private final Sketch[][] sections;
+
+    private HeavyHitters(ColumnarMenu menu, int capacity, int stripes) {
+        this.menu = menu;
+        this.sections = new Sketch[menu.sectionCount()][stripes];
+        for (Sketch[] section : sections) {
+            for (int s = 0; s < stripes; s++) {
+                section[s] = new Sketch(capacity);
+            }
+        }
+    }
+
+    /**
+     * Sketches that track {@code capacity} candidates per section, striped
+     * for the number of available processors.
+     */
+    public static HeavyHitters of(Menu menu, int capacity) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return of(menu, capacity, Integer.highestOneBit(Math.max(1, processors - 1)) << 1);
+    }
+
+    public static HeavyHitters of(Menu menu, int capacity, int stripes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a power of two: " + stripes);
+        }
+        return new HeavyHitters(ColumnarMenu.of(menu), capacity, stripes);
+    }
+
+    public ColumnarMenu menu() {
+        return menu;
+    }
+
+    public void offer(int ordinal) {
+        offer(ordinal, 1);
+    }
+
+    public void offer(int ordinal, long weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        Sketch[] stripes = sections[menu.sectionOf(ordinal)];
+        int mask = stripes.length - 1;
+        int start = (int) mix(Thread.currentThread().getId()) & mask;
+        for (int i = 0; i <= mask; i++) {
+            Sketch sketch = stripes[(start + i) & mask];
+            if (sketch.lock.tryLock()) {
+                try {
+                    sketch.offer(ordinal, weight);
+                } finally {
+                    sketch.lock.unlock();
+                }
+                return;
+            }
+        }
+        Sketch sketch = stripes[start];
+        sketch.lock.lock();
+        try {
+            sketch.offer(ordinal, weight);
+        } finally {
+            sketch.lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code n} of the section's most popular items, highest count
+     * first.
+     */
+    public List<Entry> top(int section, int n) {
+        Sketch[] stripes = sections[section];
+        List<Map<Integer, long[]>> copies = new ArrayList<>(stripes.length);
+        long[] floors = new long[stripes.length];
+        for (int s = 0; s < stripes.length; s++) {
+            Sketch sketch = stripes[s];
+            sketch.lock.lock();
+            try {
+                copies.add(sketch.entries());
+                floors[s] = sketch.floor();
+            } finally {
+                sketch.lock.unlock();
+            }
+        }
+        Map<Integer, long[]> merged = new HashMap<>();
+        for (Map<Integer, long[]> copy : copies) {
+            for (Integer ordinal : copy.keySet()) {
+                merged.putIfAbsent(ordinal, new long[2]);
+            }
+        }
+        // An item a full stripe is not tracking may have been seen there up
+        // to that stripe's lowest count times, so that goes into its error.
+        for (Map.Entry<Integer, long[]> candidate : merged.entrySet()) {
+            long[] total = candidate.getValue();
+            for (int s = 0; s < copies.size(); s++) {
+                long[] counts = copies.get(s).get(candidate.getKey());
+                total[0] += counts == null ? floors[s] : counts[0];
+                total[1] += counts == null ? floors[s] : counts[1];
+            }
+        }
+        List<Entry> entries = new ArrayList<>(merged.size());
+        for (Map.Entry<Integer, long[]> candidate : merged.entrySet()) {
+            long[] total = candidate.getValue();
+            entries.add(new Entry(menu, candidate.getKey(), total[0], total[1]));
+        }
+        entries.sort((a, b) -> a.count != b.count
+                ? Long.compare(b.count, a.count)
+                : Integer.compare(a.ordinal, b.ordinal));
+        return Collections.unmodifiableList(entries.subList(0, Math.min(n, entries.size())));
+    }
+
+    public List<Entry> top(String section, int n) {
+        for (int s = 0; s < menu.sectionCount(); s++) {
+            if (menu.sectionName(s).equals(section)) {
+                return top(s, n);
+            }
+        }
+        throw new IllegalArgumentException("No section named " + section);
+    }
+
+    private static long mix(long id) {
+        id *= 0x9E3779B97F4A7C15L;
+        return id ^ (id >>> 32);
+    }
+
+    /**
+     * A candidate heavy hitter: its estimated count and how much of that
+     * count may have been inherited from items it replaced.
+     */
+    public static final class Entry {
+        private final ColumnarMenu menu;
+        final int ordinal;
+        final long count;
+        final long error;
+
+        Entry(ColumnarMenu menu, int ordinal, long count, long error) {
+            this.menu = menu;
+            this.ordinal = ordinal;
+            this.count = count;
+            this.error = error;
+        }
+
+        public int getOrdinal() {
+            return ordinal;
+        }
+
+        public String getName() {
+            return menu.name(ordinal);
+        }
+
+        /**
+         * An upper bound on the true count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        /**
+         * A lower bound on the true count.
+         */
+        public long getGuaranteedCount() {
+            return count - error;
+        }
+
+        @Override
+        public String toString() {
+            return getName() + "=" + count + (error == 0 ? "" : " (error " + error + ")");
+        }
+    }
+
+    /**
+     * One stripe's Space-Saving summary. Candidates sit in a min-heap on
+     * count, so the one to evict is always at the root, and an open
+     * addressing table maps each candidate's ordinal to its heap position.
+     */
+    static final class Sketch {
+        final ReentrantLock lock = new ReentrantLock();
+        private final int[] ordinals;
+        private final long[] counts;
+        private final long[] errors;
+        private final int[] keys;
+        private final int[] positions;
+        private int size;
+
+        Sketch(int capacity) {
+            ordinals = new int[capacity];
+            counts = new long[capacity];
+            errors = new long[capacity];
+            int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+            keys = new int[tableSize];
+            positions = new int[tableSize];
+            Arrays.fill(keys, -1);
+        }
+
+        void offer(int ordinal, long weight) {
+            int position = positionOf(ordinal);
+            if (position >= 0) {
+                counts[position] += weight;
+                siftDown(position);
+            } else if (size < ordinals.length) {
+                ordinals[size] = ordinal;
+                counts[size] = weight;
+                errors[size] = 0;
+                put(ordinal, size);
+                siftUp(size++);
+            } else {
+                remove(ordinals[0]);
+                ordinals[0] = ordinal;
+                errors[0] = counts[0];
+                counts[0] += weight;
+                put(ordinal, 0);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * The count any untracked item may have reached: the lowest count if
+         * the sketch is full, otherwise zero.
+         */
+        long floor() {
+            return size < ordinals.length ? 0 : counts[0];
+        }
+
+        Map<Integer, long[]> entries() {
+            Map<Integer, long[]> entries = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                entries.put(ordinals[i], new long[]{counts[i], errors[i]});
+            }
+            return entries;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (counts[parent] <= counts[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int ordinal = ordinals[i];
+            long count = counts[i];
+            long error = errors[i];
+            ordinals[i] = ordinals[j];
+            counts[i] = counts[j];
+            errors[i] = errors[j];
+            ordinals[j] = ordinal;
+            counts[j] = count;
+            errors[j] = error;
+            put(ordinals[i], i);
+            put(ordinals[j], j);
+        }
+
+        private int positionOf(int ordinal) {
+            int mask = keys.length - 1;
+            for (int slot = slotOf(ordinal); keys[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == ordinal) {
+                    return positions[slot];
+                }
+            }
+            return -1;
+        }
+
+        private void put(int ordinal, int position) {
+            int mask = keys.length - 1;
+            int slot = slotOf(ordinal);
+            while (keys[slot] >= 0 && keys[slot] != ordinal) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = ordinal;
+            positions[slot] = position;
+        }
+
+        /**
+         * Removes a key and shifts later entries of its probe run back, so
+         * lookups never need tombstones.
+         */
+        private void remove(int ordinal) {
+            int mask = keys.length - 1;
+            int slot = slotOf(ordinal);
+            while (keys[slot] != ordinal) {
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] >= 0; next = (next + 1) & mask) {
+                int home = slotOf(keys[next]);
+                // Move the entry back unless its home lies cyclically in (hole, next].
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    positions[hole] = positions[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = -1;
+        }
+
+        private int slotOf(int ordinal) {
+            return (int) mix(ordinal) & (keys.length - 1);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Menu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class HeavyHittersTest {
+
+    @Test
+    public void countsAreExactWhileEveryItemFits() {
+        HeavyHitters hitters = HeavyHitters.of(createMenu(), 5, 1);
+        long[] expected = new long[12];
+        Random random = new Random(20);
+        for (int k = 0; k < 1000; k++) {
+            int ordinal = random.nextInt(5);
+            hitters.offer(ordinal);
+            expected[ordinal]++;
+        }
+
+        List<HeavyHitters.Entry> top = hitters.top("Breakfast", 5);
+        assertThat(top).hasSize(5);
+        for (HeavyHitters.Entry entry : top) {
+            assertThat(entry.getCount()).isEqualTo(expected[entry.getOrdinal()]);
+            assertThat(entry.getError()).isEqualTo(0);
+        }
+        for (int i = 1; i < top.size(); i++) {
+            assertThat(top.get(i).getCount()).isLessThanOrEqualTo(top.get(i - 1).getCount());
+        }
+        assertThat(hitters.top("Lunch", 5)).isEmpty();
+    }
+
+    @Test
+    public void boundsHoldAndHeavyItemsAreFoundUnderConcurrentOffers() throws Exception {
+        Random random = new Random(21);
+        for (int round = 0; round < 10; round++) {
+            Menu menu = ColumnarMenu.of(RandomMenus.menu(random, 3, 200));
+            int capacity = 1 + random.nextInt(10);
+            HeavyHitters hitters = HeavyHitters.of(menu, capacity, 1 << random.nextInt(4));
+            ColumnarMenu columns = hitters.menu();
+            AtomicLongArray truth = offerSkewed(hitters, columns.size(), round);
+
+            for (int s = 0; s < columns.sectionCount(); s++) {
+                long total = 0;
+                for (int o = columns.sectionStart(s); o < columns.sectionEnd(s); o++) {
+                    total += truth.get(o);
+                }
+                List<HeavyHitters.Entry> top = hitters.top(s, Integer.MAX_VALUE);
+                for (HeavyHitters.Entry entry : top) {
+                    long actual = truth.get(entry.getOrdinal());
+                    assertThat(entry.getCount()).isGreaterThanOrEqualTo(actual);
+                    assertThat(entry.getGuaranteedCount()).isLessThanOrEqualTo(actual);
+                    assertThat(columns.sectionOf(entry.getOrdinal())).isEqualTo(s);
+                }
+                for (int o = columns.sectionStart(s); o < columns.sectionEnd(s); o++) {
+                    if (truth.get(o) * capacity > total) {
+                        int ordinal = o;
+                        assertThat(top.stream().anyMatch(e -> e.getOrdinal() == ordinal))
+                                .as("ordinal " + o + " with " + truth.get(o) + " of " + total).isTrue();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectsBadArguments() {
+        try {
+            HeavyHitters.of(createMenu(), 0);
+            fail("Expected a capacity of zero to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Capacity");
+        }
+        try {
+            HeavyHitters.of(createMenu(), 4, 3);
+            fail("Expected three stripes to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("power of two");
+        }
+        try {
+            HeavyHitters.of(createMenu(), 4).offer(0, 0);
+            fail("Expected a weight of zero to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Weight");
+        }
+        try {
+            HeavyHitters.of(createMenu(), 4).top("Brunch", 3);
+            fail("Expected an unknown section to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Brunch");
+        }
+    }
+
+    /**
+     * Four threads offer items with a Zipf-like skew, and the true counts
+     * are kept alongside.
+     */
+    private static AtomicLongArray offerSkewed(HeavyHitters hitters, int size, long seed) throws Exception {
+        AtomicLongArray truth = new AtomicLongArray(size);
+        if (size == 0) {
+            return truth;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> offers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Random random = new Random(seed * 31 + t);
+                offers.add(executor.submit(() -> {
+                    for (int k = 0; k < 5000; k++) {
+                        int ordinal = (int) (size * Math.pow(random.nextDouble(), 4));
+                        long weight = 1 + random.nextInt(2);
+                        hitters.offer(ordinal, weight);
+                        truth.addAndGet(ordinal, weight);
+                    }
+                }));
+            }
+            for (Future<?> offer : offers) {
+                offer.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return truth;
+    }
+}
@@ -0,0 +1,91 @@
+package util;
+
+import util.LessonResources.Menu;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count per menu item, such as how often it was ordered, that any number of
+ * threads can update at once.
+ *
+ * Counters are indexed by item ordinal rather than kept in a map keyed by
+ * name, so there is no shared lock. Each item starts as a single slot in an
+ * {@link AtomicLongArray}, updated with one compare-and-set. The first time
+ * that CAS fails because another thread got there first, the item gets its
+ * own {@link LongAdder} and from then on updates are spread over its cells.
+ * Quiet items stay at one long each; only the contended ones pay for
+ * striping.
+ *
+ * Reads are not a snapshot across items: a {@link #total()} taken while
+ * other threads are counting may miss updates that are in flight.
+ *
+ * Items are only ever addressed by ordinal, so a menu with repeated names
+ * counts each item separately. Callers that start from a name can look the
+ * ordinal up once in a {@link NameIndex}.
+ */
+public class ItemCounters {
+
+    final ColumnarMenu menu;
+    private final AtomicLongArray base;
+    private final AtomicReferenceArray<LongAdder> contended;
+
+    private ItemCounters(ColumnarMenu menu) {
+        this.menu = menu;
+        this.base = new AtomicLongArray(menu.size());
+        this.contended = new AtomicReferenceArray<>(menu.size());
+    }
+
+    public static ItemCounters of(Menu menu) {
+        return new ItemCounters(ColumnarMenu.of(menu));
+    }
+
+    public ColumnarMenu menu() {
+        return menu;
+    }
+
+    public void increment(int ordinal) {
+        add(ordinal, 1);
+    }
+
+    public void add(int ordinal, long delta) {
+        LongAdder adder = contended.get(ordinal);
+        if (adder == null) {
+            long current = base.get(ordinal);
+            if (base.compareAndSet(ordinal, current, current + delta)) {
+                return;
+            }
+            adder = contended.get(ordinal);
+            if (adder == null) {
+                contended.compareAndSet(ordinal, null, new LongAdder());
+                adder = contended.get(ordinal);
+            }
+        }
+        adder.add(delta);
+    }
+
+    public long count(int ordinal) {
+        LongAdder adder = contended.get(ordinal);
+        return adder == null ? base.get(ordinal) : base.get(ordinal) + adder.sum();
+    }
+
+    public long total() {
+        long total = 0;
+        for (int ordinal = 0; ordinal < base.length(); ordinal++) {
+            total += count(ordinal);
+        }
+        return total;
+    }
+
+    /**
+     * The current count of every item, indexed by ordinal.
+     */
+    public long[] counts() {
+        long[] counts = new long[base.length()];
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            counts[ordinal] = count(ordinal);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,88 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Menu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static util.LessonResources.createMenu;
+
+public class ItemCountersTest {
+
+    @Test
+    public void concurrentCountsAddUp() throws Exception {
+        Menu menu = RandomMenus.menu(new Random(19), 4, 30);
+        ItemCounters counters = ItemCounters.of(menu);
+        int size = counters.menu().size();
+        int threads = 8;
+        long[] expected = new long[size];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                results.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    long[] added = new long[size];
+                    for (int k = 0; k < 20000 && size > 0; k++) {
+                        // Skewed, so a few items are contended and move to adders.
+                        int ordinal = random.nextBoolean() ? 0 : random.nextInt(size);
+                        long delta = 1 + random.nextInt(3);
+                        counters.add(ordinal, delta);
+                        added[ordinal] += delta;
+                    }
+                    return added;
+                }));
+            }
+            for (Future<long[]> result : results) {
+                long[] added = result.get(1, TimeUnit.MINUTES);
+                for (int ordinal = 0; ordinal < size; ordinal++) {
+                    expected[ordinal] += added[ordinal];
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(counters.counts()).isEqualTo(expected);
+        assertThat(counters.total()).isEqualTo(LongStream.of(expected).sum());
+    }
+
+    @Test
+    public void itemsWithTheSameNameAreCountedApart() {
+        Menu menu = ColumnarMenu.builder()
+                .section("Lunch").add("soup", true, 4.0)
+                .section("Dinner").add("soup", true, 6.0)
+                .build();
+        ItemCounters counters = ItemCounters.of(menu);
+
+        counters.increment(1);
+        counters.increment(1);
+
+        assertThat(counters.counts()).containsExactly(0, 2);
+    }
+
+    @Test
+    public void namesAreLookedUpOnce() {
+        ItemCounters counters = ItemCounters.of(createMenu());
+        int eggs = NameIndex.of(counters.menu()).ordinalOf("eggs");
+
+        counters.increment(eggs);
+
+        assertThat(counters.count(eggs)).isEqualTo(1);
+        assertThat(counters.total()).isEqualTo(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void unknownOrdinalsAreRejected() {
+        ItemCounters.of(createMenu()).increment(12);
+    }
+}
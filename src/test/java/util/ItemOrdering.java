@@ -0,0 +1,332 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * A comparator chain over the fields of a menu item that can be compiled
+ * into packed primitive sort keys.
+ *
+ * <pre>
+ *     ItemOrdering listing = ItemOrdering.by(Field.SECTION)
+ *             .then(Field.PRICE)
+ *             .thenReversed(Field.NAME);
+ *     List&lt;Food&gt; sorted = listing.sort(menu);
+ * </pre>
+ *
+ * As a {@link Comparator} it walks the chain field by field, and like the
+ * lessons' {@code MyComparator} it offers {@link #reverseCompare}. But the
+ * sort methods never call {@link #compare}. They turn each field into an
+ * unsigned number whose order is the field's order, complement it if the
+ * field is reversed, and pack the numbers of the whole chain, first field
+ * most significant, into one {@code long} per item. If the fields need more
+ * than 64 bits, a second {@code long} holds the rest. The keys are then
+ * radix sorted by {@link PackedSort}. Every supported chain fits in 128 bits,
+ * so there is no comparison fallback.
+ *
+ * Sorts are stable and give the same order as {@code list.sort(ordering)}.
+ */
+public final class ItemOrdering implements Comparator<Food> {
+
+    /**
+     * The fields an ordering can use. {@link #SECTION} is the index of the
+     * item's section, so it needs items of a {@link ColumnarMenu}.
+     */
+    public enum Field {
+        SECTION, PRICE, NAME, GLUTEN_FREE
+    }
+
+    private final Field[] fields;
+    private final boolean[] reversed;
+
+    private ItemOrdering(Field[] fields, boolean[] reversed) {
+        this.fields = fields;
+        this.reversed = reversed;
+    }
+
+    public static ItemOrdering by(Field field) {
+        return new ItemOrdering(new Field[]{field}, new boolean[]{false});
+    }
+
+    public static ItemOrdering byReversed(Field field) {
+        return new ItemOrdering(new Field[]{field}, new boolean[]{true});
+    }
+
+    public ItemOrdering then(Field field) {
+        return append(field, false);
+    }
+
+    public ItemOrdering thenReversed(Field field) {
+        return append(field, true);
+    }
+
+    /**
+     * The whole chain reversed, the ordering {@link #reverseCompare} uses.
+     */
+    @Override
+    public ItemOrdering reversed() {
+        boolean[] flipped = new boolean[reversed.length];
+        for (int i = 0; i < flipped.length; i++) {
+            flipped[i] = !reversed[i];
+        }
+        return new ItemOrdering(fields, flipped);
+    }
+
+    @Override
+    public int compare(Food a, Food b) {
+        for (int i = 0; i < fields.length; i++) {
+            int c = compare(fields[i], a, b);
+            if (c != 0) {
+                return reversed[i] ? -c : c;
+            }
+        }
+        return 0;
+    }
+
+    public int reverseCompare(Food a, Food b) {
+        return -1 * compare(a, b);
+    }
+
+    /**
+     * The menu's items in this order.
+     */
+    public List<Food> sort(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int[] order = order(columns);
+        return new AbstractList<Food>() {
+            @Override
+            public Food get(int index) {
+                return columns.item(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
+    }
+
+    /**
+     * Item ordinals of the menu in this order.
+     */
+    public int[] order(ColumnarMenu menu) {
+        Keys keys = new Keys(menu.size());
+        boolean[] seen = new boolean[Field.values().length];
+        for (int i = 0; i < fields.length; i++) {
+            if (!seen[fields[i].ordinal()]) {
+                seen[fields[i].ordinal()] = true;
+                keys.add(columnValues(fields[i], menu), reversed[i]);
+            }
+        }
+        return keys.order();
+    }
+
+    /**
+     * Sorts the list in place, in this order.
+     */
+    public <T extends Food> void sort(List<T> foods) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) foods.toArray(new Food[0]);
+        Keys keys = new Keys(array.length);
+        boolean[] seen = new boolean[Field.values().length];
+        for (int i = 0; i < fields.length; i++) {
+            if (!seen[fields[i].ordinal()]) {
+                seen[fields[i].ordinal()] = true;
+                keys.add(values(fields[i], array), reversed[i]);
+            }
+        }
+        int[] order = keys.order();
+        ListIterator<T> it = foods.listIterator();
+        for (int index : order) {
+            it.next();
+            it.set(array[index]);
+        }
+    }
+
+    private ItemOrdering append(Field field, boolean reverse) {
+        Field[] moreFields = Arrays.copyOf(fields, fields.length + 1);
+        boolean[] moreReversed = Arrays.copyOf(reversed, reversed.length + 1);
+        moreFields[fields.length] = field;
+        moreReversed[reversed.length] = reverse;
+        return new ItemOrdering(moreFields, moreReversed);
+    }
+
+    private static int compare(Field field, Food a, Food b) {
+        switch (field) {
+            case SECTION:
+                return Integer.compare(sectionOf(a), sectionOf(b));
+            case PRICE:
+                return Double.compare(a.getPrice(), b.getPrice());
+            case NAME:
+                return a.getName().compareTo(b.getName());
+            case GLUTEN_FREE:
+                return Boolean.compare(a.isGlutenFree(), b.isGlutenFree());
+            default:
+                throw new AssertionError(field);
+        }
+    }
+
+    private static int sectionOf(Food food) {
+        if (!(food instanceof ColumnarMenu.Item)) {
+            throw new IllegalArgumentException("Ordering by section needs items of a ColumnarMenu, not "
+                    + food.getName());
+        }
+        ColumnarMenu.Item item = (ColumnarMenu.Item) food;
+        return item.getMenu().sectionOf(item.getOrdinal());
+    }
+
+    /**
+     * Each item's value for the field as an unsigned number in field order,
+     * read from the menu's columns.
+     */
+    private static long[] columnValues(Field field, ColumnarMenu menu) {
+        long[] values = new long[menu.size()];
+        switch (field) {
+            case SECTION:
+                for (int s = 0; s < menu.sectionCount(); s++) {
+                    Arrays.fill(values, menu.sectionStart(s), menu.sectionEnd(s), s);
+                }
+                return values;
+            case PRICE:
+                for (int ordinal = 0; ordinal < values.length; ordinal++) {
+                    values[ordinal] = PackedSort.priceKey(menu.price(ordinal));
+                }
+                return values;
+            case NAME:
+                int[] byName = PackedSort.orderOf(menu.dictionary.toArray());
+                long[] ranks = new long[byName.length];
+                for (int rank = 0; rank < byName.length; rank++) {
+                    ranks[byName[rank]] = rank;
+                }
+                for (int ordinal = 0; ordinal < values.length; ordinal++) {
+                    values[ordinal] = ranks[menu.nameCode(ordinal)];
+                }
+                return values;
+            case GLUTEN_FREE:
+                for (int ordinal = 0; ordinal < values.length; ordinal++) {
+                    values[ordinal] = menu.isGlutenFree(ordinal) ? 1 : 0;
+                }
+                return values;
+            default:
+                throw new AssertionError(field);
+        }
+    }
+
+    /**
+     * Each food's value for the field as an unsigned number in field order.
+     */
+    private static long[] values(Field field, Food[] foods) {
+        long[] values = new long[foods.length];
+        switch (field) {
+            case SECTION:
+                for (int i = 0; i < foods.length; i++) {
+                    values[i] = sectionOf(foods[i]);
+                }
+                return values;
+            case PRICE:
+                for (int i = 0; i < foods.length; i++) {
+                    values[i] = PackedSort.priceKey(foods[i].getPrice());
+                }
+                return values;
+            case NAME:
+                // Equal names must get equal ranks, or they would be ordered
+                // by position instead of by the fields after them.
+                String[] names = new String[foods.length];
+                for (int i = 0; i < foods.length; i++) {
+                    names[i] = foods[i].getName();
+                }
+                int[] byName = PackedSort.orderOf(names);
+                long rank = 0;
+                for (int i = 0; i < byName.length; i++) {
+                    if (i > 0 && !names[byName[i]].equals(names[byName[i - 1]])) {
+                        rank++;
+                    }
+                    values[byName[i]] = rank;
+                }
+                return values;
+            case GLUTEN_FREE:
+                for (int i = 0; i < foods.length; i++) {
+                    values[i] = foods[i].isGlutenFree() ? 1 : 0;
+                }
+                return values;
+            default:
+                throw new AssertionError(field);
+        }
+    }
+
+    /**
+     * A 128-bit key per item, filled from the most significant field down.
+     * Each field is rebased to its smallest value and takes only as many
+     * bits as its largest rebased value needs, so a section index, a full
+     * 64-bit price, a name rank and the gluten free flag always fit.
+     */
+    private static final class Keys {
+        private final long[] high;
+        private final long[] low;
+        private final long[][] fieldValues = new long[Field.values().length][];
+        private final int[] widths = new int[Field.values().length];
+        private int fieldCount;
+
+        Keys(int size) {
+            high = new long[size];
+            low = new long[size];
+        }
+
+        void add(long[] values, boolean reverse) {
+            long min = -1;
+            long max = 0;
+            for (long value : values) {
+                min = Long.compareUnsigned(value, min) < 0 ? value : min;
+                max = Long.compareUnsigned(value, max) > 0 ? value : max;
+            }
+            long range = values.length == 0 ? 0 : max - min;
+            for (int i = 0; i < values.length; i++) {
+                long rebased = values[i] - min;
+                values[i] = reverse ? range - rebased : rebased;
+            }
+            fieldValues[fieldCount] = values;
+            widths[fieldCount] = Long.SIZE - Long.numberOfLeadingZeros(range);
+            fieldCount++;
+        }
+
+        int[] order() {
+            int position = 0;
+            for (int f = fieldCount - 1; f >= 0; f--) {
+                long[] values = fieldValues[f];
+                int width = widths[f];
+                for (int i = 0; i < values.length; i++) {
+                    long value = values[i];
+                    if (position >= Long.SIZE) {
+                        high[i] |= value << (position - Long.SIZE);
+                    } else {
+                        low[i] |= value << position;
+                        if (position > 0 && position + width > Long.SIZE) {
+                            high[i] |= value >>> (Long.SIZE - position);
+                        }
+                    }
+                }
+                position += width;
+            }
+            int[] byLow = PackedSort.order(low);
+            if (position <= Long.SIZE) {
+                return byLow;
+            }
+            long[] highByLow = new long[byLow.length];
+            for (int i = 0; i < byLow.length; i++) {
+                highByLow[i] = high[byLow[i]];
+            }
+            int[] byHigh = PackedSort.order(highByLow);
+            int[] order = new int[byHigh.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = byLow[byHigh[i]];
+            }
+            return order;
+        }
+    }
+}
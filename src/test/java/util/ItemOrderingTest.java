@@ -0,0 +1,96 @@
+package util;
+
+import org.junit.Test;
+import util.ItemOrdering.Field;
+import util.LessonResources.Food;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static util.LessonResources.createMenu;
+
+public class ItemOrderingTest {
+
+    @Test
+    public void packedKeysMatchTheComparator() {
+        Random random = new Random(27);
+        for (int round = 0; round < 300; round++) {
+            ColumnarMenu menu = ColumnarMenu.of(RandomMenus.menu(random, 4, 50));
+            ItemOrdering ordering = randomOrdering(random);
+            List<Food> items = IntStream.range(0, menu.size()).mapToObj(menu::item).collect(Collectors.toList());
+
+            List<Food> expected = new ArrayList<>(items);
+            expected.sort(ordering);
+            List<Food> actual = new ArrayList<>(items);
+            ordering.sort(actual);
+
+            assertThat(ordinals(actual)).isEqualTo(ordinals(expected));
+            assertThat(ordinals(ordering.sort(menu))).isEqualTo(ordinals(expected));
+            assertThat(ordering.order(menu)).isEqualTo(ordinals(expected).stream().mapToInt(i -> i).toArray());
+        }
+    }
+
+    @Test
+    public void chainsWiderThanALongMatchTheComparator() {
+        Random random = new Random(28);
+        double[] special = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MAX_VALUE, -Double.MIN_VALUE};
+        for (int round = 0; round < 50; round++) {
+            List<Food> foods = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                double price = random.nextBoolean()
+                        ? special[random.nextInt(special.length)]
+                        : random.nextGaussian() * 1e6;
+                foods.add(new Food(RandomMenus.name(random), random.nextBoolean(), price));
+            }
+            // A full 64-bit price plus a name rank and a flag needs the
+            // second long.
+            ItemOrdering ordering = ItemOrdering.by(Field.GLUTEN_FREE).thenReversed(Field.NAME).then(Field.PRICE);
+
+            List<Food> expected = new ArrayList<>(foods);
+            expected.sort(ordering);
+            List<Food> actual = new ArrayList<>(foods);
+            ordering.sort(actual);
+
+            assertThat(actual).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void reverseCompareIsTheReversedChain() {
+        ItemOrdering ordering = ItemOrdering.by(Field.PRICE).thenReversed(Field.NAME);
+        ColumnarMenu menu = ColumnarMenu.of(createMenu());
+        List<Food> items = IntStream.range(0, menu.size()).mapToObj(menu::item).collect(Collectors.toList());
+        for (Food a : items) {
+            for (Food b : items) {
+                assertThat(ordering.reverseCompare(a, b)).isEqualTo(ordering.reversed().compare(a, b));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sectionNeedsColumnarItems() {
+        List<Food> foods = new ArrayList<>(createMenu().getSections().get(0).getItems());
+        ItemOrdering.by(Field.SECTION).sort(foods);
+    }
+
+    private static ItemOrdering randomOrdering(Random random) {
+        Field[] fields = Field.values();
+        Field first = fields[random.nextInt(fields.length)];
+        ItemOrdering ordering = random.nextBoolean() ? ItemOrdering.by(first) : ItemOrdering.byReversed(first);
+        int more = random.nextInt(4);
+        for (int i = 0; i < more; i++) {
+            Field field = fields[random.nextInt(fields.length)];
+            ordering = random.nextBoolean() ? ordering.then(field) : ordering.thenReversed(field);
+        }
+        return ordering;
+    }
+
+    private static List<Integer> ordinals(List<Food> items) {
+        return items.stream().map(food -> ((ColumnarMenu.Item) food).getOrdinal()).collect(Collectors.toList());
+    }
+}
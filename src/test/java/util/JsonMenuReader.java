@@ -0,0 +1,462 @@
+package util;
+
+import util.LessonResources.Food;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a menu from JSON one item at a time, so a feed can be streamed
+ * without holding more than the current item in memory.
+ *
+ * The expected shape is
+ * <pre>
+ *     {"sections": [
+ *         {"name": "Breakfast", "items": [
+ *             {"name": "pancakes", "glutenFree": false, "price": 2.0},
+ *             ...
+ *         ]},
+ *         ...
+ *     ]}
+ * </pre>
+ * or just the bare array of sections. Unknown keys are skipped. Because
+ * items are emitted as soon as they are read, a section's {@code "name"}
+ * must come before its {@code "items"}.
+ *
+ * Every item needs a name and a finite numeric price, and a section has
+ * exactly one name.
+ *
+ * {@link #items()} is a lazy, sequential stream over the items, and
+ * {@link #toMenu()} feeds them straight into a {@link ColumnarMenu} instead.
+ * Malformed input is reported as an {@link UncheckedIOException} giving the
+ * character it was found at.
+ */
+public class JsonMenuReader implements Closeable {
+
+    private enum State { START, SECTIONS, SECTION, ITEMS, TRAILER, DONE }
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private long offset;
+
+    private State state = State.START;
+    private boolean topLevelObject;
+    private boolean first;
+    private String sectionName;
+    private int sectionIndex = -1;
+    private Consumer<String> sectionListener = name -> { };
+
+    public JsonMenuReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * A {@link Food} tagged with the section it was read from.
+     */
+    public static class Item extends Food {
+        final String sectionName;
+        final int sectionIndex;
+
+        Item(String name, boolean glutenFree, double price, String sectionName, int sectionIndex) {
+            super(name, glutenFree, price);
+            this.sectionName = sectionName;
+            this.sectionIndex = sectionIndex;
+        }
+
+        public String getSectionName() {
+            return sectionName;
+        }
+
+        public int getSectionIndex() {
+            return sectionIndex;
+        }
+    }
+
+    /**
+     * The items in document order. Closing the stream closes the reader.
+     */
+    public Stream<Item> items() {
+        Spliterator<Item> spliterator = new Spliterators.AbstractSpliterator<Item>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Item> action) {
+                return advance(action);
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the rest of the input into a {@link ColumnarMenu}, keeping empty
+     * sections. As with {@link ColumnarMenu#of}, every price is kept as it
+     * is and the menu works out its own price scale.
+     */
+    public ColumnarMenu toMenu() {
+        return toMenu(ColumnarMenu.builder());
+    }
+
+    /**
+     * Reads the rest of the input into a {@link ColumnarMenu} with the given
+     * price scale. A price with more decimal places is malformed.
+     */
+    public ColumnarMenu toMenu(int priceScale) {
+        return toMenu(ColumnarMenu.builder(priceScale));
+    }
+
+    private ColumnarMenu toMenu(ColumnarMenu.Builder builder) {
+        sectionListener = builder::section;
+        while (advance(item -> {
+            try {
+                builder.add(item.getName(), item.isGlutenFree(), item.getPrice());
+            } catch (IllegalArgumentException e) {
+                state = State.DONE;
+                throw new UncheckedIOException(error(e.getMessage()));
+            }
+        })) {
+            // Each call adds one item.
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        state = State.DONE;
+        in.close();
+    }
+
+    private boolean advance(Consumer<? super Item> action) {
+        try {
+            while (true) {
+                switch (state) {
+                    case START:
+                        start();
+                        break;
+                    case SECTIONS:
+                        if (!nextElement(']')) {
+                            first = false;
+                            state = topLevelObject ? State.TRAILER : State.DONE;
+                        } else {
+                            expect('{');
+                            sectionName = null;
+                            sectionIndex++;
+                            first = true;
+                            state = State.SECTION;
+                        }
+                        break;
+                    case SECTION:
+                        sectionKey();
+                        break;
+                    case ITEMS:
+                        if (!nextElement(']')) {
+                            first = false;
+                            state = State.SECTION;
+                        } else {
+                            action.accept(item());
+                            return true;
+                        }
+                        break;
+                    case TRAILER:
+                        while (nextElement('}')) {
+                            readString();
+                            expect(':');
+                            skipValue();
+                        }
+                        state = State.DONE;
+                        break;
+                    case DONE:
+                        return false;
+                }
+            }
+        } catch (IOException e) {
+            state = State.DONE;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void start() throws IOException {
+        char c = peek();
+        if (c == '[') {
+            read();
+        } else {
+            expect('{');
+            topLevelObject = true;
+            first = true;
+            while (true) {
+                if (!nextElement('}')) {
+                    throw error("No \"sections\" array");
+                }
+                String key = readString();
+                expect(':');
+                if (key.equals("sections")) {
+                    expect('[');
+                    break;
+                }
+                skipValue();
+            }
+        }
+        first = true;
+        state = State.SECTIONS;
+    }
+
+    private void sectionKey() throws IOException {
+        if (!nextElement('}')) {
+            if (sectionName == null) {
+                throw error("Section " + sectionIndex + " has no name");
+            }
+            first = false;
+            state = State.SECTIONS;
+            return;
+        }
+        String key = readString();
+        expect(':');
+        if (key.equals("name")) {
+            if (sectionName != null) {
+                throw error("Section " + sectionIndex + " has more than one name");
+            }
+            sectionName = readString();
+            sectionListener.accept(sectionName);
+        } else if (key.equals("items")) {
+            if (sectionName == null) {
+                throw error("Section " + sectionIndex + " lists its items before its name");
+            }
+            expect('[');
+            first = true;
+            state = State.ITEMS;
+        } else {
+            skipValue();
+        }
+    }
+
+    private Item item() throws IOException {
+        expect('{');
+        String name = null;
+        boolean glutenFree = false;
+        double price = Double.NaN;
+        boolean priced = false;
+        first = true;
+        while (nextElement('}')) {
+            String key = readString();
+            expect(':');
+            switch (key) {
+                case "name":
+                    name = readString();
+                    break;
+                case "glutenFree":
+                    glutenFree = readBoolean();
+                    break;
+                case "price":
+                    price = readNumber();
+                    priced = true;
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+        if (name == null) {
+            throw error("Item without a name in section " + sectionName);
+        }
+        if (!priced) {
+            throw error(name + " in section " + sectionName + " has no price");
+        }
+        if (Double.isInfinite(price)) {
+            throw error(name + " in section " + sectionName + " has a price of " + price);
+        }
+        first = false;
+        return new Item(name, glutenFree, price, sectionName, sectionIndex);
+    }
+
+    /**
+     * Consumes the separator before the next element of the current array or
+     * object. Returns false, having consumed {@code close}, if there is none.
+     */
+    private boolean nextElement(char close) throws IOException {
+        char c = peek();
+        if (c == close) {
+            read();
+            return false;
+        }
+        if (!first) {
+            expect(',');
+        }
+        first = false;
+        return true;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            char c = readRaw();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+            c = readRaw();
+            switch (c) {
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(readRaw(), 16);
+                        if (digit < 0) {
+                            throw error("Bad \\u escape");
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    text.append((char) code);
+                    break;
+                default:
+                    text.append(c);
+            }
+        }
+    }
+
+    private double readNumber() throws IOException {
+        peek();
+        text.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append(c);
+                position++;
+                offset++;
+            } else {
+                break;
+            }
+        }
+        if (text.length() == 0) {
+            throw error("Expected a number but found '" + peek() + "'");
+        }
+        try {
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException e) {
+            throw error("Bad number " + text);
+        }
+    }
+
+    private boolean readBoolean() throws IOException {
+        char c = peek();
+        if (c == 't') {
+            literal("true");
+            return true;
+        }
+        literal("false");
+        return false;
+    }
+
+    private void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (readRaw() != word.charAt(i)) {
+                throw error("Expected " + word);
+            }
+        }
+    }
+
+    /**
+     * Skips one value of any type, however deeply nested.
+     */
+    private void skipValue() throws IOException {
+        char c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = peek();
+                if (c == '"') {
+                    readString();
+                    continue;
+                }
+                read();
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else if (c == 't' || c == 'f') {
+            readBoolean();
+        } else if (c == 'n') {
+            literal("null");
+        } else {
+            readNumber();
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        char c = read();
+        if (c != expected) {
+            throw error("Expected '" + expected + "' but found '" + c + "'");
+        }
+    }
+
+    /**
+     * The next non-whitespace character, without consuming it.
+     */
+    private char peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("Unexpected end of input");
+            }
+            char c = buffer[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            position++;
+            offset++;
+        }
+    }
+
+    private char read() throws IOException {
+        peek();
+        return readRaw();
+    }
+
+    private char readRaw() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("Unexpected end of input");
+        }
+        offset++;
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Malformed menu JSON at character " + offset + ": " + message);
+    }
+}
@@ -0,0 +1,158 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class JsonMenuReaderTest {
+
+    @Test
+    public void readsBackRandomMenus() {
+        Random random = new Random(12);
+        for (int i = 0; i < 200; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 30);
+            String json = toJson(menu, random.nextBoolean());
+
+            List<JsonMenuReader.Item> items = new JsonMenuReader(new StringReader(json)).items()
+                    .collect(Collectors.toList());
+            List<Food> expected = RandomMenus.items(menu);
+            assertThat(items).hasSize(expected.size());
+            for (int k = 0; k < items.size(); k++) {
+                assertThat(items.get(k).getName()).isEqualTo(expected.get(k).getName());
+                assertThat(items.get(k).isGlutenFree()).isEqualTo(expected.get(k).isGlutenFree());
+                assertThat(items.get(k).getPrice()).isEqualTo(expected.get(k).getPrice());
+            }
+
+            ColumnarMenu read = new JsonMenuReader(new StringReader(json)).toMenu();
+            ColumnarMenu copied = ColumnarMenu.of(menu);
+            assertThat(read.sectionCount()).isEqualTo(copied.sectionCount());
+            for (int s = 0; s < read.sectionCount(); s++) {
+                assertThat(read.sectionName(s)).isEqualTo(copied.sectionName(s));
+                assertThat(read.sectionEnd(s)).isEqualTo(copied.sectionEnd(s));
+            }
+            assertThat(read.prices().toArray()).isEqualTo(copied.prices().toArray());
+            assertThat(read.priceScale()).isEqualTo(copied.priceScale());
+        }
+    }
+
+    @Test
+    public void itemsKnowTheirSection() {
+        List<JsonMenuReader.Item> items = new JsonMenuReader(new StringReader(toJson(createMenu(), false))).items()
+                .filter(item -> item.getName().equals("Turkey Wrap"))
+                .collect(Collectors.toList());
+
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).getSectionName()).isEqualTo("Lunch");
+        assertThat(items.get(0).getSectionIndex()).isEqualTo(1);
+    }
+
+    @Test
+    public void skipsUnknownKeys() {
+        String json = "{\"version\": [1, {\"x\": \"]\"}], \"sections\": [{\"id\": null, \"name\": \"Sides\","
+                + " \"items\": [{\"name\": \"slaw\", \"price\": 1.5, \"tags\": {\"a\": [true]}}], \"open\": false}],"
+                + " \"footer\": \"}\"}";
+
+        ColumnarMenu menu = new JsonMenuReader(new StringReader(json)).toMenu();
+
+        assertThat(menu.size()).isEqualTo(1);
+        assertThat(menu.name(0)).isEqualTo("slaw");
+        assertThat(menu.isGlutenFree(0)).isFalse();
+    }
+
+    @Test
+    public void infersThePriceScaleAsItGoes() {
+        String json = "[{\"name\": \"Sides\", \"items\": ["
+                + "{\"name\": \"fries\", \"price\": 2.5}, {\"name\": \"slaw\", \"price\": 1.234}]}]";
+
+        ColumnarMenu menu = new JsonMenuReader(new StringReader(json)).toMenu();
+
+        assertThat(menu.priceScale()).isEqualTo(3);
+        assertThat(menu.priceUnits(0)).isEqualTo(2500);
+        assertThat(menu.price(1)).isEqualTo(1.234);
+        assertThat(new JsonMenuReader(new StringReader(json)).toMenu(4).priceUnits(1)).isEqualTo(12340);
+    }
+
+    @Test
+    public void rejectsMalformedItems() {
+        assertMalformed(section("{\"name\": \"eggs\", \"glutenFree\": true}"),
+                "eggs in section Breakfast has no price");
+        assertMalformed(section("{\"name\": \"eggs\", \"price\": \"1.00\"}"), "Expected a number but found '\"'");
+        assertMalformed(section("{\"name\": \"eggs\", \"price\": null}"), "Expected a number");
+        assertMalformed(section("{\"name\": \"eggs\", \"price\": 1e400}"), "price of Infinity");
+        assertMalformed(section("{\"price\": 1.0}"), "Item without a name");
+        assertMalformed("[{\"name\": \"Breakfast\", \"items\": [{\"name\": \"eggs\", \"price\": 1.0",
+                "Unexpected end of input");
+    }
+
+    @Test
+    public void rejectsMalformedSections() {
+        assertMalformed("[{\"name\": \"Breakfast\", \"name\": \"Brunch\", \"items\": []}]", "more than one name");
+        assertMalformed("[{\"items\": [], \"name\": \"Breakfast\"}]", "items before its name");
+        assertMalformed("[{\"id\": 1}]", "has no name");
+        assertMalformed("{\"menu\": []}", "No \"sections\" array");
+    }
+
+    @Test
+    public void rejectsPricesFinerThanTheScale() {
+        try {
+            new JsonMenuReader(new StringReader(section("{\"name\": \"eggs\", \"price\": 1.234}"))).toMenu(2);
+            fail("Expected 1.234 to be rejected at scale 2");
+        } catch (UncheckedIOException expected) {
+            assertThat(expected.getCause().getMessage()).startsWith("Malformed menu JSON at character 65:")
+                    .contains("scale 2");
+        }
+    }
+
+    @Test
+    public void reportsWhereTheProblemIs() {
+        try {
+            new JsonMenuReader(new StringReader("[{\"name\": \"Breakfast\" \"items\": []}]")).toMenu();
+            fail("Expected the missing comma to be reported");
+        } catch (UncheckedIOException expected) {
+            assertThat(expected.getCause().getMessage())
+                    .isEqualTo("Malformed menu JSON at character 23: Expected ',' but found '\"'");
+        }
+    }
+
+    private static String section(String item) {
+        return "[{\"name\": \"Breakfast\", \"items\": [" + item + "]}]";
+    }
+
+    private static void assertMalformed(String json, String message) {
+        try {
+            new JsonMenuReader(new StringReader(json)).items().count();
+            fail("Expected " + json + " to be rejected");
+        } catch (UncheckedIOException expected) {
+            assertThat(expected.getCause().getMessage()).startsWith("Malformed menu JSON at character ")
+                    .contains(message);
+        }
+    }
+
+    private static String toJson(Menu menu, boolean wrapped) {
+        StringBuilder json = new StringBuilder(wrapped ? "{\"sections\": [" : "[");
+        for (int s = 0; s < menu.getSections().size(); s++) {
+            Section section = menu.getSections().get(s);
+            json.append(s == 0 ? "" : ", ").append("{\"name\": \"").append(section.getName())
+                    .append("\", \"items\": [");
+            for (int k = 0; k < section.getItems().size(); k++) {
+                Food food = section.getItems().get(k);
+                json.append(k == 0 ? "" : ",\n").append("{\"name\": \"").append(food.getName())
+                        .append("\", \"glutenFree\": ").append(food.isGlutenFree())
+                        .append(", \"price\": ").append(food.getPrice()).append('}');
+            }
+            json.append("]}");
+        }
+        return json.append(wrapped ? "]}" : "]").toString();
+    }
+}
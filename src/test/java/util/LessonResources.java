@@ -2,6 +2,9 @@ package util;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class LessonResources {
 
@@ -66,6 +69,18 @@ public class LessonResources {
         public List<Section> getSections() {
             return sections;
         }
+
+        /**
+         * Every item on the menu, split by position rather than by section so
+         * that parallel streams divide the work evenly.
+         */
+        public Spliterator<Food> itemSpliterator() {
+            return new MenuSpliterator(getSections());
+        }
+
+        public Stream<Food> items() {
+            return StreamSupport.stream(itemSpliterator(), false);
+        }
     }
 
     public static Menu createMenu() {
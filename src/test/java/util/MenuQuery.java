@@ -0,0 +1,342 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A filter/project/aggregate query over a menu that is planned once and then
+ * run as a single loop over the columns of a {@link ColumnarMenu}.
+ *
+ * <pre>
+ *     MenuQuery cheapestDinner = MenuQuery.on(menu)
+ *             .section("Dinner")
+ *             .build();
+ *     OptionalDouble price = cheapestDinner.min();
+ * </pre>
+ * gives the same answer as
+ * <pre>
+ *     menu.getSections().stream()
+ *             .filter(section -> section.getName().equals("Dinner"))
+ *             .flatMap(section -> section.getItems().stream())
+ *             .mapToDouble(Food::getPrice)
+ *             .min();
+ * </pre>
+ * but with no stream, sink chain or per-item lambda call. Section filters
+ * are resolved to ordinal ranges when the query is built, {@link Diet} and
+ * price filters become a mask test and a pair of comparisons on the
+ * columns, and the default projection reads the price column directly.
+ * Only {@link Builder#where(Predicate)} and {@link Builder#select} fall back
+ * to calling a function, handing it a single reused cursor as
+ * {@link PrimitiveQuery} does.
+ *
+ * Items are visited in menu order, and {@link #sum()} and {@link #average()}
+ * add up through a {@link DoubleSummaryStatistics}, the JDK's own
+ * compensated summation, so results match the sequential stream pipeline.
+ */
+public class MenuQuery {
+
+    final ColumnarMenu menu;
+    private final int[] ranges;
+    private final int required;
+    private final int forbidden;
+    private final double lowPrice;
+    private final double highPrice;
+    private final boolean filtersPrice;
+    private final Predicate<? super Food> where;
+    private final ToDoubleFunction<? super Food> projection;
+
+    private MenuQuery(Builder builder, int[] ranges) {
+        this.menu = builder.menu;
+        this.ranges = ranges;
+        this.required = builder.required;
+        this.forbidden = builder.forbidden;
+        this.lowPrice = builder.lowPrice;
+        this.highPrice = builder.highPrice;
+        this.filtersPrice = builder.lowPrice != Double.NEGATIVE_INFINITY
+                || builder.highPrice != Double.POSITIVE_INFINITY;
+        this.where = builder.where;
+        this.projection = builder.projection;
+    }
+
+    public static Builder on(Menu menu) {
+        return new Builder(ColumnarMenu.of(menu));
+    }
+
+    public ColumnarMenu menu() {
+        return menu;
+    }
+
+    public long count() {
+        PrimitiveQuery.Cursor cursor = cursor();
+        long count = 0;
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int ordinal = ranges[r]; ordinal < ranges[r + 1]; ordinal++) {
+                if (matches(ordinal, cursor)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public double sum() {
+        return statistics().getSum();
+    }
+
+    public OptionalDouble average() {
+        DoubleSummaryStatistics statistics = statistics();
+        return statistics.getCount() == 0
+                ? OptionalDouble.empty()
+                : OptionalDouble.of(statistics.getAverage());
+    }
+
+    public OptionalDouble min() {
+        PrimitiveQuery.Cursor cursor = cursor();
+        boolean found = false;
+        double min = Double.POSITIVE_INFINITY;
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int ordinal = ranges[r]; ordinal < ranges[r + 1]; ordinal++) {
+                if (matches(ordinal, cursor)) {
+                    min = Math.min(min, project(ordinal, cursor));
+                    found = true;
+                }
+            }
+        }
+        return found ? OptionalDouble.of(min) : OptionalDouble.empty();
+    }
+
+    public OptionalDouble max() {
+        PrimitiveQuery.Cursor cursor = cursor();
+        boolean found = false;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int ordinal = ranges[r]; ordinal < ranges[r + 1]; ordinal++) {
+                if (matches(ordinal, cursor)) {
+                    max = Math.max(max, project(ordinal, cursor));
+                    found = true;
+                }
+            }
+        }
+        return found ? OptionalDouble.of(max) : OptionalDouble.empty();
+    }
+
+    /**
+     * The ordinal of the first matching item.
+     */
+    public OptionalInt findFirst() {
+        PrimitiveQuery.Cursor cursor = cursor();
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int ordinal = ranges[r]; ordinal < ranges[r + 1]; ordinal++) {
+                if (matches(ordinal, cursor)) {
+                    return OptionalInt.of(ordinal);
+                }
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    public boolean anyMatch() {
+        return findFirst().isPresent();
+    }
+
+    /**
+     * The ordinal of the first matching item with the smallest projected
+     * value, the counterpart of
+     * {@code reduce((f1, f2) -> f1.getPrice() < f2.getPrice() ? f1 : f2)}.
+     */
+    public OptionalInt minBy() {
+        PrimitiveQuery.Cursor cursor = cursor();
+        int best = -1;
+        double bestValue = 0.0;
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int ordinal = ranges[r]; ordinal < ranges[r + 1]; ordinal++) {
+                if (matches(ordinal, cursor)) {
+                    double value = project(ordinal, cursor);
+                    if (best < 0 || value < bestValue) {
+                        best = ordinal;
+                        bestValue = value;
+                    }
+                }
+            }
+        }
+        return best < 0 ? OptionalInt.empty() : OptionalInt.of(best);
+    }
+
+    /**
+     * Adds up the projected values of the matching items in menu order. A
+     * {@link DoubleSummaryStatistics} does the adding, so sums and averages
+     * come out exactly as {@code DoubleStream.sum()} and
+     * {@code average()} would on the same values.
+     */
+    private DoubleSummaryStatistics statistics() {
+        PrimitiveQuery.Cursor cursor = cursor();
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        for (int r = 0; r < ranges.length; r += 2) {
+            for (int ordinal = ranges[r]; ordinal < ranges[r + 1]; ordinal++) {
+                if (matches(ordinal, cursor)) {
+                    statistics.accept(project(ordinal, cursor));
+                }
+            }
+        }
+        return statistics;
+    }
+
+    private PrimitiveQuery.Cursor cursor() {
+        return where == null && projection == null ? null : new PrimitiveQuery.Cursor(menu);
+    }
+
+    private boolean matches(int ordinal, PrimitiveQuery.Cursor cursor) {
+        int attributes = menu.attributes(ordinal);
+        if ((attributes & required) != required || (attributes & forbidden) != 0) {
+            return false;
+        }
+        if (filtersPrice) {
+            double price = menu.price(ordinal);
+            if (!(price >= lowPrice && price < highPrice)) {
+                return false;
+            }
+        }
+        return where == null || where.test(cursor.moveTo(ordinal));
+    }
+
+    /**
+     * Projects the item {@link #matches} just accepted. When there is a
+     * predicate the cursor is already on it.
+     */
+    private double project(int ordinal, PrimitiveQuery.Cursor cursor) {
+        if (projection == null) {
+            return menu.price(ordinal);
+        }
+        if (where == null) {
+            cursor.moveTo(ordinal);
+        }
+        return projection.applyAsDouble(cursor);
+    }
+
+    /**
+     * Collects the parts of a query. Each call narrows it further; every
+     * condition must hold for an item to match.
+     */
+    public static class Builder {
+        private final ColumnarMenu menu;
+        private Predicate<? super String> sections;
+        private int required;
+        private int forbidden;
+        private double lowPrice = Double.NEGATIVE_INFINITY;
+        private double highPrice = Double.POSITIVE_INFINITY;
+        private Predicate<? super Food> where;
+        private ToDoubleFunction<? super Food> projection;
+
+        Builder(ColumnarMenu menu) {
+            this.menu = menu;
+        }
+
+        /**
+         * Keeps only the named section.
+         *
+         * @throws IllegalArgumentException if the menu has no such section
+         */
+        public Builder section(String name) {
+            for (int s = 0; s < menu.sectionCount(); s++) {
+                if (menu.sectionName(s).equals(name)) {
+                    return sections(name::equals);
+                }
+            }
+            throw new IllegalArgumentException("No section named " + name);
+        }
+
+        /**
+         * Keeps only the sections whose name passes the test. It is applied
+         * once per section when the query is built.
+         */
+        public Builder sections(Predicate<? super String> names) {
+            if (sections == null) {
+                sections = names;
+            } else {
+                Predicate<? super String> previous = sections;
+                sections = name -> previous.test(name) && names.test(name);
+            }
+            return this;
+        }
+
+        public Builder with(Diet... diets) {
+            required |= Diet.maskOf(diets);
+            return this;
+        }
+
+        public Builder without(Diet... diets) {
+            forbidden |= Diet.maskOf(diets);
+            return this;
+        }
+
+        public Builder glutenFree() {
+            return with(Diet.GLUTEN_FREE);
+        }
+
+        public Builder priceAtLeast(double price) {
+            lowPrice = Math.max(lowPrice, price);
+            return this;
+        }
+
+        public Builder priceBelow(double price) {
+            highPrice = Math.min(highPrice, price);
+            return this;
+        }
+
+        /**
+         * Keeps items priced in {@code [low, high)}.
+         */
+        public Builder priceBetween(double low, double high) {
+            return priceAtLeast(low).priceBelow(high);
+        }
+
+        /**
+         * Keeps items that pass an arbitrary test. Prefer the column filters
+         * above where they fit; this one costs a call per item.
+         */
+        public Builder where(Predicate<? super Food> predicate) {
+            if (where == null) {
+                where = predicate;
+            } else {
+                Predicate<? super Food> previous = where;
+                where = food -> previous.test(food) && predicate.test(food);
+            }
+            return this;
+        }
+
+        /**
+         * What {@link MenuQuery#sum()}, {@link MenuQuery#min()} and the
+         * other numeric terminals aggregate. Without it they use the price.
+         */
+        public Builder select(ToDoubleFunction<? super Food> projection) {
+            this.projection = projection;
+            return this;
+        }
+
+        public MenuQuery build() {
+            int[] ranges = new int[2 * menu.sectionCount()];
+            int length = 0;
+            for (int s = 0; s < menu.sectionCount(); s++) {
+                int start = menu.sectionStart(s);
+                int end = menu.sectionEnd(s);
+                if (start == end || sections != null && !sections.test(menu.sectionName(s))) {
+                    continue;
+                }
+                if (length > 0 && ranges[length - 1] == start) {
+                    ranges[length - 1] = end;
+                } else {
+                    ranges[length++] = start;
+                    ranges[length++] = end;
+                }
+            }
+            return new MenuQuery(this, Arrays.copyOf(ranges, length));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.OptionalDouble;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class MenuQueryTest {
+
+    @Test
+    public void sumMatchesDoubleStreamSum() {
+        Random random = new Random(14);
+        for (int i = 0; i < 1000; i++) {
+            Menu menu = RandomMenus.menu(random, 4, 40);
+
+            assertThat(MenuQuery.on(menu).build().sum())
+                    .isEqualTo(items(menu).mapToDouble(Food::getPrice).sum());
+        }
+    }
+
+    @Test
+    public void everyTerminalMatchesTheStreamOnRandomQueries() {
+        Random random = new Random(140);
+        for (int i = 0; i < 1000; i++) {
+            Menu menu = RandomMenus.menu(random, 4, 30);
+            MenuQuery.Builder builder = MenuQuery.on(menu);
+            Predicate<Section> sections = section -> true;
+            Predicate<Food> items = food -> true;
+            ToDoubleFunction<Food> projection = Food::getPrice;
+
+            if (random.nextBoolean() && !menu.getSections().isEmpty()) {
+                String name = menu.getSections().get(random.nextInt(menu.getSections().size())).getName();
+                builder.section(name);
+                sections = section -> section.getName().equals(name);
+            }
+            if (random.nextBoolean()) {
+                builder.glutenFree();
+                items = items.and(Food::isGlutenFree);
+            } else if (random.nextBoolean()) {
+                builder.without(Diet.GLUTEN_FREE);
+                items = items.and(food -> !food.isGlutenFree());
+            }
+            if (random.nextBoolean()) {
+                double low = random.nextInt(10);
+                double high = low + random.nextInt(10);
+                builder.priceBetween(low, high);
+                items = items.and(food -> food.getPrice() >= low && food.getPrice() < high);
+            }
+            if (random.nextInt(4) == 0) {
+                builder.where(food -> food.getName().length() > 5);
+                items = items.and(food -> food.getName().length() > 5);
+            }
+            if (random.nextInt(4) == 0) {
+                builder.select(food -> food.getPrice() * 1.0825);
+                projection = food -> food.getPrice() * 1.0825;
+            }
+            MenuQuery query = builder.build();
+            Predicate<Section> inSection = sections;
+            Predicate<Food> matches = items;
+            ToDoubleFunction<Food> selected = projection;
+
+            assertThat(query.count()).isEqualTo(matching(menu, inSection, matches).count());
+            assertThat(query.sum()).isEqualTo(values(menu, inSection, matches, selected).sum());
+            assertEqual(query.average(), values(menu, inSection, matches, selected).average());
+            assertEqual(query.min(), values(menu, inSection, matches, selected).min());
+            assertEqual(query.max(), values(menu, inSection, matches, selected).max());
+            assertThat(query.anyMatch()).isEqualTo(matching(menu, inSection, matches).findAny().isPresent());
+            if (query.anyMatch()) {
+                Food first = matching(menu, inSection, matches).findFirst().get();
+                assertThat(query.menu().name(query.findFirst().getAsInt())).isEqualTo(first.getName());
+                Food cheapest = matching(menu, inSection, matches)
+                        .reduce((f1, f2) -> selected.applyAsDouble(f1) <= selected.applyAsDouble(f2) ? f1 : f2)
+                        .get();
+                assertThat(query.menu().price(query.minBy().getAsInt())).isEqualTo(cheapest.getPrice());
+            }
+        }
+    }
+
+    @Test
+    public void cheapestDinnerPrice() {
+        Menu menu = createMenu();
+
+        assertThat(MenuQuery.on(menu).section("Dinner").build().min().getAsDouble()).isEqualTo(8.0);
+        assertThat(MenuQuery.on(menu).glutenFree().build().sum()).isEqualTo(31.0);
+        assertThat(MenuQuery.on(menu).sections(name -> name.startsWith("L")).build().count()).isEqualTo(3);
+    }
+
+    @Test
+    public void emptyQueriesGiveEmptyResults() {
+        MenuQuery query = MenuQuery.on(createMenu()).sections(name -> name.equals("Brunch")).build();
+
+        assertThat(query.count()).isEqualTo(0);
+        assertThat(query.sum()).isEqualTo(0.0);
+        assertThat(query.average().isPresent()).isFalse();
+        assertThat(query.min().isPresent()).isFalse();
+        assertThat(query.findFirst().isPresent()).isFalse();
+        assertThat(query.minBy().isPresent()).isFalse();
+    }
+
+    @Test
+    public void unknownSectionsAreRejected() {
+        try {
+            MenuQuery.on(createMenu()).section("Brunch");
+            fail("Expected an unknown section to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).isEqualTo("No section named Brunch");
+        }
+    }
+
+    private static void assertEqual(OptionalDouble actual, OptionalDouble expected) {
+        assertThat(actual.isPresent()).isEqualTo(expected.isPresent());
+        if (expected.isPresent()) {
+            assertThat(actual.getAsDouble()).isEqualTo(expected.getAsDouble());
+        }
+    }
+
+    private static Stream<Food> items(Menu menu) {
+        return menu.getSections().stream().flatMap(section -> section.getItems().stream());
+    }
+
+    private static Stream<Food> matching(Menu menu, Predicate<Section> sections, Predicate<Food> items) {
+        return menu.getSections().stream()
+                .filter(sections)
+                .flatMap(section -> section.getItems().stream())
+                .filter(items);
+    }
+
+    private static DoubleStream values(Menu menu, Predicate<Section> sections, Predicate<Food> items,
+                                       ToDoubleFunction<Food> projection) {
+        return matching(menu, sections, items).mapToDouble(projection);
+    }
+}
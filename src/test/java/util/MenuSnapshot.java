@@ -0,0 +1,262 @@
+package util;
+
+import util.LessonResources.Menu;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link ColumnarMenu} read straight out of a memory-mapped snapshot file.
+ *
+ * {@link #write(Menu, Path)} stores the columns of a {@link ColumnarMenu} in
+ * a versioned little-endian file and {@link #open(Path)} maps it back with
+ * {@link FileChannel#map}. The mapped regions are the snapshot's columns, so
+ * nothing is deserialized up front and nothing is copied onto the heap
+ * later: prices, attributes and names are read from the mapping when they
+ * are asked for, by the snapshot itself and by any index built on it.
+ * Opening a snapshot reads the header and the section table, so it costs the
+ * same for twelve items as for twelve million, and every JVM that opens the
+ * same file shares its pages through the OS page cache.
+ *
+ * The layout, version {@value #VERSION}, is an 80 byte header
+ * <pre>
+ *     int  magic "MENU", int version, int item count, int section count,
+ *     int  dictionary size, int price scale,
+ *     long positions of: section offsets, prices, attributes, name codes,
+ *          section names, dictionary, end of file
+ * </pre>
+ * followed by those regions, each starting on an 8 byte boundary. Section
+ * offsets and name codes are {@code int}s, prices {@code double}s and
+ * attributes {@code short}s, one per item, and the header's price scale is
+ * the menu's {@link #priceScale()}. The two string tables are
+ * {@code count + 1} int offsets followed by UTF-8 bytes.
+ *
+ * {@link #open(Path)} checks the header, that every region fits its counts
+ * and the file, and that the section offsets run from zero to the item
+ * count, and throws an {@link IOException} if any of that is wrong. It does
+ * not check the name codes, as that would read the whole column: a code
+ * outside the dictionary, like a dictionary entry that points outside its
+ * table, is only found when that name is read, and throws an
+ * {@link UncheckedIOException}.
+ */
+public class MenuSnapshot extends ColumnarMenu {
+
+    static final int MAGIC = 0x4D454E55;
+    static final int VERSION = 3;
+    private static final int HEADER_SIZE = 80;
+
+    private MenuSnapshot(String[] sectionNames, int[] sectionOffsets, ByteBuffer prices, int priceScale,
+                         ByteBuffer attributes, ByteBuffer nameCodes, StringTable dictionary) {
+        super(sectionNames, sectionOffsets, prices.asDoubleBuffer(), priceScale,
+                attributes.asShortBuffer(), nameCodes.asIntBuffer(), dictionary);
+    }
+
+    public static void write(Menu menu, Path path) throws IOException {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int size = columns.size();
+        byte[][] sectionNames = encode(columns.sectionNames);
+        byte[][] dictionary = encode(columns.dictionary.toArray());
+
+        long[] positions = new long[7];
+        positions[0] = HEADER_SIZE;
+        positions[1] = align(positions[0] + 4L * columns.sectionOffsets.length);
+        positions[2] = align(positions[1] + 8L * size);
+        positions[3] = align(positions[2] + 2L * size);
+        positions[4] = align(positions[3] + 4L * size);
+        positions[5] = align(positions[4] + tableSize(sectionNames));
+        positions[6] = positions[5] + tableSize(dictionary);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION)
+                    .putInt(size).putInt(columns.sectionCount()).putInt(dictionary.length).putInt(columns.priceScale);
+            for (long position : positions) {
+                header.putLong(position);
+            }
+
+            // Bulk puts consume their source, so each column is duplicated.
+            map(channel, FileChannel.MapMode.READ_WRITE, positions[0], positions[1])
+                    .asIntBuffer().put(columns.sectionOffsets);
+            map(channel, FileChannel.MapMode.READ_WRITE, positions[1], positions[2])
+                    .asDoubleBuffer().put(columns.prices.duplicate());
+            map(channel, FileChannel.MapMode.READ_WRITE, positions[2], positions[3])
+                    .asShortBuffer().put(columns.attributes.duplicate());
+            map(channel, FileChannel.MapMode.READ_WRITE, positions[3], positions[4])
+                    .asIntBuffer().put(columns.nameCodes.duplicate());
+            writeTable(map(channel, FileChannel.MapMode.READ_WRITE, positions[4], positions[5]), sectionNames);
+            writeTable(map(channel, FileChannel.MapMode.READ_WRITE, positions[5], positions[6]), dictionary);
+        }
+    }
+
+    public static MenuSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(path + " is too short to be a menu snapshot");
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a menu snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported menu snapshot version " + version + " in " + path);
+            }
+            int size = header.getInt();
+            int sectionCount = header.getInt();
+            int dictionarySize = header.getInt();
+            int priceScale = header.getInt();
+            if (size < 0 || sectionCount < 0 || dictionarySize < 0) {
+                throw new IOException(path + " has a negative count: " + size + " items, "
+                        + sectionCount + " sections, " + dictionarySize + " names");
+            }
+            if (priceScale < ColumnarMenu.NO_SCALE || priceScale > Money.MAX_SCALE) {
+                throw new IOException(path + " has an unsupported price scale " + priceScale);
+            }
+            long[] positions = new long[7];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = header.getLong();
+            }
+            long[] minimums = {
+                    4L * (sectionCount + 1), 8L * size, 2L * size, 4L * size,
+                    4L * (sectionCount + 1), 4L * (dictionarySize + 1)
+            };
+            if (positions[0] != HEADER_SIZE) {
+                throw new IOException(path + " has its first region at " + positions[0]);
+            }
+            for (int i = 0; i < minimums.length; i++) {
+                long length = positions[i + 1] - positions[i];
+                if (length < minimums[i] || length > Integer.MAX_VALUE) {
+                    throw new IOException(path + " has a region " + i + " of " + length
+                            + " bytes where " + minimums[i] + " are needed");
+                }
+            }
+            if (positions[6] > channel.size()) {
+                throw new IOException(path + " is truncated");
+            }
+
+            int[] sectionOffsets = new int[sectionCount + 1];
+            map(channel, FileChannel.MapMode.READ_ONLY, positions[0], positions[1])
+                    .asIntBuffer().get(sectionOffsets);
+            if (sectionOffsets[0] != 0 || sectionOffsets[sectionCount] != size) {
+                throw new IOException(path + " has section offsets that do not cover its " + size + " items");
+            }
+            for (int s = 0; s < sectionCount; s++) {
+                if (sectionOffsets[s] > sectionOffsets[s + 1]) {
+                    throw new IOException(path + " has section offsets out of order at section " + s);
+                }
+            }
+            String[] sectionNames = new String[sectionCount];
+            try {
+                StringTable names = new StringTable(
+                        map(channel, FileChannel.MapMode.READ_ONLY, positions[4], positions[5]), sectionCount);
+                for (int s = 0; s < sectionCount; s++) {
+                    sectionNames[s] = names.get(s);
+                }
+            } catch (UncheckedIOException e) {
+                throw new IOException(path + " has a corrupt section name table", e.getCause());
+            }
+            return new MenuSnapshot(sectionNames, sectionOffsets,
+                    map(channel, FileChannel.MapMode.READ_ONLY, positions[1], positions[1] + 8L * size),
+                    priceScale,
+                    map(channel, FileChannel.MapMode.READ_ONLY, positions[2], positions[2] + 2L * size),
+                    map(channel, FileChannel.MapMode.READ_ONLY, positions[3], positions[3] + 4L * size),
+                    new StringTable(map(channel, FileChannel.MapMode.READ_ONLY, positions[5], positions[6]),
+                            dictionarySize));
+        }
+    }
+
+    /**
+     * A mapped table of {@code count + 1} int offsets followed by the UTF-8
+     * bytes they point into.
+     */
+    private static final class StringTable implements Dictionary {
+        private final ByteBuffer buffer;
+        private final int count;
+
+        StringTable(ByteBuffer buffer, int count) {
+            this.buffer = buffer;
+            this.count = count;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= count) {
+                throw new UncheckedIOException(new IOException(
+                        "String " + index + " is outside a table of " + count));
+            }
+            int data = 4 * (count + 1);
+            int start = buffer.getInt(4 * index);
+            int end = buffer.getInt(4 * (index + 1));
+            if (start < 0 || start > end || end > buffer.capacity() - data) {
+                throw new UncheckedIOException(new IOException(
+                        "String " + index + " runs from " + start + " to " + end + ", outside its table"));
+            }
+            byte[] bytes = new byte[end - start];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(data + start);
+            slice.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String[] toArray() {
+            String[] strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                strings[i] = get(i);
+            }
+            return strings;
+        }
+    }
+
+    private static byte[][] encode(String[] strings) {
+        byte[][] encoded = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static long tableSize(byte[][] strings) {
+        long size = 4L * (strings.length + 1);
+        for (byte[] string : strings) {
+            size += string.length;
+        }
+        return size;
+    }
+
+    private static void writeTable(ByteBuffer buffer, byte[][] strings) {
+        int offset = 0;
+        buffer.putInt(offset);
+        for (byte[] string : strings) {
+            offset += string.length;
+            buffer.putInt(offset);
+        }
+        for (byte[] string : strings) {
+            buffer.put(string);
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long start, long end)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, start, end - start);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
@@ -0,0 +1,185 @@
+package util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class MenuSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 40);
+            Path path = folder.newFile().toPath();
+            MenuSnapshot.write(menu, path);
+            MenuSnapshot snapshot = MenuSnapshot.open(path);
+
+            List<Food> expected = RandomMenus.items(menu);
+            List<Food> items = snapshot.items().collect(Collectors.toList());
+            assertThat(snapshot.size()).isEqualTo(expected.size());
+            assertThat(snapshot.sectionCount()).isEqualTo(menu.getSections().size());
+            for (int k = 0; k < expected.size(); k++) {
+                Food item = items.get(k);
+                // The fields are filled in, not just the accessors.
+                assertThat(item.getName()).isEqualTo(expected.get(k).getName());
+                assertThat(item.glutenFree).isEqualTo(expected.get(k).isGlutenFree());
+                assertThat(item.price).isEqualTo(expected.get(k).getPrice());
+            }
+            for (int s = 0; s < snapshot.sectionCount(); s++) {
+                assertThat(snapshot.getSections().get(s).getName()).isEqualTo(menu.getSections().get(s).getName());
+                assertThat(snapshot.getSections().get(s).getItems())
+                        .hasSize(menu.getSections().get(s).getItems().size());
+            }
+            assertThat(snapshot.prices().toArray()).isEqualTo(ColumnarMenu.of(menu).prices().toArray());
+            assertThat(snapshot.priceScale()).isEqualTo(ColumnarMenu.of(menu).priceScale());
+        }
+    }
+
+    @Test
+    public void indexesReadTheMappingWithoutCopying() throws IOException {
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(createMenu(), path);
+        MenuSnapshot snapshot = MenuSnapshot.open(path);
+
+        assertThat(ColumnarMenu.of(snapshot)).isSameAs(snapshot);
+        assertThat(PriceIndex.of(snapshot).menu).isSameAs(snapshot);
+        assertThat(PriceIndex.of(snapshot).count(3.0, 9.0)).isEqualTo(6);
+        assertThat(NameIndex.of(snapshot).get("eggs").getPrice()).isEqualTo(1.0);
+        assertThat(snapshot.prices.isDirect()).isTrue();
+    }
+
+    @Test
+    public void keepsAttributesAndScale() throws IOException {
+        ColumnarMenu menu = ColumnarMenu.builder(3)
+                .section("Sides")
+                .add("slaw", Diet.maskOf(Diet.VEGAN, Diet.NUT_FREE), 1.125)
+                .section("Closed")
+                .build();
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(menu, path);
+        MenuSnapshot snapshot = MenuSnapshot.open(path);
+
+        assertThat(snapshot.priceScale()).isEqualTo(3);
+        assertThat(snapshot.priceUnits(0)).isEqualTo(1125);
+        assertThat(snapshot.has(0, Diet.VEGAN)).isTrue();
+        assertThat(snapshot.has(0, Diet.GLUTEN_FREE)).isFalse();
+        assertThat(snapshot.getSections().get(1).getItems()).isEmpty();
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, new byte[10]);
+        assertRejected(path, "too short");
+
+        Files.write(path, new byte[100]);
+        assertRejected(path, "not a menu snapshot");
+    }
+
+    @Test
+    public void rejectsCorruptHeaders() throws IOException {
+        assertCorruptionRejected(b -> b.putInt(4, 1), "version 1");
+        assertCorruptionRejected(b -> b.putInt(8, -1), "negative count");
+        assertCorruptionRejected(b -> b.putInt(12, 1 << 20), "region 0");
+        assertCorruptionRejected(b -> b.putInt(20, 12), "price scale 12");
+        assertCorruptionRejected(b -> b.putLong(24, 0), "first region");
+        assertCorruptionRejected(b -> b.putLong(32, b.getLong(40)), "region 1");
+        assertCorruptionRejected(b -> b.putLong(72, b.getLong(72) + 1), "truncated");
+    }
+
+    @Test
+    public void rejectsCorruptSections() throws IOException {
+        // Breakfast would end after Lunch does.
+        assertCorruptionRejected(b -> b.putInt(84, 9), "out of order");
+        assertCorruptionRejected(b -> b.putInt(80, 1), "do not cover");
+        assertCorruptionRejected(b -> b.putInt(92, 11), "do not cover");
+        assertCorruptionRejected(b -> b.putInt((int) b.getLong(56) + 4, 1 << 20), "section name table");
+    }
+
+    @Test
+    public void truncatedFilesAreRejected() throws IOException {
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(createMenu(), path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertRejected(path, "truncated");
+    }
+
+    @Test
+    public void corruptNamesFailWhenRead() throws IOException {
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(createMenu(), path);
+        edit(path, b -> b.putInt((int) b.getLong(64) + 4, -5));
+        MenuSnapshot snapshot = MenuSnapshot.open(path);
+
+        assertThat(snapshot.price(0)).isEqualTo(2.0);
+        try {
+            snapshot.name(0);
+            fail("Expected the bad dictionary entry to be reported");
+        } catch (UncheckedIOException expected) {
+            assertThat(expected.getCause().getMessage()).contains("outside its table");
+        }
+    }
+
+    @Test
+    public void nameCodesAreCheckedWhenRead() throws IOException {
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(createMenu(), path);
+        edit(path, b -> b.putInt((int) b.getLong(48) + 4, 12));
+        MenuSnapshot snapshot = MenuSnapshot.open(path);
+
+        assertThat(snapshot.name(0)).isEqualTo("pancakes");
+        assertThat(snapshot.price(1)).isEqualTo(3.0);
+        try {
+            snapshot.name(1);
+            fail("Expected the bad name code to be reported");
+        } catch (UncheckedIOException expected) {
+            assertThat(expected.getCause().getMessage()).contains("String 12 is outside a table of 12");
+        }
+    }
+
+    private void assertCorruptionRejected(Consumer<ByteBuffer> corruption, String message) throws IOException {
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(createMenu(), path);
+        edit(path, corruption);
+        assertRejected(path, message);
+    }
+
+    private static void edit(Path path, Consumer<ByteBuffer> edit) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        edit.accept(bytes);
+        Files.write(path, bytes.array());
+    }
+
+    private static void assertRejected(Path path, String message) {
+        try {
+            MenuSnapshot.open(path);
+            fail("Expected " + path + " to be rejected with " + message);
+        } catch (IOException expected) {
+            assertThat(expected.getMessage()).contains(message);
+        }
+    }
+}
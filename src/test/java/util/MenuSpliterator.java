@@ -0,0 +1,135 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Section;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over every item of a menu, treating the sections as one
+ * flat, indexed sequence.
+ *
+ * {@code sections.stream().flatMap(s -> s.getItems().stream())} can only
+ * split between sections, so a menu with a few huge sections barely
+ * parallelizes. This spliterator knows where every section starts and
+ * splits the remaining items in half wherever that lands, which keeps it
+ * {@link #SIZED} and {@link #SUBSIZED} all the way down.
+ *
+ * The item lists should be random access and must not change size while
+ * the spliterator is in use.
+ */
+final class MenuSpliterator implements Spliterator<Food> {
+
+    private final List<Food>[] items;
+    private final int[] starts;
+    private int index;
+    private final int fence;
+    private int section;
+
+    MenuSpliterator(List<Section> sections) {
+        this(itemsOf(sections));
+    }
+
+    private MenuSpliterator(List<Food>[] items) {
+        this(items, startsOf(items));
+    }
+
+    private MenuSpliterator(List<Food>[] items, int[] starts) {
+        this(items, starts, 0, starts[items.length], 0);
+    }
+
+    private MenuSpliterator(List<Food>[] items, int[] starts, int index, int fence, int section) {
+        this.items = items;
+        this.starts = starts;
+        this.index = index;
+        this.fence = fence;
+        this.section = section;
+    }
+
+    private static List<Food>[] itemsOf(List<Section> sections) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Food>[] items = new List[sections.size()];
+        for (int s = 0; s < items.length; s++) {
+            items[s] = sections.get(s).getItems();
+        }
+        return items;
+    }
+
+    private static int[] startsOf(List<Food>[] items) {
+        int[] starts = new int[items.length + 1];
+        for (int s = 0; s < items.length; s++) {
+            starts[s + 1] = starts[s] + items[s].size();
+        }
+        return starts;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Food> action) {
+        if (index >= fence) {
+            return false;
+        }
+        while (starts[section + 1] <= index) {
+            section++;
+        }
+        action.accept(items[section].get(index - starts[section]));
+        index++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Food> action) {
+        int i = index;
+        int s = section;
+        index = fence;
+        while (i < fence) {
+            while (starts[s + 1] <= i) {
+                s++;
+            }
+            List<Food> list = items[s];
+            int base = starts[s];
+            int end = Math.min(fence, starts[s + 1]);
+            for (; i < end; i++) {
+                action.accept(list.get(i - base));
+            }
+        }
+        section = s;
+    }
+
+    @Override
+    public Spliterator<Food> trySplit() {
+        int low = index;
+        int mid = (low + fence) >>> 1;
+        if (low >= mid) {
+            return null;
+        }
+        MenuSpliterator prefix = new MenuSpliterator(items, starts, low, mid, section);
+        index = mid;
+        section = sectionOf(mid);
+        return prefix;
+    }
+
+    private int sectionOf(int position) {
+        int found = Arrays.binarySearch(starts, position);
+        if (found < 0) {
+            return -found - 2;
+        }
+        // Empty sections share a start with the section after them.
+        while (found < items.length - 1 && starts[found + 1] == position) {
+            found++;
+        }
+        return found;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+}
@@ -0,0 +1,146 @@
+package util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MenuSpliteratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void streamsMatchFlatMappingTheSections() {
+        Random random = new Random(13);
+        for (int i = 0; i < 300; i++) {
+            Menu menu = RandomMenus.menu(random, 6, 60);
+            List<Food> expected = RandomMenus.items(menu);
+
+            assertThat(menu.items().collect(Collectors.toList())).isEqualTo(expected);
+            assertThat(StreamSupport.stream(menu.itemSpliterator(), true).collect(Collectors.toList()))
+                    .isEqualTo(expected);
+            assertThat(menu.itemSpliterator().getExactSizeIfKnown()).isEqualTo(expected.size());
+        }
+    }
+
+    @Test
+    public void everySplitKeepsItsPlaceAndSize() {
+        Random random = new Random(14);
+        for (int i = 0; i < 300; i++) {
+            Menu menu = RandomMenus.menu(random, 6, 60);
+            List<Food> collected = new ArrayList<>();
+            collect(menu.itemSpliterator(), random, collected);
+
+            assertThat(collected).isEqualTo(RandomMenus.items(menu));
+        }
+    }
+
+    @Test
+    public void splitsInsideOneLargeSection() {
+        List<Food> items = Collections.nCopies(1000, new Food("soup", true, 4.0));
+        Menu menu = new Menu(new Section("Soups", items), new Section("Empty", Collections.emptyList()));
+        Spliterator<Food> spliterator = menu.itemSpliterator();
+
+        Spliterator<Food> prefix = spliterator.trySplit();
+
+        assertThat(prefix.estimateSize()).isEqualTo(500);
+        assertThat(spliterator.estimateSize()).isEqualTo(500);
+        assertThat(spliterator.hasCharacteristics(Spliterator.SUBSIZED)).isTrue();
+    }
+
+    @Test
+    public void columnarMenusSplitTheirOrdinals() throws IOException {
+        Random random = new Random(15);
+        for (int i = 0; i < 100; i++) {
+            Menu menu = RandomMenus.menu(random, 6, 60);
+            ColumnarMenu columns = ColumnarMenu.of(menu);
+            Path path = folder.newFile().toPath();
+            MenuSnapshot.write(menu, path);
+
+            for (ColumnarMenu split : new ColumnarMenu[]{columns, MenuSnapshot.open(path)}) {
+                List<Food> collected = new ArrayList<>();
+                collect(split.itemSpliterator(), random, collected);
+
+                assertThat(ordinals(collected)).isEqualTo(ordinals(split.items().collect(Collectors.toList())));
+                assertThat(names(collected)).isEqualTo(names(RandomMenus.items(menu)));
+                assertThat(names(split.items().parallel().collect(Collectors.toList())))
+                        .isEqualTo(names(RandomMenus.items(menu)));
+            }
+        }
+    }
+
+    @Test
+    public void columnarMenusSplitInHalf() throws IOException {
+        ColumnarMenu.Builder builder = ColumnarMenu.builder().section("Soups");
+        for (int i = 0; i < 1000; i++) {
+            builder.add("soup " + i, true, 4.0);
+        }
+        ColumnarMenu columns = builder.build();
+        Path path = folder.newFile().toPath();
+        MenuSnapshot.write(columns, path);
+
+        for (ColumnarMenu menu : new ColumnarMenu[]{columns, MenuSnapshot.open(path)}) {
+            Spliterator<Food> spliterator = menu.itemSpliterator();
+            Spliterator<Food> prefix = spliterator.trySplit();
+
+            assertThat(prefix).isNotNull();
+            assertThat(prefix.estimateSize()).isEqualTo(500);
+            assertThat(spliterator.estimateSize()).isEqualTo(500);
+            assertThat(prefix.trySplit().estimateSize()).isEqualTo(250);
+            assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED))
+                    .isTrue();
+            assertThat(spliterator.tryAdvance(food -> assertThat(food.getName()).isEqualTo("soup 500"))).isTrue();
+        }
+    }
+
+    @Test
+    public void emptyMenusHaveNothingToSplit() {
+        Spliterator<Food> spliterator = new Menu(new Section("Empty", Collections.emptyList())).itemSpliterator();
+
+        assertThat(spliterator.trySplit()).isNull();
+        assertThat(spliterator.tryAdvance(food -> { })).isFalse();
+    }
+
+    private static List<Integer> ordinals(List<Food> items) {
+        return items.stream().map(food -> ((ColumnarMenu.Item) food).getOrdinal()).collect(Collectors.toList());
+    }
+
+    private static List<String> names(List<Food> items) {
+        return items.stream().map(Food::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Splits at random, checking sizes, then drains the prefix before the
+     * rest, one item at a time or all at once.
+     */
+    private static void collect(Spliterator<Food> spliterator, Random random, List<Food> collected) {
+        long size = spliterator.estimateSize();
+        Spliterator<Food> prefix = random.nextInt(3) == 0 ? null : spliterator.trySplit();
+        if (prefix != null) {
+            assertThat(prefix.estimateSize() + spliterator.estimateSize()).isEqualTo(size);
+            collect(prefix, random, collected);
+            collect(spliterator, random, collected);
+        } else if (random.nextBoolean()) {
+            spliterator.forEachRemaining(collected::add);
+        } else {
+            while (spliterator.tryAdvance(collected::add)) {
+                // One at a time.
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package util;
+
+import java.math.BigDecimal;
+
+/**
+ * An exact amount of money: a whole number of minor units (cents, say) and
+ * the number of decimal places those units stand for.
+ *
+ * Sums of {@code Money} are exact, so unlike a {@code double} total they do
+ * not depend on the order the amounts were added in, or on how a parallel
+ * stream split them up.
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * The largest scale supported. Beyond this, ten to the scale no longer
+     * fits comfortably in a long alongside the amount.
+     */
+    public static final int MAX_SCALE = 9;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long units;
+    private final int scale;
+
+    private Money(long units, int scale) {
+        this.units = units;
+        this.scale = scale;
+    }
+
+    public static Money ofUnits(long units, int scale) {
+        checkScale(scale);
+        return new Money(units, scale);
+    }
+
+    /**
+     * The exact amount of the given price at the given scale. Fails if the
+     * price has more decimal places than the scale allows.
+     */
+    public static Money of(double price, int scale) {
+        return new Money(toUnits(price, scale), scale);
+    }
+
+    /**
+     * Converts a price to minor units, failing if it cannot be represented
+     * exactly at the given scale.
+     */
+    public static long toUnits(double price, int scale) {
+        checkScale(scale);
+        double factor = POWERS_OF_TEN[scale];
+        long units = Math.round(price * factor);
+        if (units / factor != price) {
+            throw new IllegalArgumentException(price + " is not a whole number of units at scale " + scale);
+        }
+        return units;
+    }
+
+    /**
+     * The nearest double to {@code units} at the given scale. For any price
+     * that {@link #toUnits} accepted this is exactly the original price.
+     */
+    public static double toDouble(long units, int scale) {
+        return units / (double) POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * The smallest scale, no less than {@code minimum}, at which the price is
+     * exact, or -1 if there is none up to {@link #MAX_SCALE}.
+     */
+    static int scaleOf(double price, int minimum) {
+        for (int scale = minimum; scale <= MAX_SCALE; scale++) {
+            double factor = POWERS_OF_TEN[scale];
+            if (Math.round(price * factor) / factor == price) {
+                return scale;
+            }
+        }
+        return -1;
+    }
+
+    static long powerOfTen(int scale) {
+        return POWERS_OF_TEN[scale];
+    }
+
+    static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public double toDouble() {
+        return toDouble(units, scale);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    public Money plus(Money other) {
+        checkSameScale(other);
+        return new Money(Math.addExact(units, other.units), scale);
+    }
+
+    public Money minus(Money other) {
+        checkSameScale(other);
+        return new Money(Math.subtractExact(units, other.units), scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameScale(other);
+        return Long.compare(units, other.units);
+    }
+
+    private void checkSameScale(Money other) {
+        if (scale != other.scale) {
+            throw new IllegalArgumentException("Scales differ: " + scale + " and " + other.scale);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return units == other.units && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
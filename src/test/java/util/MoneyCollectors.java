@@ -0,0 +1,68 @@
+package util;
+
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Exact counterparts of {@code Collectors.summingDouble},
+ * {@code averagingDouble} and friends for prices.
+ *
+ * Each price is converted to whole minor units at the given scale as it is
+ * collected, failing if it has more decimal places than that, and then only
+ * integer arithmetic is used. So
+ * <pre>
+ *     foods.stream().filter(Food::isGlutenFree).collect(MoneyCollectors.summing(Food::getPrice, 2))
+ * </pre>
+ * is exactly 4.00, the same sequentially and in parallel, where the
+ * {@code double} sum needs an {@code isCloseTo} check.
+ */
+public final class MoneyCollectors {
+
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int MIN = 2;
+    private static final int MAX = 3;
+
+    private MoneyCollectors() {
+    }
+
+    public static <T> Collector<T, ?, MoneySummary> summarizing(ToDoubleFunction<? super T> price, int scale) {
+        Money.checkScale(scale);
+        return Collector.of(
+                () -> new long[]{0, 0, Long.MAX_VALUE, Long.MIN_VALUE},
+                (totals, t) -> {
+                    long units = Money.toUnits(price.applyAsDouble(t), scale);
+                    totals[COUNT]++;
+                    totals[SUM] = Math.addExact(totals[SUM], units);
+                    totals[MIN] = Math.min(totals[MIN], units);
+                    totals[MAX] = Math.max(totals[MAX], units);
+                },
+                (left, right) -> {
+                    left[COUNT] += right[COUNT];
+                    left[SUM] = Math.addExact(left[SUM], right[SUM]);
+                    left[MIN] = Math.min(left[MIN], right[MIN]);
+                    left[MAX] = Math.max(left[MAX], right[MAX]);
+                    return left;
+                },
+                totals -> new MoneySummary(scale, totals[COUNT], totals[SUM], totals[MIN], totals[MAX]),
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, Money> summing(ToDoubleFunction<? super T> price, int scale) {
+        return Collectors.collectingAndThen(summarizing(price, scale), MoneySummary::getSum);
+    }
+
+    public static <T> Collector<T, ?, Double> averaging(ToDoubleFunction<? super T> price, int scale) {
+        return Collectors.collectingAndThen(summarizing(price, scale), MoneySummary::getAverage);
+    }
+
+    public static <T> Collector<T, ?, Optional<Money>> minimum(ToDoubleFunction<? super T> price, int scale) {
+        return Collectors.collectingAndThen(summarizing(price, scale), MoneySummary::getMin);
+    }
+
+    public static <T> Collector<T, ?, Optional<Money>> maximum(ToDoubleFunction<? super T> price, int scale) {
+        return Collectors.collectingAndThen(summarizing(price, scale), MoneySummary::getMax);
+    }
+}
@@ -0,0 +1,90 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.data.Offset.offset;
+import static util.LessonResources.createMenu;
+
+public class MoneyCollectorsTest {
+
+    @Test
+    public void summariesAreExactAndTheSameInParallel() {
+        Random random = new Random(16);
+        for (int i = 0; i < 500; i++) {
+            Menu menu = RandomMenus.pricedInCents(random, 6, 100);
+            List<Food> items = RandomMenus.items(menu);
+            MoneySummary sequential = items.stream().collect(MoneyCollectors.summarizing(Food::getPrice, 2));
+            MoneySummary parallel = items.parallelStream().collect(MoneyCollectors.summarizing(Food::getPrice, 2));
+            BigDecimal exact = items.stream()
+                    .map(f -> BigDecimal.valueOf(f.getPrice()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            assertThat(parallel.toString()).isEqualTo(sequential.toString());
+            assertThat(sequential.getCount()).isEqualTo(items.size());
+            assertThat(sequential.getSum().toBigDecimal().compareTo(exact)).isEqualTo(0);
+            assertThat(sequential.getSum().toDouble())
+                    .isEqualTo(items.stream().mapToDouble(Food::getPrice).sum(), offset(1e-9));
+            assertThat(sequential.toString()).isEqualTo(ColumnarMenu.of(menu).priceSummary().toString());
+            if (!items.isEmpty()) {
+                assertThat(sequential.getMin().get().toDouble())
+                        .isEqualTo(items.stream().mapToDouble(Food::getPrice).min().getAsDouble());
+                assertThat(sequential.getMax().get().toDouble())
+                        .isEqualTo(items.stream().mapToDouble(Food::getPrice).max().getAsDouble());
+                assertThat(sequential.getAverage())
+                        .isEqualTo(items.stream().mapToDouble(Food::getPrice).average().getAsDouble(), offset(1e-9));
+            }
+        }
+    }
+
+    @Test
+    public void glutenFreeTotalIsExactlyFourDollars() {
+        Money total = createMenu().getSections().get(0).getItems().stream()
+                .filter(Food::isGlutenFree)
+                .collect(MoneyCollectors.summing(Food::getPrice, 2));
+
+        assertThat(total.toString()).isEqualTo("4.00");
+    }
+
+    @Test
+    public void emptyInputsFollowTheOptionalConvention() {
+        List<Food> none = createMenu().getSections().get(0).getItems().subList(0, 0);
+
+        assertThat(none.stream().collect(MoneyCollectors.minimum(Food::getPrice, 2)).isPresent()).isFalse();
+        assertThat(none.stream().collect(MoneyCollectors.maximum(Food::getPrice, 2)).isPresent()).isFalse();
+        assertThat(none.stream().collect(MoneyCollectors.averaging(Food::getPrice, 2))).isEqualTo(0.0);
+        assertThat(none.stream().collect(MoneyCollectors.summing(Food::getPrice, 2)).toString()).isEqualTo("0.00");
+    }
+
+    @Test
+    public void summariesOnlyCombineAtTheSameScale() {
+        MoneySummary cents = MoneySummary.of(new long[]{100, 250}, 0, 2, 2);
+        MoneySummary mills = MoneySummary.of(new long[]{1000}, 0, 1, 3);
+
+        assertThat(cents.combine(MoneySummary.empty(2)).toString()).isEqualTo(cents.toString());
+        try {
+            cents.combine(mills);
+            fail("Expected different scales to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Scales differ");
+        }
+    }
+
+    @Test
+    public void rejectsPricesFinerThanTheScale() {
+        try {
+            createMenu().getSections().get(0).getItems().stream()
+                    .collect(MoneyCollectors.summing(food -> food.getPrice() / 3, 2));
+            fail("Expected a third of a dollar to be rejected at scale 2");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("scale 2");
+        }
+    }
+}
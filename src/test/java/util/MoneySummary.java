@@ -0,0 +1,173 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.nio.DoubleBuffer;
+import java.util.Optional;
+
+/**
+ * Exact count, sum, min and max of a set of prices held as minor units.
+ *
+ * Because every figure is an integer, combining summaries is associative
+ * and the result is the same however the prices were partitioned, which is
+ * what makes {@link MoneyCollectors} safe to cache across sequential and
+ * parallel runs. It is also how menu-wide figures are built from the
+ * per-section aggregates kept by {@link AggregatingSection}.
+ */
+public final class MoneySummary {
+
+    private final int scale;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    MoneySummary(int scale, long count, long sum, long min, long max) {
+        this.scale = scale;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * The summary of no prices.
+     */
+    public static MoneySummary empty(int scale) {
+        Money.checkScale(scale);
+        return new MoneySummary(scale, 0, 0, Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    /**
+     * Summarizes a whole menu at the given scale. Sections that keep their
+     * own aggregates at that scale contribute them directly; any other
+     * section is scanned.
+     */
+    public static MoneySummary of(Menu menu, int scale) {
+        MoneySummary summary = empty(scale);
+        for (Section section : menu.getSections()) {
+            summary = summary.combine(of(section, scale));
+        }
+        return summary;
+    }
+
+    /**
+     * Summarizes a section at the given scale, failing if a price has more
+     * decimal places than the scale allows.
+     */
+    public static MoneySummary of(Section section, int scale) {
+        if (section instanceof AggregatingSection && ((AggregatingSection) section).getScale() == scale) {
+            return ((AggregatingSection) section).getSummary();
+        }
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Food food : section.getItems()) {
+            long units = Money.toUnits(food.getPrice(), scale);
+            count++;
+            sum = Math.addExact(sum, units);
+            min = Math.min(min, units);
+            max = Math.max(max, units);
+        }
+        return new MoneySummary(scale, count, sum, min, max);
+    }
+
+    /**
+     * Summarizes {@code units[from, to)}. Each figure is its own simple loop
+     * over the array so that the JIT can vectorize it. The sum is not
+     * overflow checked; at cent scale it stays exact up to ninety
+     * quadrillion dollars in total.
+     */
+    static MoneySummary of(long[] units, int from, int to, int scale) {
+        if (from >= to) {
+            return empty(scale);
+        }
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += units[i];
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, units[i]);
+        }
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, units[i]);
+        }
+        return new MoneySummary(scale, to - from, sum, min, max);
+    }
+
+    /**
+     * Summarizes {@code prices[from, to)} of a column, each price already
+     * known to be exact at the scale, as a {@link ColumnarMenu}'s are at its
+     * price scale. The prices are converted into one array of units, which
+     * is then summarized by the loops above.
+     */
+    static MoneySummary of(DoubleBuffer prices, int from, int to, int scale) {
+        if (from >= to) {
+            return empty(scale);
+        }
+        double factor = Money.powerOfTen(scale);
+        long[] units = new long[to - from];
+        if (prices.hasArray()) {
+            double[] array = prices.array();
+            int offset = prices.arrayOffset() + from;
+            for (int i = 0; i < units.length; i++) {
+                units[i] = Math.round(array[offset + i] * factor);
+            }
+        } else {
+            for (int i = 0; i < units.length; i++) {
+                units[i] = Math.round(prices.get(from + i) * factor);
+            }
+        }
+        return of(units, 0, units.length, scale);
+    }
+
+    public MoneySummary combine(MoneySummary other) {
+        if (scale != other.scale) {
+            throw new IllegalArgumentException("Scales differ: " + scale + " and " + other.scale);
+        }
+        return new MoneySummary(scale, count + other.count, Math.addExact(sum, other.sum),
+                Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Money getSum() {
+        return Money.ofUnits(sum, scale);
+    }
+
+    public Optional<Money> getMin() {
+        return count == 0 ? Optional.empty() : Optional.of(Money.ofUnits(min, scale));
+    }
+
+    public Optional<Money> getMax() {
+        return count == 0 ? Optional.empty() : Optional.of(Money.ofUnits(max, scale));
+    }
+
+    /**
+     * The mean price as the nearest double, or zero for no prices. It is
+     * worked out from the exact sum, so it is the same for any evaluation
+     * order.
+     */
+    public double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count / Money.powerOfTen(scale);
+    }
+
+    @Override
+    public String toString() {
+        return "MoneySummary{count=" + count + ", sum=" + getSum()
+                + ", min=" + getMin().map(Money::toString).orElse("none")
+                + ", average=" + getAverage()
+                + ", max=" + getMax().map(Money::toString).orElse("none") + "}";
+    }
+}
@@ -0,0 +1,75 @@
+package util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class MoneyTest {
+
+    @Test
+    public void unitsRoundTripExactlyAtEveryScale() {
+        Random random = new Random(15);
+        for (int i = 0; i < 10000; i++) {
+            int scale = random.nextInt(Money.MAX_SCALE + 1);
+            long units = random.nextInt(100000000);
+            double price = BigDecimal.valueOf(units, scale).doubleValue();
+
+            assertThat(Money.toUnits(price, scale)).isEqualTo(units);
+            assertThat(Money.toDouble(units, scale)).isEqualTo(price);
+            assertThat(Money.of(price, scale).toBigDecimal()).isEqualTo(BigDecimal.valueOf(units, scale));
+        }
+    }
+
+    @Test
+    public void arithmeticMatchesBigDecimal() {
+        Money a = Money.of(0.1, 2);
+        Money b = Money.of(0.2, 2);
+
+        assertThat(a.plus(b).toString()).isEqualTo("0.30");
+        assertThat(a.plus(b).toDouble()).isEqualTo(0.3);
+        assertThat(a.minus(b).toBigDecimal()).isEqualTo(new BigDecimal("-0.10"));
+        assertThat(a.compareTo(b)).isLessThan(0);
+        assertThat(a.plus(b)).isEqualTo(Money.ofUnits(30, 2));
+        assertThat(a.plus(b).hashCode()).isEqualTo(Money.ofUnits(30, 2).hashCode());
+        assertThat(Money.ofUnits(30, 2)).isNotEqualTo(Money.ofUnits(300, 3));
+    }
+
+    @Test
+    public void scaleOfFindsTheSmallestExactScale() {
+        assertThat(Money.scaleOf(2.0, 2)).isEqualTo(2);
+        assertThat(Money.scaleOf(2.0, 0)).isEqualTo(0);
+        assertThat(Money.scaleOf(1.234, 2)).isEqualTo(3);
+        assertThat(Money.scaleOf(0.1 + 0.2, 2)).isEqualTo(-1);
+    }
+
+    @Test
+    public void rejectsInexactPricesAndBadScales() {
+        try {
+            Money.toUnits(1.005, 2);
+            fail("Expected 1.005 to be rejected at scale 2");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("1.005").contains("scale 2");
+        }
+        try {
+            Money.ofUnits(1, Money.MAX_SCALE + 1);
+            fail("Expected scale 10 to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("10");
+        }
+        try {
+            Money.of(1.0, 2).plus(Money.of(1.0, 3));
+            fail("Expected different scales to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Scales differ");
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void overflowIsNotSilent() {
+        Money.ofUnits(Long.MAX_VALUE, 2).plus(Money.ofUnits(1, 2));
+    }
+}
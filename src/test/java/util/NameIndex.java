@@ -0,0 +1,99 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.Arrays;
+
+/**
+ * An immutable name to item lookup, the columnar counterpart of
+ * {@code Collectors.toMap(Food::getName, f -> f)}.
+ *
+ * The table is sized once from the item count and uses open addressing with
+ * linear probing. Each slot is two ints, the name's hash and the item's
+ * ordinal, so there are no per-entry objects and nothing is rehashed.
+ * {@link #ordinalOf(String)} does not allocate.
+ *
+ * Like {@code Collectors.toMap}, building the index fails if two items share
+ * a name.
+ */
+public class NameIndex {
+
+    private static final int EMPTY = -1;
+
+    final ColumnarMenu menu;
+    private final int[] hashes;
+    private final int[] ordinals;
+    private final int mask;
+
+    private NameIndex(ColumnarMenu menu, int[] hashes, int[] ordinals) {
+        this.menu = menu;
+        this.hashes = hashes;
+        this.ordinals = ordinals;
+        this.mask = ordinals.length - 1;
+    }
+
+    public static NameIndex of(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int size = columns.size();
+        // Power of two between 1.5x and 3x the item count keeps probes short.
+        int capacity = Integer.highestOneBit(Math.max(2, size + (size >> 1)) - 1) << 1;
+
+        int[] hashes = new int[capacity];
+        int[] ordinals = new int[capacity];
+        Arrays.fill(ordinals, EMPTY);
+        int mask = capacity - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            String name = columns.name(ordinal);
+            int hash = mix(name.hashCode());
+            int slot = hash & mask;
+            while (ordinals[slot] != EMPTY) {
+                if (hashes[slot] == hash && columns.name(ordinals[slot]).equals(name)) {
+                    throw new IllegalStateException("Duplicate key " + name);
+                }
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            ordinals[slot] = ordinal;
+        }
+        return new NameIndex(columns, hashes, ordinals);
+    }
+
+    /**
+     * The ordinal of the item with the given name, or -1 if there is none.
+     */
+    public int ordinalOf(String name) {
+        int hash = mix(name.hashCode());
+        int slot = hash & mask;
+        int ordinal;
+        while ((ordinal = ordinals[slot]) != EMPTY) {
+            if (hashes[slot] == hash && menu.name(ordinal).equals(name)) {
+                return ordinal;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    public boolean containsName(String name) {
+        return ordinalOf(name) != EMPTY;
+    }
+
+    /**
+     * The item with the given name, or {@code null} if there is none.
+     */
+    public Food get(String name) {
+        int ordinal = ordinalOf(name);
+        return ordinal == EMPTY ? null : menu.item(ordinal);
+    }
+
+    public int size() {
+        return menu.size();
+    }
+
+    private static int mix(int hash) {
+        // String hashes are weak in the low bits for short keys, so spread them.
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,91 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class NameIndexTest {
+
+    @Test
+    public void lookupsMatchCollectingToAMap() {
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++) {
+            Menu menu = uniquelyNamed(random, random.nextInt(200));
+            NameIndex index = NameIndex.of(menu);
+            Map<String, Food> byName = RandomMenus.items(menu).stream()
+                    .collect(Collectors.toMap(Food::getName, Function.identity()));
+
+            assertThat(index.size()).isEqualTo(byName.size());
+            for (Map.Entry<String, Food> entry : byName.entrySet()) {
+                Food item = index.get(entry.getKey());
+                assertThat(item.getName()).isEqualTo(entry.getKey());
+                assertThat(item.getPrice()).isEqualTo(entry.getValue().getPrice());
+                assertThat(item.isGlutenFree()).isEqualTo(entry.getValue().isGlutenFree());
+            }
+            for (int k = 0; k < 20; k++) {
+                String name = RandomMenus.name(random) + "?";
+                assertThat(index.containsName(name)).isFalse();
+                assertThat(index.get(name)).isNull();
+                assertThat(index.ordinalOf(name)).isEqualTo(-1);
+            }
+        }
+    }
+
+    @Test
+    public void ordinalsAreMenuPositions() {
+        NameIndex index = NameIndex.of(createMenu());
+
+        assertThat(index.ordinalOf("pancakes")).isEqualTo(0);
+        assertThat(index.ordinalOf("B.L.T.")).isEqualTo(5);
+        assertThat(index.ordinalOf("Salmon and Rice")).isEqualTo(11);
+    }
+
+    @Test
+    public void duplicateNamesFailAsToMapDoes() {
+        Menu menu = new Menu(
+                new Section("Breakfast", Arrays.asList(new Food("eggs", true, 1.0))),
+                new Section("Brunch", Arrays.asList(new Food("eggs", true, 2.0))));
+        try {
+            RandomMenus.items(menu).stream().collect(Collectors.toMap(Food::getName, Function.identity()));
+            fail("Expected toMap to reject the duplicate");
+        } catch (IllegalStateException expected) {
+            // NameIndex should fail the same way.
+        }
+        try {
+            NameIndex.of(menu);
+            fail("Expected the duplicate to be rejected");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getMessage()).contains("eggs");
+        }
+    }
+
+    private static Menu uniquelyNamed(Random random, int size) {
+        Set<String> names = new HashSet<>();
+        List<Food> items = new ArrayList<>();
+        while (items.size() < size) {
+            String name = RandomMenus.name(random) + " " + random.nextInt(1000);
+            if (names.add(name)) {
+                items.add(new Food(name, random.nextBoolean(), RandomMenus.price(random)));
+            }
+        }
+        int split = items.isEmpty() ? 0 : random.nextInt(items.size());
+        return new Menu(
+                new Section("First", items.subList(0, split)),
+                new Section("Second", items.subList(split, items.size())));
+    }
+}
@@ -0,0 +1,404 @@
+package util;
+
+import util.LessonResources.Food;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts names and prices by first extracting a packed {@code long} key per
+ * element and radix sorting the keys, instead of calling a comparator that
+ * chases two string pointers for every comparison.
+ *
+ * Each method gives exactly the order of the comparator form it names, and
+ * like {@code Collections.sort} every sort is stable:
+ * <ul>
+ *     <li>{@link #sort} is {@code String::compareTo}. The key is the next
+ *     four UTF-16 chars; strings that tie on it are re-keyed on the four
+ *     after that, so full comparisons only happen in small groups.</li>
+ *     <li>{@link #sortReversed} is {@code (a, b) -> b.compareTo(a)}.</li>
+ *     <li>{@link #sortByLength} is {@code (a, b) -> a.length() - b.length()}.
+ *     The key is the length.</li>
+ *     <li>{@link #sortByPrice} is {@code comparingDouble(Food::getPrice)},
+ *     ordered as {@link Double#compare} orders. The key is the price's bits,
+ *     flipped so that unsigned order is numeric order.</li>
+ * </ul>
+ *
+ * The radix sort is least significant byte first and skips any byte on which
+ * all keys agree, so short keys such as lengths take one or two passes. Large
+ * inputs are split into chunks that are counted and scattered in parallel.
+ */
+public final class PackedSort {
+
+    private static final int RADIX = 256;
+    private static final int INSERTION_THRESHOLD = 32;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CHARS_PER_KEY = 4;
+
+    private PackedSort() {
+    }
+
+    public static void sort(List<String> strings) {
+        String[] array = strings.toArray(new String[0]);
+        writeBack(strings, array, orderOf(array));
+    }
+
+    public static void sortReversed(List<String> strings) {
+        String[] array = strings.toArray(new String[0]);
+        int[] order = orderOf(array);
+        // Reversing an ascending stable sort puts equal strings in reverse
+        // order, so flip each run of equal strings back afterwards.
+        reverse(order, 0, order.length);
+        for (int i = 0; i < order.length; ) {
+            int j = i + 1;
+            while (j < order.length && array[order[j]].equals(array[order[i]])) {
+                j++;
+            }
+            reverse(order, i, j);
+            i = j;
+        }
+        writeBack(strings, array, order);
+    }
+
+    public static void sortByLength(List<String> strings) {
+        String[] array = strings.toArray(new String[0]);
+        long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = array[i].length();
+        }
+        writeBack(strings, array, order(keys));
+    }
+
+    public static <T extends Food> void sortByPrice(List<T> foods) {
+        sortByPrice(foods, false);
+    }
+
+    public static <T extends Food> void sortByPriceDescending(List<T> foods) {
+        sortByPrice(foods, true);
+    }
+
+    /**
+     * The positions of {@code strings} in {@code String::compareTo} order.
+     */
+    public static int[] orderOf(String[] strings) {
+        int[] order = new int[strings.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        sortStrings(strings, order, 0, order.length, 0);
+        return order;
+    }
+
+    /**
+     * Item ordinals in name order, ties in menu order. Names are dictionary
+     * encoded, so only the distinct names are string sorted; items are then
+     * radix sorted by the rank of their name.
+     */
+    public static int[] orderByName(ColumnarMenu menu) {
+        int[] byName = orderOf(menu.dictionary.toArray());
+        long[] ranks = new long[byName.length];
+        for (int rank = 0; rank < byName.length; rank++) {
+            ranks[byName[rank]] = rank;
+        }
+        long[] keys = new long[menu.size()];
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            keys[ordinal] = ranks[menu.nameCode(ordinal)];
+        }
+        return order(keys);
+    }
+
+    /**
+     * Item ordinals from cheapest to most expensive, ties in menu order.
+     */
+    public static int[] orderByPrice(ColumnarMenu menu) {
+        long[] keys = new long[menu.size()];
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            keys[ordinal] = priceKey(menu.price(ordinal));
+        }
+        return order(keys);
+    }
+
+    /**
+     * A {@code long} whose unsigned order is {@link Double#compare} order.
+     */
+    static long priceKey(double price) {
+        long bits = Double.doubleToLongBits(price);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * The stable permutation that sorts {@code keys} as unsigned values.
+     * The keys are sorted in place.
+     */
+    static int[] order(long[] keys) {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        radixSort(keys, order, 0, keys.length);
+        return order;
+    }
+
+    private static <T extends Food> void sortByPrice(List<T> foods, boolean descending) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) foods.toArray(new Food[0]);
+        long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            long key = priceKey(array[i].getPrice());
+            keys[i] = descending ? ~key : key;
+        }
+        writeBack(foods, array, order(keys));
+    }
+
+    private static <T> void writeBack(List<T> list, T[] array, int[] order) {
+        ListIterator<T> it = list.listIterator();
+        for (int index : order) {
+            it.next();
+            it.set(array[index]);
+        }
+    }
+
+    private static void reverse(int[] values, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Sorts {@code order[from, to)}, whose strings already agree on their
+     * first {@code depth * 4} chars, by the chars from there on.
+     */
+    private static void sortStrings(String[] strings, int[] order, int from, int to, int depth) {
+        int n = to - from;
+        if (n < INSERTION_THRESHOLD) {
+            insertionSort(strings, order, from, to);
+            return;
+        }
+        int offset = depth * CHARS_PER_KEY;
+        long[] keys = new long[n];
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = order[from + i];
+            keys[i] = chunk(strings[values[i]], offset);
+        }
+        radixSort(keys, values, 0, n);
+        System.arraycopy(values, 0, order, from, n);
+
+        int[] runs = new int[n];
+        int runCount = 0;
+        for (int i = 0; i < n; ) {
+            int j = i + 1;
+            while (j < n && keys[j] == keys[i]) {
+                j++;
+            }
+            if (j - i > 1) {
+                runs[runCount++] = i;
+            }
+            i = j;
+        }
+        IntStream runIndexes = IntStream.range(0, runCount);
+        if (n >= PARALLEL_THRESHOLD) {
+            runIndexes = runIndexes.parallel();
+        }
+        runIndexes.forEach(r -> {
+            int start = runs[r];
+            int end = start + 1;
+            while (end < n && keys[end] == keys[start]) {
+                end++;
+            }
+            resolveTie(strings, order, from + start, from + end, depth);
+        });
+    }
+
+    /**
+     * Orders strings that agree on every char up to the end of the current
+     * key. If they all end within it, they differ at most in trailing NUL
+     * chars and the shorter comes first; otherwise the next four chars
+     * decide.
+     */
+    private static void resolveTie(String[] strings, int[] order, int from, int to, int depth) {
+        int limit = (depth + 1) * CHARS_PER_KEY;
+        int length = strings[order[from]].length();
+        boolean ended = true;
+        boolean sameLength = true;
+        for (int i = from; i < to; i++) {
+            int l = strings[order[i]].length();
+            ended &= l <= limit;
+            sameLength &= l == length;
+        }
+        if (!ended) {
+            sortStrings(strings, order, from, to, depth + 1);
+        } else if (!sameLength) {
+            long[] keys = new long[to - from];
+            int[] values = Arrays.copyOfRange(order, from, to);
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = strings[values[i]].length();
+            }
+            radixSort(keys, values, 0, keys.length);
+            System.arraycopy(values, 0, order, from, values.length);
+        }
+    }
+
+    /**
+     * Up to four chars of {@code s} from {@code offset}, zero padded.
+     */
+    private static long chunk(String s, int offset) {
+        long key = 0;
+        for (int k = 0; k < CHARS_PER_KEY; k++) {
+            int position = offset + k;
+            key = key << 16 | (position < s.length() ? s.charAt(position) : 0);
+        }
+        return key;
+    }
+
+    private static void insertionSort(String[] strings, int[] order, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int index = order[i];
+            String s = strings[index];
+            int j = i - 1;
+            while (j >= from && strings[order[j]].compareTo(s) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * Stable least significant byte radix sort of {@code keys[from, to)} as
+     * unsigned values, carrying {@code values} along.
+     */
+    static void radixSort(long[] keys, int[] values, int from, int to) {
+        int n = to - from;
+        if (n < INSERTION_THRESHOLD) {
+            insertionSort(keys, values, from, to);
+            return;
+        }
+        long differing = 0;
+        for (int i = from; i < to; i++) {
+            differing |= keys[i] ^ keys[from];
+        }
+        int chunks = n >= PARALLEL_THRESHOLD
+                ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, n / (PARALLEL_THRESHOLD / 4)))
+                : 1;
+        int[][] counts = new int[chunks][RADIX];
+        long[] sourceKeys = keys;
+        int[] sourceValues = values;
+        int sourceFrom = from;
+        long[] targetKeys = new long[n];
+        int[] targetValues = new int[n];
+        int targetFrom = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 8) {
+            if ((differing >>> shift & 0xFF) == 0) {
+                continue;
+            }
+            Pass pass = new Pass(sourceKeys, sourceValues, sourceFrom, targetKeys, targetValues, targetFrom,
+                    n, chunks, counts, shift);
+            forEachChunk(chunks, pass::count);
+            int total = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                for (int[] chunk : counts) {
+                    int count = chunk[digit];
+                    chunk[digit] = total;
+                    total += count;
+                }
+            }
+            forEachChunk(chunks, pass::scatter);
+
+            long[] keysWere = sourceKeys;
+            int[] valuesWere = sourceValues;
+            int fromWas = sourceFrom;
+            sourceKeys = targetKeys;
+            sourceValues = targetValues;
+            sourceFrom = targetFrom;
+            targetKeys = keysWere;
+            targetValues = valuesWere;
+            targetFrom = fromWas;
+        }
+        if (sourceKeys != keys) {
+            System.arraycopy(sourceKeys, sourceFrom, keys, from, n);
+            System.arraycopy(sourceValues, sourceFrom, values, from, n);
+        }
+    }
+
+    private static void forEachChunk(int chunks, IntConsumer action) {
+        if (chunks == 1) {
+            action.accept(0);
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(action);
+        }
+    }
+
+    private static void insertionSort(long[] keys, int[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int value = values[i];
+            int j = i - 1;
+            while (j >= from && Long.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * One byte's counting and scattering, split into contiguous chunks so
+     * that each chunk's elements keep their order within every bucket.
+     */
+    private static final class Pass {
+        private final long[] sourceKeys;
+        private final int[] sourceValues;
+        private final int sourceFrom;
+        private final long[] targetKeys;
+        private final int[] targetValues;
+        private final int targetFrom;
+        private final int n;
+        private final int chunks;
+        private final int[][] counts;
+        private final int shift;
+
+        Pass(long[] sourceKeys, int[] sourceValues, int sourceFrom, long[] targetKeys, int[] targetValues,
+             int targetFrom, int n, int chunks, int[][] counts, int shift) {
+            this.sourceKeys = sourceKeys;
+            this.sourceValues = sourceValues;
+            this.sourceFrom = sourceFrom;
+            this.targetKeys = targetKeys;
+            this.targetValues = targetValues;
+            this.targetFrom = targetFrom;
+            this.n = n;
+            this.chunks = chunks;
+            this.counts = counts;
+            this.shift = shift;
+        }
+
+        void count(int chunk) {
+            int[] count = counts[chunk];
+            Arrays.fill(count, 0);
+            for (int i = start(chunk); i < start(chunk + 1); i++) {
+                count[(int) (sourceKeys[sourceFrom + i] >>> shift) & 0xFF]++;
+            }
+        }
+
+        void scatter(int chunk) {
+            int[] next = counts[chunk];
+            for (int i = start(chunk); i < start(chunk + 1); i++) {
+                long key = sourceKeys[sourceFrom + i];
+                int position = targetFrom + next[(int) (key >>> shift) & 0xFF]++;
+                targetKeys[position] = key;
+                targetValues[position] = sourceValues[sourceFrom + i];
+            }
+        }
+
+        private int start(int chunk) {
+            return (int) ((long) n * chunk / chunks);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PackedSortTest {
+
+    @Test
+    public void stringSortsMatchTheirComparators() {
+        Random random = new Random(23);
+        for (int size : new int[]{0, 1, 5, 31, 32, 100, 1000}) {
+            for (int round = 0; round < 20; round++) {
+                List<String> strings = strings(random, size);
+                checkStable(strings, PackedSort::sort, String::compareTo);
+                checkStable(strings, PackedSort::sortReversed, (a, b) -> b.compareTo(a));
+                checkStable(strings, PackedSort::sortByLength, (a, b) -> a.length() - b.length());
+            }
+        }
+    }
+
+    @Test
+    public void largeInputsAreSortedInParallelChunks() {
+        Random random = new Random(24);
+        List<String> strings = strings(random, 200000);
+        checkStable(strings, PackedSort::sort, String::compareTo);
+        checkStable(strings, PackedSort::sortByLength, (a, b) -> a.length() - b.length());
+    }
+
+    @Test
+    public void priceSortsFollowDoubleCompare() {
+        Random random = new Random(25);
+        double[] special = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int size : new int[]{0, 10, 100, 70000}) {
+            List<Food> foods = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                double price = random.nextInt(4) == 0
+                        ? special[random.nextInt(special.length)]
+                        : (random.nextInt(4001) - 2000) / 100.0;
+                foods.add(new Food("item " + i, random.nextBoolean(), price));
+            }
+            Comparator<Food> byPrice = Comparator.comparingDouble(Food::getPrice);
+            checkStable(foods, PackedSort::sortByPrice, byPrice);
+            checkStable(foods, PackedSort::sortByPriceDescending, byPrice.reversed());
+        }
+    }
+
+    @Test
+    public void menuOrdersMatchTheStream() {
+        Random random = new Random(26);
+        for (int round = 0; round < 100; round++) {
+            Menu menu = RandomMenus.menu(random, 4, 60);
+            ColumnarMenu columns = ColumnarMenu.of(menu);
+            List<Food> items = RandomMenus.items(menu);
+
+            assertThat(PackedSort.orderByName(columns))
+                    .isEqualTo(sortedOrdinals(items, Comparator.comparing(Food::getName)));
+            assertThat(PackedSort.orderByPrice(columns))
+                    .isEqualTo(sortedOrdinals(items, Comparator.comparingDouble(Food::getPrice)));
+        }
+    }
+
+    @Test
+    public void orderOfLeavesTheArrayAlone() {
+        String[] strings = {"toast", "eggs", "pancakes", "eggs"};
+
+        assertThat(PackedSort.orderOf(strings)).containsExactly(1, 3, 2, 0);
+        assertThat(strings).containsExactly("toast", "eggs", "pancakes", "eggs");
+    }
+
+    /**
+     * Sorts a copy both ways and checks that the same instances end up in
+     * the same places, so that equal elements have kept their order.
+     */
+    private static <T> void checkStable(List<T> input, Consumer<List<T>> sort, Comparator<? super T> order) {
+        List<T> expected = new ArrayList<>(input);
+        Collections.sort(expected, order);
+        List<T> actual = new ArrayList<>(input);
+        sort.accept(actual);
+
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            if (actual.get(i) != expected.get(i)) {
+                assertThat(actual.get(i)).as("position " + i).isSameAs(expected.get(i));
+            }
+        }
+    }
+
+    private static int[] sortedOrdinals(List<Food> items, Comparator<Food> order) {
+        return IntStream.range(0, items.size()).boxed()
+                .sorted(Comparator.comparing(items::get, order))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Strings that share long prefixes, repeat as separate instances, end
+     * in NUL chars and reach past the BMP, to give every tie-breaking path
+     * in the sort something to do.
+     */
+    private static List<String> strings(Random random, int size) {
+        String[] prefixes = {"", "a", "abcd", "abcdefgh", "abcdefghijk", "\u0000", "\uffff", "\ud83c\udf54"};
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder s = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+            int extra = random.nextInt(6);
+            for (int k = 0; k < extra; k++) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        s.append('\u0000');
+                        break;
+                    case 1:
+                        s.append((char) random.nextInt(Character.MAX_VALUE + 1));
+                        break;
+                    default:
+                        s.append((char) ('a' + random.nextInt(4)));
+                }
+            }
+            strings.add(new String(s.toString()));
+        }
+        return strings;
+    }
+}
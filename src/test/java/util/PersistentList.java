@@ -0,0 +1,166 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list that shares structure with the lists it was derived
+ * from. Elements sit in the leaves of a 32-way trie, so {@link #with} and
+ * {@link #plus} copy only the path to one leaf, O(log32 n), and leave every
+ * other node shared with the original. {@link #without} is as cheap for the
+ * last element; any other removal moves every later element and rebuilds
+ * the list.
+ */
+final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentList<Object> EMPTY = new PersistentList<>(0, 0, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentList(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * A persistent copy of the given list, built bottom up in O(n).
+     */
+    static <E> PersistentList<E> of(List<? extends E> elements) {
+        if (elements instanceof PersistentList) {
+            @SuppressWarnings("unchecked")
+            PersistentList<E> list = (PersistentList<E>) elements;
+            return list;
+        }
+        if (elements.isEmpty()) {
+            return empty();
+        }
+        Object[] nodes = elements.toArray();
+        int shift = 0;
+        while (nodes.length > WIDTH) {
+            Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+            for (int p = 0; p < parents.length; p++) {
+                parents[p] = Arrays.copyOfRange(nodes, p << BITS, Math.min(nodes.length, (p + 1) << BITS));
+            }
+            nodes = parents;
+            shift += BITS;
+        }
+        return new PersistentList<>(elements.size(), shift, nodes);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (E) node[index & MASK];
+    }
+
+    /**
+     * This list with the element at {@code index} replaced.
+     */
+    PersistentList<E> with(int index, E element) {
+        checkIndex(index);
+        return new PersistentList<>(size, shift, set(root, shift, index, element));
+    }
+
+    /**
+     * This list with {@code element} appended.
+     */
+    PersistentList<E> plus(E element) {
+        if (size == 1L << (shift + BITS)) {
+            Object[] root = {this.root, path(shift, element)};
+            return new PersistentList<>(size + 1, shift + BITS, root);
+        }
+        return new PersistentList<>(size + 1, shift, append(root, shift, size, element));
+    }
+
+    /**
+     * This list without the element at {@code index}.
+     */
+    PersistentList<E> without(int index) {
+        checkIndex(index);
+        if (size == 1) {
+            return empty();
+        }
+        if (index < size - 1) {
+            List<E> elements = new ArrayList<>(this);
+            elements.remove(index);
+            return of(elements);
+        }
+        Object[] root = pop(this.root, shift, index);
+        int shift = this.shift;
+        while (shift > 0 && root.length == 1) {
+            root = (Object[]) root[0];
+            shift -= BITS;
+        }
+        return new PersistentList<>(size - 1, shift, root);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static Object[] set(Object[] node, int level, int index, Object element) {
+        Object[] copy = node.clone();
+        int child = (index >>> level) & MASK;
+        copy[child] = level == 0 ? element : set((Object[]) node[child], level - BITS, index, element);
+        return copy;
+    }
+
+    private static Object[] append(Object[] node, int level, int index, Object element) {
+        int child = (index >>> level) & MASK;
+        Object[] copy = Arrays.copyOf(node, Math.max(node.length, child + 1));
+        if (level == 0) {
+            copy[child] = element;
+        } else if (child < node.length) {
+            copy[child] = append((Object[]) node[child], level - BITS, index, element);
+        } else {
+            copy[child] = path(level - BITS, element);
+        }
+        return copy;
+    }
+
+    /**
+     * The node without its last element, {@code index}, or null if nothing
+     * is left in it.
+     */
+    private static Object[] pop(Object[] node, int level, int index) {
+        int child = (index >>> level) & MASK;
+        Object[] rest = level == 0 ? null : pop((Object[]) node[child], level - BITS, index);
+        if (rest == null) {
+            return child == 0 ? null : Arrays.copyOf(node, child);
+        }
+        Object[] copy = node.clone();
+        copy[child] = rest;
+        return copy;
+    }
+
+    private static Object[] path(int level, Object element) {
+        return level == 0 ? new Object[]{element} : new Object[]{path(level - BITS, element)};
+    }
+}
@@ -0,0 +1,70 @@
+package util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistentListTest {
+
+    @Test
+    public void changesMatchAnArrayListAndLeaveTheOriginalAlone() {
+        Random random = new Random(17);
+        for (int i = 0; i < 50; i++) {
+            List<Integer> expected = new ArrayList<>();
+            int start = random.nextInt(3) == 0 ? 0 : random.nextInt(2000);
+            for (int k = 0; k < start; k++) {
+                expected.add(k);
+            }
+            PersistentList<Integer> list = PersistentList.of(expected);
+            for (int step = 0; step < 2000; step++) {
+                PersistentList<Integer> before = list;
+                List<Integer> copy = new ArrayList<>(expected);
+                int action = expected.isEmpty() ? 0 : random.nextInt(4);
+                if (action == 0) {
+                    list = list.plus(step);
+                    expected.add(step);
+                } else if (action == 1) {
+                    int index = random.nextInt(expected.size());
+                    list = list.with(index, -step);
+                    expected.set(index, -step);
+                } else {
+                    // Mostly from the end, so the list also shrinks across levels.
+                    int index = action == 2 ? expected.size() - 1 : random.nextInt(expected.size());
+                    list = list.without(index);
+                    expected.remove(index);
+                }
+                assertThat(before).isEqualTo(copy);
+            }
+            assertThat(list).isEqualTo(expected);
+            assertThat(list.size()).isEqualTo(expected.size());
+        }
+    }
+
+    @Test
+    public void shrinksAndGrowsAcrossLevels() {
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int k = 0; k < 1025; k++) {
+            list = list.plus(k);
+        }
+        for (int k = 1024; k >= 20; k--) {
+            list = list.without(k);
+        }
+        for (int k = 20; k < 100; k++) {
+            list = list.plus(k);
+        }
+
+        assertThat(list.size()).isEqualTo(100);
+        for (int k = 0; k < 100; k++) {
+            assertThat(list.get(k)).isEqualTo(k);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removingPastTheEndFails() {
+        PersistentList.<Integer>empty().plus(1).without(1);
+    }
+}
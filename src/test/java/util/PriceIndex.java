@@ -0,0 +1,141 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An immutable index of item prices, built once from a {@link Menu}.
+ *
+ * Prices are kept in sorted primitive arrays next to the ordinal of the item
+ * they belong to, so range counts, min/max and range scans are binary
+ * searches instead of a pass over every item. There is one sorted run for the
+ * whole menu and one per section; {@link #section(int)} returns an index
+ * over just that section's run.
+ *
+ * Prices are ordered the way {@link Double#compare} orders them. Items with
+ * the same price come back in menu order.
+ */
+public class PriceIndex {
+
+    final ColumnarMenu menu;
+    final double[] prices;
+    final int[] ordinals;
+    final int from;
+    final int to;
+    private final PriceIndex[] sections;
+
+    private PriceIndex(ColumnarMenu menu, double[] prices, int[] ordinals, int from, int to,
+                       PriceIndex[] sections) {
+        this.menu = menu;
+        this.prices = prices;
+        this.ordinals = ordinals;
+        this.from = from;
+        this.to = to;
+        this.sections = sections;
+    }
+
+    public static PriceIndex of(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int size = columns.size();
+
+        double[] keys = columns.prices().toArray();
+        int[] ordinals = new int[size];
+        Arrays.setAll(ordinals, i -> i);
+        Sorting.sortByKey(ordinals, keys, 0, size);
+
+        int[] sectionOrdinals = new int[size];
+        Arrays.setAll(sectionOrdinals, i -> i);
+        PriceIndex[] sections = new PriceIndex[columns.sectionCount()];
+        double[] sectionPrices = new double[size];
+        for (int s = 0; s < sections.length; s++) {
+            int start = columns.sectionStart(s);
+            int end = columns.sectionEnd(s);
+            Sorting.sortByKey(sectionOrdinals, keys, start, end);
+            sections[s] = new PriceIndex(columns, sectionPrices, sectionOrdinals, start, end, null);
+        }
+
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = keys[ordinals[i]];
+            sectionPrices[i] = keys[sectionOrdinals[i]];
+        }
+        return new PriceIndex(columns, prices, ordinals, 0, size, sections);
+    }
+
+    /**
+     * The index restricted to a single section of the menu.
+     */
+    public PriceIndex section(int section) {
+        if (sections == null) {
+            throw new UnsupportedOperationException("Already a section index");
+        }
+        return sections[section];
+    }
+
+    public PriceIndex section(String name) {
+        for (int s = 0; s < menu.sectionCount(); s++) {
+            if (menu.sectionName(s).equals(name)) {
+                return section(s);
+            }
+        }
+        throw new IllegalArgumentException("No section named " + name);
+    }
+
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Number of items priced in {@code [low, high)}.
+     */
+    public int count(double low, double high) {
+        return Math.max(0, lowerBound(high) - lowerBound(low));
+    }
+
+    /**
+     * Number of items priced at {@code price} or more.
+     */
+    public int countAtLeast(double price) {
+        return to - lowerBound(price);
+    }
+
+    /**
+     * Number of items priced below {@code price}.
+     */
+    public int countBelow(double price) {
+        return lowerBound(price) - from;
+    }
+
+    public OptionalDouble min() {
+        return size() == 0 ? OptionalDouble.empty() : OptionalDouble.of(prices[from]);
+    }
+
+    public OptionalDouble max() {
+        return size() == 0 ? OptionalDouble.empty() : OptionalDouble.of(prices[to - 1]);
+    }
+
+    /**
+     * Ordinals of the items priced in {@code [low, high)}, cheapest first.
+     */
+    public IntStream ordinals(double low, double high) {
+        int start = lowerBound(low);
+        int end = lowerBound(high);
+        return start < end ? Arrays.stream(ordinals, start, end) : IntStream.empty();
+    }
+
+    /**
+     * The items priced in {@code [low, high)}, cheapest first.
+     */
+    public Stream<Food> items(double low, double high) {
+        return ordinals(low, high).mapToObj(menu::item);
+    }
+
+    private int lowerBound(double price) {
+        return Sorting.lowerBound(prices, from, to, price);
+    }
+}
@@ -0,0 +1,94 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class PriceIndexTest {
+
+    @Test
+    public void rangesMatchFilteringTheStream() {
+        Random random = new Random(2);
+        for (int i = 0; i < 300; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 40);
+            PriceIndex index = PriceIndex.of(menu);
+            checkAgainst(RandomMenus.items(menu), index, random);
+            for (int s = 0; s < menu.getSections().size(); s++) {
+                checkAgainst(menu.getSections().get(s).getItems(), index.section(s), random);
+            }
+        }
+    }
+
+    @Test
+    public void sectionsCanBeFoundByName() {
+        PriceIndex index = PriceIndex.of(createMenu());
+
+        assertThat(index.section("Lunch").size()).isEqualTo(3);
+        assertThat(index.section("Lunch").min().getAsDouble()).isEqualTo(3.0);
+    }
+
+    @Test
+    public void badSectionsAreRejected() {
+        PriceIndex index = PriceIndex.of(createMenu());
+        try {
+            index.section("Brunch");
+            fail("Expected an unknown section to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Brunch");
+        }
+        try {
+            index.section(0).section(0);
+            fail("Expected a section index to have no sections");
+        } catch (UnsupportedOperationException expected) {
+            assertThat(expected.getMessage()).contains("section");
+        }
+    }
+
+    @Test
+    public void emptyRangesAreEmpty() {
+        PriceIndex index = PriceIndex.of(createMenu());
+
+        assertThat(index.count(5, 1)).isEqualTo(0);
+        assertThat(index.ordinals(5, 1).count()).isEqualTo(0);
+        assertThat(PriceIndex.of(new Menu()).min().isPresent()).isFalse();
+        assertThat(PriceIndex.of(new Menu()).max().isPresent()).isFalse();
+    }
+
+    private static void checkAgainst(List<Food> items, PriceIndex index, Random random) {
+        double low = RandomMenus.price(random);
+        double high = random.nextBoolean() ? low + random.nextInt(800) / 100.0 : RandomMenus.price(random);
+
+        assertThat(index.size()).isEqualTo(items.size());
+        assertThat((long) index.count(low, high))
+                .isEqualTo(items.stream().filter(f -> f.getPrice() >= low && f.getPrice() < high).count());
+        assertThat((long) index.countAtLeast(low))
+                .isEqualTo(items.stream().filter(f -> f.getPrice() >= low).count());
+        assertThat((long) index.countBelow(low))
+                .isEqualTo(items.stream().filter(f -> f.getPrice() < low).count());
+        assertThat(index.min().isPresent()).isEqualTo(!items.isEmpty());
+        if (!items.isEmpty()) {
+            assertThat(index.min().getAsDouble())
+                    .isEqualTo(items.stream().mapToDouble(Food::getPrice).min().getAsDouble());
+            assertThat(index.max().getAsDouble())
+                    .isEqualTo(items.stream().mapToDouble(Food::getPrice).max().getAsDouble());
+        }
+
+        // A stable sort keeps items of equal price in menu order.
+        List<String> expected = items.stream()
+                .filter(f -> f.getPrice() >= low && f.getPrice() < high)
+                .sorted(Comparator.comparingDouble(Food::getPrice))
+                .map(f -> f.getName() + "@" + f.getPrice())
+                .collect(Collectors.toList());
+        assertThat(index.items(low, high).map(f -> f.getName() + "@" + f.getPrice()).collect(Collectors.toList()))
+                .isEqualTo(expected);
+    }
+}
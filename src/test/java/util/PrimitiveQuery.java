@@ -0,0 +1,238 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Queries over the items of a {@link ColumnarMenu} whose results stay
+ * primitive: prices come back as {@code double}/{@link OptionalDouble} and
+ * items as their ordinal in an {@link OptionalInt}, never as a boxed
+ * {@code Double} or a {@link Food}.
+ *
+ * Predicates and projections are ordinary {@code Predicate<Food>} and
+ * {@code ToDoubleFunction<Food>}, so {@code Food::isGlutenFree} and
+ * {@code Food::getPrice} work as they do on a stream. They are handed a
+ * single cursor that is moved from item to item rather than a new object
+ * per item, so a query allocates nothing per element. Do not hold on to
+ * the {@link Food} passed to them; use the ordinal instead.
+ *
+ * <pre>
+ *     OptionalDouble cheapestDinnerPrice = PrimitiveQuery.of(menu)
+ *             .section("Dinner")
+ *             .min(f -> true, Food::getPrice);
+ * </pre>
+ */
+public class PrimitiveQuery {
+
+    final ColumnarMenu menu;
+    private final int from;
+    private final int to;
+
+    private PrimitiveQuery(ColumnarMenu menu, int from, int to) {
+        this.menu = menu;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static PrimitiveQuery of(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        return new PrimitiveQuery(columns, 0, columns.size());
+    }
+
+    public ColumnarMenu menu() {
+        return menu;
+    }
+
+    /**
+     * The same query over only the named section's items.
+     *
+     * @throws IllegalArgumentException if the menu has no such section
+     */
+    public PrimitiveQuery section(String name) {
+        for (int s = 0; s < menu.sectionCount(); s++) {
+            if (menu.sectionName(s).equals(name)) {
+                return new PrimitiveQuery(menu, menu.sectionStart(s), menu.sectionEnd(s));
+            }
+        }
+        throw new IllegalArgumentException("No section named " + name);
+    }
+
+    public long count(Predicate<? super Food> where) {
+        Cursor cursor = new Cursor(menu);
+        long count = 0;
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The sum of the projected values, added up by a
+     * {@link DoubleSummaryStatistics} so that it is the same as
+     * {@code DoubleStream.sum()} over the matching items in menu order.
+     */
+    public double sum(Predicate<? super Food> where, ToDoubleFunction<? super Food> projection) {
+        Cursor cursor = new Cursor(menu);
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                statistics.accept(projection.applyAsDouble(cursor));
+            }
+        }
+        return statistics.getSum();
+    }
+
+    public OptionalInt findFirst(Predicate<? super Food> where) {
+        Cursor cursor = new Cursor(menu);
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                return OptionalInt.of(ordinal);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    public OptionalDouble findFirst(Predicate<? super Food> where, ToDoubleFunction<? super Food> projection) {
+        Cursor cursor = new Cursor(menu);
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                return OptionalDouble.of(projection.applyAsDouble(cursor));
+            }
+        }
+        return OptionalDouble.empty();
+    }
+
+    public boolean anyMatch(Predicate<? super Food> where) {
+        return findFirst(where).isPresent();
+    }
+
+    public OptionalDouble min(Predicate<? super Food> where, ToDoubleFunction<? super Food> projection) {
+        return reduce(where, projection, Math::min);
+    }
+
+    public OptionalDouble max(Predicate<? super Food> where, ToDoubleFunction<? super Food> projection) {
+        return reduce(where, projection, Math::max);
+    }
+
+    /**
+     * The ordinal of the first matching item with the smallest key.
+     */
+    public OptionalInt minBy(Predicate<? super Food> where, ToDoubleFunction<? super Food> key) {
+        return extremeBy(where, key, -1);
+    }
+
+    /**
+     * The ordinal of the first matching item with the largest key.
+     */
+    public OptionalInt maxBy(Predicate<? super Food> where, ToDoubleFunction<? super Food> key) {
+        return extremeBy(where, key, 1);
+    }
+
+    public double reduce(Predicate<? super Food> where, ToDoubleFunction<? super Food> projection,
+                         double identity, DoubleBinaryOperator op) {
+        Cursor cursor = new Cursor(menu);
+        double result = identity;
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                result = op.applyAsDouble(result, projection.applyAsDouble(cursor));
+            }
+        }
+        return result;
+    }
+
+    public OptionalDouble reduce(Predicate<? super Food> where, ToDoubleFunction<? super Food> projection,
+                                 DoubleBinaryOperator op) {
+        Cursor cursor = new Cursor(menu);
+        boolean found = false;
+        double result = 0.0;
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                double value = projection.applyAsDouble(cursor);
+                result = found ? op.applyAsDouble(result, value) : value;
+                found = true;
+            }
+        }
+        return found ? OptionalDouble.of(result) : OptionalDouble.empty();
+    }
+
+    /**
+     * Reduces matching items by ordinal, the primitive form of
+     * {@code reduce((f1, f2) -> f1.getPrice() < f2.getPrice() ? f1 : f2)}:
+     * <pre>
+     *     query.reduce(where, (a, b) -> menu.price(a) < menu.price(b) ? a : b)
+     * </pre>
+     */
+    public OptionalInt reduce(Predicate<? super Food> where, IntBinaryOperator op) {
+        Cursor cursor = new Cursor(menu);
+        int result = -1;
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                result = result < 0 ? ordinal : op.applyAsInt(result, ordinal);
+            }
+        }
+        return result < 0 ? OptionalInt.empty() : OptionalInt.of(result);
+    }
+
+    private OptionalInt extremeBy(Predicate<? super Food> where, ToDoubleFunction<? super Food> key,
+                                  int direction) {
+        Cursor cursor = new Cursor(menu);
+        int best = -1;
+        double bestKey = 0.0;
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (where.test(cursor.moveTo(ordinal))) {
+                double value = key.applyAsDouble(cursor);
+                if (best < 0 || Double.compare(value, bestKey) * direction > 0) {
+                    best = ordinal;
+                    bestKey = value;
+                }
+            }
+        }
+        return best < 0 ? OptionalInt.empty() : OptionalInt.of(best);
+    }
+
+    /**
+     * A reusable {@link Food} that is pointed at one item after another.
+     * The public price and gluten-free fields are plain column reads and
+     * are filled in on every move. The name is only looked up when
+     * {@link #getName()} is called, since a {@link MenuSnapshot} decodes a
+     * new string for it, and the last name is kept by its dictionary code
+     * so that asking again, or for a repeated name, decodes nothing.
+     */
+    static final class Cursor extends Food {
+        private final ColumnarMenu menu;
+        private int ordinal = -1;
+        private int nameCode = -1;
+
+        Cursor(ColumnarMenu menu) {
+            super(null, false, 0.0);
+            this.menu = menu;
+        }
+
+        Cursor moveTo(int ordinal) {
+            this.ordinal = ordinal;
+            glutenFree = menu.isGlutenFree(ordinal);
+            price = menu.price(ordinal);
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            int code = menu.nameCode(ordinal);
+            if (code != nameCode) {
+                name = menu.dictionary.get(code);
+                nameCode = code;
+            }
+            return name;
+        }
+    }
+}
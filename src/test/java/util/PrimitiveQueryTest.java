@@ -0,0 +1,120 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class PrimitiveQueryTest {
+
+    @Test
+    public void sumMatchesDoubleStreamSum() {
+        Random random = new Random(12);
+        for (int i = 0; i < 500; i++) {
+            Menu menu = RandomMenus.menu(random, 4, 40);
+            PrimitiveQuery query = PrimitiveQuery.of(menu);
+
+            assertThat(query.sum(food -> true, Food::getPrice))
+                    .isEqualTo(items(menu).mapToDouble(Food::getPrice).sum());
+            assertThat(query.sum(Food::isGlutenFree, Food::getPrice))
+                    .isEqualTo(items(menu).filter(Food::isGlutenFree).mapToDouble(Food::getPrice).sum());
+        }
+    }
+
+    @Test
+    public void sectionQueriesMatchTheStream() {
+        Menu menu = createMenu();
+        PrimitiveQuery dinner = PrimitiveQuery.of(menu).section("Dinner");
+
+        assertThat(dinner.count(food -> true)).isEqualTo(4);
+        assertThat(dinner.min(food -> true, Food::getPrice).getAsDouble()).isEqualTo(8.0);
+        assertThat(dinner.max(Food::isGlutenFree, Food::getPrice).getAsDouble()).isEqualTo(11.0);
+        assertThat(dinner.sum(food -> true, Food::getPrice)).isEqualTo(38.0);
+        assertThat(dinner.menu().name(dinner.minBy(food -> true, Food::getPrice).getAsInt()))
+                .isEqualTo("Cheese Burger");
+        assertThat(dinner.menu().name(dinner.maxBy(food -> true, Food::getPrice).getAsInt()))
+                .isEqualTo("Chicken Parmesan");
+        assertThat(dinner.findFirst(food -> food.getPrice() > 9.5, Food::getPrice).getAsDouble()).isEqualTo(11.0);
+    }
+
+    @Test
+    public void extremesKeepTheFirstOfEqualItems() {
+        PrimitiveQuery query = PrimitiveQuery.of(createMenu());
+        ColumnarMenu columns = query.menu();
+
+        assertThat(columns.name(query.minBy(food -> true, Food::getPrice).getAsInt())).isEqualTo("eggs");
+        OptionalInt cheapest = query.reduce(food -> true,
+                (a, b) -> columns.price(a) <= columns.price(b) ? a : b);
+        assertThat(columns.name(cheapest.getAsInt())).isEqualTo("eggs");
+    }
+
+    @Test
+    public void emptyQueriesMatchNothing() {
+        PrimitiveQuery query = PrimitiveQuery.of(ColumnarMenu.builder().section("Closed").build()).section("Closed");
+
+        assertThat(query.count(food -> true)).isEqualTo(0);
+        assertThat(query.sum(food -> true, Food::getPrice)).isEqualTo(0.0);
+        OptionalDouble min = query.min(food -> true, Food::getPrice);
+        assertThat(min.isPresent()).isFalse();
+        assertThat(query.anyMatch(food -> true)).isFalse();
+    }
+
+    @Test
+    public void unknownSectionsAreRejected() {
+        try {
+            PrimitiveQuery.of(createMenu()).section("Brunch");
+            fail("Expected an unknown section to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).isEqualTo("No section named Brunch");
+        }
+    }
+
+    @Test
+    public void namesAreOnlyLookedUpWhenAskedFor() {
+        ColumnarMenu columns = ColumnarMenu.of(createMenu());
+        AtomicInteger lookups = new AtomicInteger();
+        ColumnarMenu.Dictionary names = columns.dictionary;
+        ColumnarMenu counted = new ColumnarMenu(columns.sectionNames, columns.sectionOffsets, columns.prices,
+                columns.priceScale, columns.attributes, columns.nameCodes, new ColumnarMenu.Dictionary() {
+                    @Override
+                    public int size() {
+                        return names.size();
+                    }
+
+                    @Override
+                    public String get(int code) {
+                        lookups.incrementAndGet();
+                        return names.get(code);
+                    }
+
+                    @Override
+                    public String[] toArray() {
+                        return names.toArray();
+                    }
+                });
+        PrimitiveQuery query = PrimitiveQuery.of(counted);
+
+        assertThat(query.sum(Food::isGlutenFree, Food::getPrice)).isEqualTo(31.0);
+        assertThat(query.count(food -> food.price > 3.0)).isEqualTo(6);
+        assertThat(lookups.get()).isEqualTo(0);
+
+        assertThat(query.count(food -> food.getName().startsWith("Chicken") && food.getName().endsWith("Salad")))
+                .isEqualTo(1);
+        // Each item's name is decoded once, however often it is asked for.
+        assertThat(lookups.get()).isEqualTo(counted.size());
+        assertThat(query.findFirst(food -> food.getName().equals("toast")).getAsInt()).isEqualTo(3);
+    }
+
+    private static Stream<Food> items(Menu menu) {
+        return menu.getSections().stream().flatMap(section -> section.getItems().stream());
+    }
+}
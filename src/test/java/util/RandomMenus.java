@@ -0,0 +1,96 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Random menus for the tests in this package, so that each structure can be
+ * checked against the plain stream over many menus rather than one.
+ */
+final class RandomMenus {
+
+    private static final String[] WORDS = {
+            "pancakes", "eggs", "toast", "muffins", "B.L.T.", "Chicken Salad", "Turkey Wrap",
+            "Cheese Burger", "Salmon and Rice", "soup", "pie", "waffles", "Chicken Parmesan"
+    };
+
+    private RandomMenus() {
+    }
+
+    /**
+     * A menu of up to {@code maxSections} sections, some of them empty,
+     * with up to {@code maxItems} items each. Names repeat, and prices are
+     * as {@link #price(Random)} gives them.
+     */
+    static Menu menu(Random random, int maxSections, int maxItems) {
+        return menu(random, maxSections, maxItems, RandomMenus::price);
+    }
+
+    /**
+     * As {@link #menu(Random, int, int)}, but every price is whole cents,
+     * for the exact {@link Money} types.
+     */
+    static Menu pricedInCents(Random random, int maxSections, int maxItems) {
+        return menu(random, maxSections, maxItems, RandomMenus::cents);
+    }
+
+    private static Menu menu(Random random, int maxSections, int maxItems, ToDoubleFunction<Random> price) {
+        int sectionCount = 1 + random.nextInt(maxSections);
+        Section[] sections = new Section[sectionCount];
+        for (int s = 0; s < sectionCount; s++) {
+            int itemCount = random.nextInt(4) == 0 ? 0 : random.nextInt(maxItems + 1);
+            List<Food> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(new Food(name(random), random.nextBoolean(), price.applyAsDouble(random)));
+            }
+            sections[s] = new Section("Section " + s, items);
+        }
+        return new Menu(sections);
+    }
+
+    /**
+     * Every item of the menu in menu order, as the plain stream sees them.
+     */
+    static List<Food> items(Menu menu) {
+        return menu.getSections().stream()
+                .flatMap(section -> section.getItems().stream())
+                .collect(Collectors.toList());
+    }
+
+    static String name(Random random) {
+        String word = WORDS[random.nextInt(WORDS.length)];
+        return random.nextBoolean() ? word : word + " " + random.nextInt(100);
+    }
+
+    /**
+     * Mostly whole cents below twenty dollars, but now and then a price in
+     * tenths of a cent or one with no exact decimal scale at all, such as
+     * {@code 0.1 + 0.2} or a third.
+     */
+    static double price(Random random) {
+        switch (random.nextInt(10)) {
+            case 0:
+                return random.nextInt(20000) / 1000.0;
+            case 1:
+                return random.nextInt(20) / 10.0 + random.nextInt(20) / 10.0;
+            case 2:
+                return random.nextInt(60) / 3.0;
+            default:
+                return cents(random);
+        }
+    }
+
+    /**
+     * Whole cents below twenty dollars.
+     */
+    static double cents(Random random) {
+        return random.nextInt(2000) / 100.0;
+    }
+}
@@ -0,0 +1,206 @@
+package util;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoField;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A schedule of dates a fixed {@link Period} apart, such as a quarterly
+ * meeting or a fortnightly pay day.
+ *
+ * <pre>
+ *     Recurrence meetings = Recurrence.of(LocalDate.of(2016, Month.FEBRUARY, 2), Period.ofMonths(3));
+ *     LocalDate fifth = meetings.get(4);
+ *     LocalDate next = meetings.firstAfter(today);
+ * </pre>
+ *
+ * Occurrence {@code n} is {@code start.plus(period.multipliedBy(n))}, always
+ * counted from the start, so month ends are clamped just as
+ * {@link LocalDate#plus} clamps them but the clamping never builds up: a
+ * monthly schedule from January 31 gives February 29 and then March 31.
+ * Adding the period to the previous occurrence instead would give March 29.
+ *
+ * Any occurrence, or the first one after a date, is found in constant time
+ * from the start's year, month and day, so there is no walking the schedule
+ * and nothing is allocated for the epoch-day forms. The streams are lazy;
+ * {@link #between} knows its size up front and splits evenly in parallel.
+ */
+public final class Recurrence {
+
+    private static final double DAYS_PER_MONTH = 146097 / 4800.0;
+
+    private final LocalDate start;
+    private final Period period;
+    private final long startMonths;
+    private final int startDay;
+    private final long months;
+    private final long days;
+    private final double daysPerStep;
+
+    private Recurrence(LocalDate start, Period period) {
+        this.start = start;
+        this.period = period;
+        this.startMonths = start.getYear() * 12L + start.getMonthValue() - 1;
+        this.startDay = start.getDayOfMonth();
+        this.months = period.toTotalMonths();
+        this.days = period.getDays();
+        this.daysPerStep = months * DAYS_PER_MONTH + days;
+    }
+
+    /**
+     * Every {@code period} from {@code start}. The period must move forward:
+     * no part of it negative, and not all of it zero.
+     */
+    public static Recurrence of(LocalDate start, Period period) {
+        if (period.isZero() || period.getYears() < 0 || period.getMonths() < 0 || period.getDays() < 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        return new Recurrence(start, period);
+    }
+
+    public static Recurrence everyDays(LocalDate start, int days) {
+        return of(start, Period.ofDays(days));
+    }
+
+    public static Recurrence everyMonths(LocalDate start, int months) {
+        return of(start, Period.ofMonths(months));
+    }
+
+    public static Recurrence everyYears(LocalDate start, int years) {
+        return of(start, Period.ofYears(years));
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    /**
+     * Occurrence {@code n}, counting the start as zero.
+     */
+    public LocalDate get(long n) {
+        return LocalDate.ofEpochDay(epochDay(n));
+    }
+
+    /**
+     * The epoch day of occurrence {@code n}.
+     */
+    public long epochDay(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Occurrence must not be negative: " + n);
+        }
+        long total = Math.addExact(startMonths, Math.multiplyExact(months, n));
+        long year = Math.floorDiv(total, 12);
+        int month = (int) Math.floorMod(total, 12) + 1;
+        ChronoField.YEAR.checkValidValue(year);
+        int day = Math.min(startDay, lengthOfMonth(year, month));
+        long epochDay = Math.addExact(epochDay(year, month, day), Math.multiplyExact(days, n));
+        return ChronoField.EPOCH_DAY.checkValidValue(epochDay);
+    }
+
+    /**
+     * The number of the first occurrence strictly after {@code date}.
+     */
+    public long indexAfter(LocalDate date) {
+        return indexAtOrAfter(date.toEpochDay() + 1);
+    }
+
+    public LocalDate firstAfter(LocalDate date) {
+        return get(indexAfter(date));
+    }
+
+    public LocalDate firstOnOrAfter(LocalDate date) {
+        return get(indexAtOrAfter(date.toEpochDay()));
+    }
+
+    /**
+     * Every occurrence from the start on, without end.
+     */
+    public Stream<LocalDate> stream() {
+        return epochDays().mapToObj(LocalDate::ofEpochDay);
+    }
+
+    public LongStream epochDays() {
+        return LongStream.iterate(0, n -> n + 1).map(this::epochDay);
+    }
+
+    /**
+     * The occurrences on or after {@code from} and before {@code to}.
+     */
+    public Stream<LocalDate> between(LocalDate from, LocalDate to) {
+        return epochDaysBetween(from, to).mapToObj(LocalDate::ofEpochDay);
+    }
+
+    public LongStream epochDaysBetween(LocalDate from, LocalDate to) {
+        long first = indexAtOrAfter(from.toEpochDay());
+        long end = Math.max(first, indexAtOrAfter(to.toEpochDay()));
+        return LongStream.range(first, end).map(this::epochDay);
+    }
+
+    /**
+     * The first occurrence on or after the epoch day. Occurrences are on
+     * average {@link #daysPerStep} apart, and month lengths and clamping
+     * only move them a few days from that average, so the estimate is
+     * corrected in a few steps whatever the distance.
+     */
+    private long indexAtOrAfter(long epochDay) {
+        long first = epochDay(0);
+        if (epochDay <= first) {
+            return 0;
+        }
+        long n = (long) ((epochDay - first) / daysPerStep);
+        while (n > 0 && epochDay(n - 1) >= epochDay) {
+            n--;
+        }
+        while (epochDay(n) < epochDay) {
+            n++;
+        }
+        return n;
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeap(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeap(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * {@link LocalDate#toEpochDay()} without the {@code LocalDate}.
+     */
+    private static long epochDay(long year, int month, int day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total -= isLeap(year) ? 1 : 2;
+        }
+        return total - 719528;
+    }
+
+    @Override
+    public String toString() {
+        return "Recurrence{" + start + " every " + period + '}';
+    }
+}
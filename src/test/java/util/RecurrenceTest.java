@@ -0,0 +1,145 @@
+package util;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RecurrenceTest {
+
+    @Test
+    public void occurrencesAreCountedFromTheStart() {
+        Random random = new Random(39);
+        for (int round = 0; round < 500; round++) {
+            LocalDate start = date(random);
+            Period period = period(random);
+            Recurrence recurrence = Recurrence.of(start, period);
+            for (int i = 0; i < 20; i++) {
+                long n = random.nextInt(4) == 0 ? i : random.nextInt(5000);
+                LocalDate expected = start.plus(period.multipliedBy((int) n));
+                assertThat(recurrence.get(n)).as(recurrence + " #" + n).isEqualTo(expected);
+                assertThat(recurrence.epochDay(n)).isEqualTo(expected.toEpochDay());
+            }
+            assertThat(recurrence.stream().limit(5).collect(Collectors.toList())).isEqualTo(walk(start, period, 5));
+        }
+    }
+
+    @Test
+    public void searchesMatchAWalkOverTheSchedule() {
+        Random random = new Random(40);
+        for (int round = 0; round < 500; round++) {
+            LocalDate start = date(random);
+            Period period = period(random);
+            Recurrence recurrence = Recurrence.of(start, period);
+            List<LocalDate> schedule = walk(start, period, 200);
+            LocalDate last = schedule.get(schedule.size() - 1);
+            for (int i = 0; i < 20; i++) {
+                LocalDate date = start.plusDays(random.nextInt((int) (last.toEpochDay() - start.toEpochDay()))
+                        - random.nextInt(30));
+                long after = firstIndex(schedule, d -> d.isAfter(date));
+                long onOrAfter = firstIndex(schedule, d -> !d.isBefore(date));
+
+                assertThat(recurrence.indexAfter(date)).as(recurrence + " after " + date).isEqualTo(after);
+                assertThat(recurrence.firstAfter(date)).isEqualTo(schedule.get((int) after));
+                assertThat(recurrence.firstOnOrAfter(date)).isEqualTo(schedule.get((int) onOrAfter));
+
+                LocalDate to = date.plusDays(random.nextInt(2000) - 100);
+                List<LocalDate> between = new ArrayList<>();
+                for (int n = 0; start.plus(period.multipliedBy(n)).isBefore(to); n++) {
+                    LocalDate occurrence = start.plus(period.multipliedBy(n));
+                    if (!occurrence.isBefore(date)) {
+                        between.add(occurrence);
+                    }
+                }
+                assertThat(recurrence.between(date, to).collect(Collectors.toList())).isEqualTo(between);
+                assertThat(recurrence.between(date, to).parallel().collect(Collectors.toList())).isEqualTo(between);
+                assertThat(recurrence.epochDaysBetween(date, to).count()).isEqualTo(between.size());
+            }
+        }
+    }
+
+    @Test
+    public void monthEndsDoNotDrift() {
+        Recurrence monthly = Recurrence.everyMonths(LocalDate.of(2016, Month.JANUARY, 31), 1);
+
+        assertThat(monthly.stream().limit(4).collect(Collectors.toList())).containsExactly(
+                LocalDate.of(2016, Month.JANUARY, 31), LocalDate.of(2016, Month.FEBRUARY, 29),
+                LocalDate.of(2016, Month.MARCH, 31), LocalDate.of(2016, Month.APRIL, 30));
+    }
+
+    @Test
+    public void periodsMustMoveForward() {
+        for (Period period : new Period[]{Period.ZERO, Period.ofDays(-1), Period.of(1, -1, 0), Period.of(0, 1, -3)}) {
+            try {
+                Recurrence.of(LocalDate.of(2016, 1, 1), period);
+                fail("Expected " + period + " to be rejected");
+            } catch (IllegalArgumentException expected) {
+                assertThat(expected.getMessage()).contains(period.toString());
+            }
+        }
+    }
+
+    @Test
+    public void occurrencesMustBeInRange() {
+        Recurrence yearly = Recurrence.everyYears(LocalDate.of(2016, 1, 1), 1);
+        try {
+            yearly.get(-1);
+            fail("Expected a negative occurrence to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("-1");
+        }
+        try {
+            yearly.get(2_000_000_000L);
+            fail("Expected a year past the end of time to be rejected");
+        } catch (DateTimeException expected) {
+            assertThat(expected.getMessage()).contains("Year");
+        }
+    }
+
+    private static long firstIndex(List<LocalDate> schedule, Predicate<LocalDate> predicate) {
+        for (int i = 0; i < schedule.size(); i++) {
+            if (predicate.test(schedule.get(i))) {
+                return i;
+            }
+        }
+        throw new AssertionError("Schedule too short");
+    }
+
+    private static List<LocalDate> walk(LocalDate start, Period period, int count) {
+        List<LocalDate> dates = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            dates.add(start.plus(period.multipliedBy(n)));
+        }
+        return dates;
+    }
+
+    private static LocalDate date(Random random) {
+        return LocalDate.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1).plusDays(random.nextInt(31));
+    }
+
+    /**
+     * Days, months, years or a mix, often ending on a short month's end.
+     */
+    private static Period period(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return Period.ofDays(1 + random.nextInt(40));
+            case 1:
+                return Period.ofMonths(1 + random.nextInt(25));
+            case 2:
+                return Period.ofYears(1 + random.nextInt(4));
+            default:
+                return Period.of(random.nextInt(2), random.nextInt(14), random.nextInt(20)).plusDays(1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package util;
+
+/**
+ * Primitive sorting helpers shared by the menu indexes.
+ */
+final class Sorting {
+
+    private Sorting() {
+    }
+
+    /**
+     * Sorts {@code ordinals[from, to)} by {@code keys[ordinal]}. The sort is
+     * stable, so ordinals with equal keys keep their relative order.
+     */
+    static void sortByKey(int[] ordinals, double[] keys, int from, int to) {
+        int[] scratch = new int[to - from];
+        mergeSort(ordinals, scratch, keys, from, to);
+    }
+
+    private static void mergeSort(int[] ordinals, int[] scratch, double[] keys, int from, int to) {
+        if (to - from < 16) {
+            insertionSort(ordinals, keys, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(ordinals, scratch, keys, from, mid);
+        mergeSort(ordinals, scratch, keys, mid, to);
+        if (Double.compare(keys[ordinals[mid - 1]], keys[ordinals[mid]]) <= 0) {
+            return;
+        }
+        int length = mid - from;
+        System.arraycopy(ordinals, from, scratch, 0, length);
+        int left = 0;
+        int right = mid;
+        int out = from;
+        while (left < length && right < to) {
+            if (Double.compare(keys[ordinals[right]], keys[scratch[left]]) < 0) {
+                ordinals[out++] = ordinals[right++];
+            } else {
+                ordinals[out++] = scratch[left++];
+            }
+        }
+        System.arraycopy(scratch, left, ordinals, out, length - left);
+    }
+
+    private static void insertionSort(int[] ordinals, double[] keys, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int ordinal = ordinals[i];
+            double key = keys[ordinal];
+            int j = i - 1;
+            while (j >= from && Double.compare(keys[ordinals[j]], key) > 0) {
+                ordinals[j + 1] = ordinals[j];
+                j--;
+            }
+            ordinals[j + 1] = ordinal;
+        }
+    }
+
+    /**
+     * The first index in {@code sorted[from, to)} whose value is not less
+     * than {@code key}, or {@code to} if there is none.
+     */
+    static int lowerBound(double[] sorted, int from, int to, double key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,244 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * The K smallest or largest elements by a {@code double} key, without sorting
+ * everything to take K.
+ *
+ * Both the collectors and the {@link Menu} variants keep a bounded heap of
+ * the best K seen so far in parallel primitive arrays, so accepting an
+ * element allocates nothing and costs O(log K) at worst. Parallel results
+ * are merged by offering one heap's K entries into the other.
+ *
+ * Results come back best first. Elements with equal keys keep their
+ * encounter order, the way a stable sort followed by {@code limit(k)} would,
+ * and that holds for parallel streams too.
+ *
+ * <pre>
+ *     List&lt;Food&gt; cheapestThree = dinner.getItems().stream().collect(TopK.cheapest(3));
+ *     List&lt;Food&gt; priciest = TopK.mostExpensive(menu, 5);
+ * </pre>
+ */
+public final class TopK {
+
+    private static final int ASCENDING = 1;
+    private static final int DESCENDING = -1;
+
+    private TopK() {
+    }
+
+    public static <T> Collector<T, ?, List<T>> smallest(int k, ToDoubleFunction<? super T> key) {
+        return collector(k, key, ASCENDING);
+    }
+
+    public static <T> Collector<T, ?, List<T>> largest(int k, ToDoubleFunction<? super T> key) {
+        return collector(k, key, DESCENDING);
+    }
+
+    public static Collector<Food, ?, List<Food>> cheapest(int k) {
+        return smallest(k, Food::getPrice);
+    }
+
+    public static Collector<Food, ?, List<Food>> mostExpensive(int k) {
+        return largest(k, Food::getPrice);
+    }
+
+    /**
+     * The {@code k} cheapest items on the menu, read straight from the price
+     * column of its {@link ColumnarMenu} form.
+     */
+    public static List<Food> cheapest(Menu menu, int k) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        return ofMenu(columns, 0, columns.size(), k, ASCENDING);
+    }
+
+    public static List<Food> cheapest(Menu menu, String section, int k) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int s = sectionIndex(columns, section);
+        return ofMenu(columns, columns.sectionStart(s), columns.sectionEnd(s), k, ASCENDING);
+    }
+
+    public static List<Food> mostExpensive(Menu menu, int k) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        return ofMenu(columns, 0, columns.size(), k, DESCENDING);
+    }
+
+    public static List<Food> mostExpensive(Menu menu, String section, int k) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int s = sectionIndex(columns, section);
+        return ofMenu(columns, columns.sectionStart(s), columns.sectionEnd(s), k, DESCENDING);
+    }
+
+    private static <T> Collector<T, ?, List<T>> collector(int k, ToDoubleFunction<? super T> key, int direction) {
+        checkK(k);
+        return Collector.<T, Heap, List<T>>of(
+                () -> new Heap(k, direction, true),
+                (heap, t) -> heap.offer(key.applyAsDouble(t), heap.seen++, t),
+                Heap::merge,
+                Heap::toList);
+    }
+
+    private static List<Food> ofMenu(ColumnarMenu menu, int from, int to, int k, int direction) {
+        checkK(k);
+        Heap heap = new Heap(k, direction, false);
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            heap.offer(menu.price(ordinal), ordinal, null);
+        }
+        int size = heap.drain();
+        List<Food> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(menu.item((int) heap.sequences[i]));
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private static int sectionIndex(ColumnarMenu menu, String name) {
+        for (int s = 0; s < menu.sectionCount(); s++) {
+            if (menu.sectionName(s).equals(name)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("No section named " + name);
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+    }
+
+    /**
+     * A heap of at most K entries with the worst kept entry at the root, so
+     * a new entry only has to beat the root to get in. Entries are ordered by
+     * key in the heap's direction and then by sequence number.
+     */
+    static final class Heap {
+        final int direction;
+        final double[] keys;
+        final long[] sequences;
+        final Object[] values;
+        int size;
+        long seen;
+
+        Heap(int k, int direction, boolean withValues) {
+            this.direction = direction;
+            this.keys = new double[k];
+            this.sequences = new long[k];
+            this.values = withValues ? new Object[k] : null;
+        }
+
+        void offer(double key, long sequence, Object value) {
+            if (size < keys.length) {
+                set(size, key, sequence, value);
+                siftUp(size++);
+            } else if (size > 0 && before(key, sequence, keys[0], sequences[0])) {
+                set(0, key, sequence, value);
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * Adds the entries of a heap that came later in encounter order.
+         */
+        Heap merge(Heap later) {
+            for (int i = 0; i < later.size; i++) {
+                offer(later.keys[i], seen + later.sequences[i], later.values[i]);
+            }
+            seen += later.seen;
+            return this;
+        }
+
+        <T> List<T> toList() {
+            int count = drain();
+            List<T> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                @SuppressWarnings("unchecked")
+                T value = (T) values[i];
+                list.add(value);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        /**
+         * Heap sorts the entries in place, best first, and returns how many
+         * there are. The heap is no longer a heap afterwards.
+         */
+        int drain() {
+            int count = size;
+            for (int end = count - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            size = 0;
+            return count;
+        }
+
+        /**
+         * Whether the first entry ranks ahead of the second.
+         */
+        private boolean before(double key, long sequence, double otherKey, long otherSequence) {
+            int c = Double.compare(key, otherKey) * direction;
+            return c < 0 || c == 0 && sequence < otherSequence;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(keys[parent], sequences[parent], keys[i], sequences[i])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < end && before(keys[worst], sequences[worst], keys[left], sequences[left])) {
+                    worst = left;
+                }
+                if (right < end && before(keys[worst], sequences[worst], keys[right], sequences[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void set(int i, double key, long sequence, Object value) {
+            keys[i] = key;
+            sequences[i] = sequence;
+            if (values != null) {
+                values[i] = value;
+            }
+        }
+
+        private void swap(int i, int j) {
+            double key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long sequence = sequences[i];
+            sequences[i] = sequences[j];
+            sequences[j] = sequence;
+            if (values != null) {
+                Object value = values[i];
+                values[i] = values[j];
+                values[j] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class TopKTest {
+
+    private static final Comparator<Food> CHEAPEST = Comparator.comparingDouble(Food::getPrice);
+
+    @Test
+    public void collectorsMatchASortAndLimit() {
+        Random random = new Random(17);
+        for (int round = 0; round < 200; round++) {
+            List<Food> items = RandomMenus.items(RandomMenus.menu(random, 3, 40));
+            int k = random.nextInt(12);
+
+            assertThat(items.stream().collect(TopK.cheapest(k)))
+                    .containsExactlyElementsOf(sortedLimit(items, CHEAPEST, k));
+            assertThat(items.parallelStream().collect(TopK.cheapest(k)))
+                    .containsExactlyElementsOf(sortedLimit(items, CHEAPEST, k));
+            assertThat(items.parallelStream().collect(TopK.mostExpensive(k)))
+                    .containsExactlyElementsOf(sortedLimit(items, CHEAPEST.reversed(), k));
+        }
+    }
+
+    @Test
+    public void menuVariantsMatchASortAndLimit() {
+        Random random = new Random(18);
+        for (int round = 0; round < 200; round++) {
+            Menu menu = RandomMenus.menu(random, 3, 40);
+            int k = random.nextInt(12);
+
+            assertThat(describe(TopK.cheapest(menu, k)))
+                    .isEqualTo(describe(sortedLimit(RandomMenus.items(menu), CHEAPEST, k)));
+            assertThat(describe(TopK.mostExpensive(menu, k)))
+                    .isEqualTo(describe(sortedLimit(RandomMenus.items(menu), CHEAPEST.reversed(), k)));
+            for (Section section : menu.getSections()) {
+                assertThat(describe(TopK.cheapest(menu, section.getName(), k)))
+                        .isEqualTo(describe(sortedLimit(section.getItems(), CHEAPEST, k)));
+                assertThat(describe(TopK.mostExpensive(menu, section.getName(), k)))
+                        .isEqualTo(describe(sortedLimit(section.getItems(), CHEAPEST.reversed(), k)));
+            }
+        }
+    }
+
+    @Test
+    public void equalPricesKeepMenuOrder() {
+        assertThat(describe(TopK.cheapest(createMenu(), 3)))
+                .containsExactly("eggs 1.0", "toast 1.0", "pancakes 2.0");
+        assertThat(describe(TopK.mostExpensive(createMenu(), "Breakfast", 2)))
+                .containsExactly("buckwheat pancakes 3.0", "muffins 3.0");
+    }
+
+    @Test
+    public void rejectsBadArguments() {
+        try {
+            TopK.cheapest(-1);
+            fail("Expected a negative k to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("-1");
+        }
+        try {
+            TopK.cheapest(createMenu(), "Brunch", 2);
+            fail("Expected an unknown section to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("Brunch");
+        }
+    }
+
+    private static List<Food> sortedLimit(List<Food> items, Comparator<Food> order, int k) {
+        return items.stream().sorted(order).limit(k).collect(Collectors.toList());
+    }
+
+    /**
+     * The menu variants build their items afresh from the columns, so they
+     * are compared by name and price.
+     */
+    private static List<String> describe(List<Food> items) {
+        return items.stream().map(food -> food.getName() + " " + food.getPrice()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,147 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A trigram inverted index over item names, for answering
+ * {@code filter(f -> f.getName().contains(text))} without calling
+ * {@link String#contains} on every item.
+ *
+ * Every run of three characters in a name is a trigram, and each trigram
+ * keeps a sorted posting list of the ordinals whose name contains it. A
+ * query walks the shortest posting list among the query's trigrams, skips
+ * ordinals missing from any other list, and only then checks the remaining
+ * candidates with {@link String#contains}, so results are exactly what the
+ * linear scan returns, in menu order. Queries shorter than three characters
+ * have no trigrams and fall back to checking every item.
+ */
+public class TrigramIndex {
+
+    final ColumnarMenu menu;
+    private final long[] trigrams;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private TrigramIndex(ColumnarMenu menu, long[] trigrams, int[] offsets, int[] postings) {
+        this.menu = menu;
+        this.trigrams = trigrams;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    public static TrigramIndex of(Menu menu) {
+        ColumnarMenu columns = ColumnarMenu.of(menu);
+        int size = columns.size();
+
+        // First pass: every name's distinct trigrams, to find the key set.
+        long[] all = new long[Math.max(16, size)];
+        int total = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            long[] item = trigramsOf(columns.name(ordinal));
+            if (total + item.length > all.length) {
+                all = Arrays.copyOf(all, Math.max(all.length * 2, total + item.length));
+            }
+            System.arraycopy(item, 0, all, total, item.length);
+            total += item.length;
+        }
+        long[] trigrams = distinct(all, total);
+
+        // Second pass: count, then fill, posting lists. Ordinals are visited
+        // in order so every list comes out sorted.
+        int[] offsets = new int[trigrams.length + 1];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            for (long trigram : trigramsOf(columns.name(ordinal))) {
+                offsets[Arrays.binarySearch(trigrams, trigram) + 1]++;
+            }
+        }
+        for (int i = 0; i < trigrams.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] postings = new int[total];
+        int[] next = Arrays.copyOf(offsets, trigrams.length);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            for (long trigram : trigramsOf(columns.name(ordinal))) {
+                postings[next[Arrays.binarySearch(trigrams, trigram)]++] = ordinal;
+            }
+        }
+        return new TrigramIndex(columns, trigrams, offsets, postings);
+    }
+
+    /**
+     * Ordinals of the items whose name contains {@code text}, in menu order.
+     */
+    public IntStream ordinalsContaining(String text) {
+        if (text.length() < 3) {
+            return menu.ordinals().filter(ordinal -> menu.name(ordinal).contains(text));
+        }
+        long[] query = trigramsOf(text);
+        int[] lists = new int[query.length];
+        int shortest = 0;
+        for (int i = 0; i < query.length; i++) {
+            int found = Arrays.binarySearch(trigrams, query[i]);
+            if (found < 0) {
+                return IntStream.empty();
+            }
+            lists[i] = found;
+            if (length(found) < length(lists[shortest])) {
+                shortest = i;
+            }
+        }
+        int driver = lists[shortest];
+        return Arrays.stream(postings, offsets[driver], offsets[driver + 1])
+                .filter(ordinal -> inAll(lists, driver, ordinal))
+                .filter(ordinal -> menu.name(ordinal).contains(text));
+    }
+
+    /**
+     * The items whose name contains {@code text}, in menu order.
+     */
+    public Stream<Food> itemsContaining(String text) {
+        return ordinalsContaining(text).mapToObj(menu::item);
+    }
+
+    private boolean inAll(int[] lists, int skip, int ordinal) {
+        for (int list : lists) {
+            if (list != skip
+                    && Arrays.binarySearch(postings, offsets[list], offsets[list + 1], ordinal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int length(int list) {
+        return offsets[list + 1] - offsets[list];
+    }
+
+    /**
+     * The sorted, distinct trigrams of {@code text}, each packed as three
+     * 16-bit chars.
+     */
+    static long[] trigramsOf(CharSequence text) {
+        int count = Math.max(0, text.length() - 2);
+        long[] trigrams = new long[count];
+        for (int i = 0; i < count; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32)
+                    | ((long) text.charAt(i + 1) << 16)
+                    | text.charAt(i + 2);
+        }
+        return distinct(trigrams, count);
+    }
+
+    private static long[] distinct(long[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int unique = 0;
+        for (int i = 0; i < length; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique == values.length ? values : Arrays.copyOf(values, unique);
+    }
+}
@@ -0,0 +1,65 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static util.LessonResources.createMenu;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void searchesMatchFilteringWithContains() {
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            Menu menu = RandomMenus.menu(random, 5, 40);
+            TrigramIndex index = TrigramIndex.of(menu);
+            List<Food> items = RandomMenus.items(menu);
+            for (int k = 0; k < 30; k++) {
+                String text = query(random);
+                assertThat(names(index.itemsContaining(text).collect(Collectors.toList())))
+                        .as(text)
+                        .isEqualTo(names(items.stream().filter(f -> f.getName().contains(text))
+                                .collect(Collectors.toList())));
+            }
+        }
+    }
+
+    @Test
+    public void shortAndEmptyQueriesScanEveryItem() {
+        TrigramIndex index = TrigramIndex.of(createMenu());
+
+        assertThat(index.ordinalsContaining("").count()).isEqualTo(12);
+        assertThat(index.ordinalsContaining("gg").toArray()).containsExactly(2);
+        assertThat(index.ordinalsContaining("Chicken").toArray()).containsExactly(6, 10);
+        assertThat(index.ordinalsContaining("chicken").count()).isEqualTo(0);
+    }
+
+    /**
+     * Pieces of real names, so most queries hit something, and some that
+     * only the trigram filter can rule out.
+     */
+    private static String query(Random random) {
+        String name = RandomMenus.name(random);
+        switch (random.nextInt(4)) {
+            case 0:
+                return name;
+            case 1:
+                int from = random.nextInt(name.length());
+                return name.substring(from, Math.min(name.length(), from + 1 + random.nextInt(6)));
+            case 2:
+                return name + "x";
+            default:
+                return "ken" + random.nextInt(10);
+        }
+    }
+
+    private static List<String> names(List<Food> foods) {
+        return foods.stream().map(Food::getName).collect(Collectors.toList());
+    }
+}
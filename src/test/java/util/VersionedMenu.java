@@ -0,0 +1,246 @@
+package util;
+
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A menu that can be changed while other threads read it.
+ *
+ * Every version is an immutable {@link Snapshot}. Readers call
+ * {@link #current()} and get a menu that will never change under them, with
+ * no locking; a stream over it sees one consistent version even if the menu
+ * is repriced halfway through. Writers describe their changes to a
+ * {@link Batch} and {@link #update} publishes the result as the next version
+ * with a compare-and-set.
+ *
+ * Sections and their item lists are persistent structures, so a new version
+ * shares every unchanged section, and every unchanged part of a changed
+ * section, with the one before it. A batch costs O(log n) per changed item
+ * rather than a copy of the catalog.
+ *
+ * <pre>
+ *     VersionedMenu menu = new VersionedMenu(LessonResources.createMenu());
+ *     menu.update(batch -> batch.reprice(batch.sectionIndex("Dinner"), 0, 9.5));
+ * </pre>
+ */
+public class VersionedMenu {
+
+    private final AtomicReference<Snapshot> current;
+
+    /**
+     * Starts at version 0 with a copy of the given menu.
+     */
+    public VersionedMenu(Menu menu) {
+        List<Section> sections = new ArrayList<>();
+        for (Section section : menu.getSections()) {
+            List<Food> items = new ArrayList<>(section.getItems().size());
+            for (Food food : section.getItems()) {
+                items.add(Item.of(food));
+            }
+            sections.add(new SnapshotSection(section.getName(), PersistentList.of(items)));
+        }
+        current = new AtomicReference<>(new Snapshot(0, PersistentList.of(sections)));
+    }
+
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Applies {@code changes} to a batch over the current version and
+     * publishes it as the next one. If another writer got there first, the
+     * changes are applied again on top of the newer version, so they may run
+     * more than once and should do nothing but edit the batch.
+     *
+     * @return the version that is now current
+     */
+    public Snapshot update(Consumer<? super Batch> changes) {
+        while (true) {
+            Snapshot base = current.get();
+            Batch batch = base.edit();
+            changes.accept(batch);
+            if (!batch.isChanged()) {
+                return base;
+            }
+            Snapshot next = batch.build();
+            if (current.compareAndSet(base, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Publishes {@code next} only if {@code expected} is still current, for
+     * writers that want to handle a conflict themselves.
+     */
+    public boolean compareAndSet(Snapshot expected, Snapshot next) {
+        if (next.version != expected.version + 1) {
+            throw new IllegalArgumentException("Version " + next.version + " does not follow " + expected.version);
+        }
+        return current.compareAndSet(expected, next);
+    }
+
+    /**
+     * One immutable version of the menu.
+     */
+    public static class Snapshot extends Menu {
+        final long version;
+
+        Snapshot(long version, PersistentList<Section> sections) {
+            this.version = version;
+            this.sections = sections;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * A batch of changes starting from this version.
+         */
+        public Batch edit() {
+            return new Batch(this);
+        }
+    }
+
+    /**
+     * Changes to be published together as the next version. Items are
+     * addressed by section index and position within the section.
+     */
+    public static class Batch {
+        private final Snapshot base;
+        private PersistentList<Section> sections;
+
+        Batch(Snapshot base) {
+            this.base = base;
+            this.sections = (PersistentList<Section>) base.sections;
+        }
+
+        /**
+         * The index of the first section with this name, or -1.
+         */
+        public int sectionIndex(String name) {
+            for (int s = 0; s < sections.size(); s++) {
+                if (sections.get(s).getName().equals(name)) {
+                    return s;
+                }
+            }
+            return -1;
+        }
+
+        public Food get(int section, int index) {
+            return sections.get(section).getItems().get(index);
+        }
+
+        public Batch set(int section, int index, Food food) {
+            SnapshotSection current = (SnapshotSection) sections.get(section);
+            return replace(section, new SnapshotSection(current.getName(), current.items().with(index, Item.of(food))));
+        }
+
+        public Batch reprice(int section, int index, double price) {
+            Food food = get(section, index);
+            return set(section, index, new Item(food.getName(), food.isGlutenFree(), price));
+        }
+
+        public Batch setGlutenFree(int section, int index, boolean glutenFree) {
+            Food food = get(section, index);
+            return set(section, index, new Item(food.getName(), glutenFree, food.getPrice()));
+        }
+
+        public Batch add(int section, Food food) {
+            SnapshotSection current = (SnapshotSection) sections.get(section);
+            return replace(section, new SnapshotSection(current.getName(), current.items().plus(Item.of(food))));
+        }
+
+        /**
+         * Removes an item; the items after it move up one place. Removing a
+         * section's last item is O(log n) like the other changes, but any
+         * other removal copies the rest of the section.
+         */
+        public Batch remove(int section, int index) {
+            SnapshotSection current = (SnapshotSection) sections.get(section);
+            return replace(section, new SnapshotSection(current.getName(), current.items().without(index)));
+        }
+
+        /**
+         * Adds an empty section at the end of the menu and returns its index.
+         */
+        public int addSection(String name) {
+            sections = sections.plus(new SnapshotSection(name, PersistentList.<Food>empty()));
+            return sections.size() - 1;
+        }
+
+        boolean isChanged() {
+            return sections != base.sections;
+        }
+
+        /**
+         * The next version. Building does not publish it; use
+         * {@link VersionedMenu#update} or {@link VersionedMenu#compareAndSet}.
+         */
+        public Snapshot build() {
+            return new Snapshot(base.version + 1, sections);
+        }
+
+        private Batch replace(int section, SnapshotSection replacement) {
+            sections = sections.with(section, replacement);
+            return this;
+        }
+    }
+
+    /**
+     * A food whose values are fixed when it is created. The inherited fields
+     * hold the same values, but the getters read final copies, so writes to
+     * the public fields cannot change what a snapshot reports.
+     */
+    public static final class Item extends Food {
+        private final String fixedName;
+        private final boolean fixedGlutenFree;
+        private final double fixedPrice;
+
+        Item(String name, boolean glutenFree, double price) {
+            super(name, glutenFree, price);
+            this.fixedName = name;
+            this.fixedGlutenFree = glutenFree;
+            this.fixedPrice = price;
+        }
+
+        static Item of(Food food) {
+            return food instanceof Item
+                    ? (Item) food
+                    : new Item(food.getName(), food.isGlutenFree(), food.getPrice());
+        }
+
+        @Override
+        public String getName() {
+            return fixedName;
+        }
+
+        @Override
+        public boolean isGlutenFree() {
+            return fixedGlutenFree;
+        }
+
+        @Override
+        public double getPrice() {
+            return fixedPrice;
+        }
+    }
+
+    static final class SnapshotSection extends Section {
+
+        SnapshotSection(String name, PersistentList<Food> items) {
+            super(name, items);
+        }
+
+        PersistentList<Food> items() {
+            return (PersistentList<Food>) items;
+        }
+    }
+}
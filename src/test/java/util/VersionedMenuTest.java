@@ -0,0 +1,165 @@
+package util;
+
+import org.junit.Test;
+import util.LessonResources.Food;
+import util.LessonResources.Menu;
+import util.LessonResources.Section;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static util.LessonResources.createMenu;
+
+public class VersionedMenuTest {
+
+    @Test
+    public void batchesMatchEditingAPlainMenu() {
+        Random random = new Random(18);
+        for (int i = 0; i < 100; i++) {
+            Menu start = RandomMenus.menu(random, 4, 40);
+            VersionedMenu menu = new VersionedMenu(start);
+            List<List<String>> expected = describe(start);
+            for (int version = 1; version <= 30; version++) {
+                VersionedMenu.Snapshot before = menu.current();
+                List<List<String>> unchanged = describe(before);
+                menu.update(batch -> edit(batch, random, expected));
+
+                assertThat(describe(menu.current())).isEqualTo(expected);
+                assertThat(describe(before)).isEqualTo(unchanged);
+            }
+        }
+    }
+
+    @Test
+    public void itemsFillInTheirFieldsAndIgnoreWritesToThem() {
+        VersionedMenu menu = new VersionedMenu(createMenu());
+        Food pancakes = menu.current().getSections().get(0).getItems().get(0);
+
+        assertThat(pancakes.getName()).isEqualTo("pancakes");
+        assertThat(pancakes.price).isEqualTo(2.0);
+        assertThat(pancakes.glutenFree).isFalse();
+
+        pancakes.price = 100.0;
+        assertThat(pancakes.getPrice()).isEqualTo(2.0);
+    }
+
+    @Test
+    public void removalKeepsTheOrderOfTheRest() {
+        VersionedMenu menu = new VersionedMenu(createMenu());
+        VersionedMenu.Snapshot next = menu.update(batch -> batch.remove(batch.sectionIndex("Breakfast"), 1));
+
+        assertThat(next.getVersion()).isEqualTo(1);
+        assertThat(names(next.getSections().get(0))).containsExactly("pancakes", "eggs", "toast", "muffins");
+        try {
+            menu.update(batch -> batch.remove(0, 4));
+            fail("Expected removing past the end to fail");
+        } catch (IndexOutOfBoundsException expected) {
+            assertThat(menu.current()).isSameAs(next);
+        }
+    }
+
+    @Test
+    public void concurrentWritersAllGetIn() throws Exception {
+        VersionedMenu menu = new VersionedMenu(createMenu());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    for (int k = 0; k < 250; k++) {
+                        String name = "special " + writer + "-" + k;
+                        menu.update(batch -> batch.add(batch.sectionIndex("Dinner"), new Food(name, true, 5.0)));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(menu.current().getVersion()).isEqualTo(1000);
+        assertThat(menu.current().getSections().get(2).getItems()).hasSize(1004);
+    }
+
+    @Test
+    public void compareAndSetOnlyTakesTheNextVersion() {
+        VersionedMenu menu = new VersionedMenu(createMenu());
+        VersionedMenu.Snapshot base = menu.current();
+        VersionedMenu.Snapshot next = base.edit().reprice(0, 0, 2.5).build();
+        try {
+            menu.compareAndSet(base, next.edit().reprice(0, 0, 3.0).build());
+            fail("Expected a version that skips one to be rejected");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage()).contains("does not follow");
+        }
+
+        VersionedMenu.Batch late = base.edit();
+        late.addSection("Late");
+
+        assertThat(menu.compareAndSet(base, next)).isTrue();
+        assertThat(menu.compareAndSet(base, late.build())).isFalse();
+        assertThat(menu.current().getSections().get(0).getItems().get(0).getPrice()).isEqualTo(2.5);
+    }
+
+    private static void edit(VersionedMenu.Batch batch, Random random, List<List<String>> expected) {
+        int changes = 1 + random.nextInt(3);
+        for (int c = 0; c < changes; c++) {
+            int section = random.nextInt(expected.size());
+            List<String> items = expected.get(section);
+            int action = items.isEmpty() ? random.nextInt(2) : random.nextInt(6);
+            Food food = new Food(RandomMenus.name(random), random.nextBoolean(), RandomMenus.price(random));
+            if (action == 0) {
+                batch.add(section, food);
+                items.add(describe(food));
+            } else if (action == 1) {
+                int added = batch.addSection("Section " + expected.size());
+                assertThat(added).isEqualTo(expected.size());
+                expected.add(new ArrayList<>());
+            } else {
+                int index = random.nextInt(items.size());
+                Food old = batch.get(section, index);
+                if (action == 2) {
+                    batch.set(section, index, food);
+                    items.set(index, describe(food));
+                } else if (action == 3) {
+                    batch.reprice(section, index, food.getPrice());
+                    items.set(index, describe(new Food(old.getName(), old.isGlutenFree(), food.getPrice())));
+                } else if (action == 4) {
+                    batch.setGlutenFree(section, index, !old.isGlutenFree());
+                    items.set(index, describe(new Food(old.getName(), !old.isGlutenFree(), old.getPrice())));
+                } else {
+                    batch.remove(section, index);
+                    items.remove(index);
+                }
+            }
+        }
+    }
+
+    private static List<List<String>> describe(Menu menu) {
+        List<List<String>> sections = new ArrayList<>();
+        for (Section section : menu.getSections()) {
+            sections.add(section.getItems().stream().map(VersionedMenuTest::describe)
+                    .collect(Collectors.toCollection(ArrayList::new)));
+        }
+        return sections;
+    }
+
+    private static String describe(Food food) {
+        return food.getName() + "|" + food.isGlutenFree() + "|" + food.getPrice();
+    }
+
+    private static List<String> names(Section section) {
+        return section.getItems().stream().map(Food::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,207 @@
+package util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * One time zone's offsets over a range of years, flattened into primitive
+ * arrays for converting timestamps in bulk.
+ *
+ * Instants are epoch seconds. Local date-times are "local seconds": the
+ * epoch second the same wall-clock reading would have in UTC, so
+ * {@code LocalDateTime.toEpochSecond(ZoneOffset.UTC)}. Converting either way
+ * is a binary search over the zone's transitions in range, with no
+ * {@link ZoneId} lookup, no {@code ZonedDateTime} and nothing else allocated
+ * per value.
+ *
+ * Local times are resolved the way {@link LocalDateTime#atZone} resolves
+ * them. A time in a gap, such as 02:30 on the night clocks go forward, is
+ * moved later by the length of the gap. A time in an overlap takes the
+ * earlier offset, the one in force before the transition. Values outside
+ * the table's years are still converted correctly, just through the zone's
+ * {@link ZoneRules}.
+ *
+ * {@link #of} builds a new table each time it is called, walking the zone's
+ * transitions over the years asked for, so build one per zone and range and
+ * hold on to it for as many batches as it serves. A table never changes
+ * once built, so it can be shared between threads.
+ */
+public final class ZoneTable {
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long firstSecond;
+    private final long endSecond;
+    private final int initialOffset;
+    private final long[] instants;
+    private final int[] offsetsBefore;
+    private final int[] offsetsAfter;
+    private final long[] localStarts;
+    private final long[] localEnds;
+
+    private ZoneTable(ZoneId zone, ZoneRules rules, long firstSecond, long endSecond, int initialOffset,
+                      long[] instants, int[] offsetsBefore, int[] offsetsAfter) {
+        this.zone = zone;
+        this.rules = rules;
+        this.firstSecond = firstSecond;
+        this.endSecond = endSecond;
+        this.initialOffset = initialOffset;
+        this.instants = instants;
+        this.offsetsBefore = offsetsBefore;
+        this.offsetsAfter = offsetsAfter;
+        this.localStarts = new long[instants.length];
+        this.localEnds = new long[instants.length];
+        for (int i = 0; i < instants.length; i++) {
+            localStarts[i] = instants[i] + Math.min(offsetsBefore[i], offsetsAfter[i]);
+            localEnds[i] = instants[i] + Math.max(offsetsBefore[i], offsetsAfter[i]);
+        }
+    }
+
+    public static ZoneTable of(String zoneId, int fromYear, int toYear) {
+        return of(ZoneId.of(zoneId), fromYear, toYear);
+    }
+
+    /**
+     * The zone's offsets from the start of {@code fromYear} to the end of
+     * {@code toYear}, in UTC.
+     */
+    public static ZoneTable of(ZoneId zone, int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("Years out of order: " + fromYear + " > " + toYear);
+        }
+        ZoneRules rules = zone.getRules();
+        long firstSecond = LocalDateTime.of(fromYear, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long endSecond = LocalDateTime.of(toYear + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        // Start a day early so that local times early on the first day,
+        // which are still in the previous UTC year east of Greenwich, are
+        // covered by the table too.
+        Instant start = Instant.ofEpochSecond(firstSecond - 86400);
+        int initialOffset = rules.getOffset(start).getTotalSeconds();
+
+        long[] instants = new long[16];
+        int[] before = new int[16];
+        int[] after = new int[16];
+        int count = 0;
+        for (ZoneOffsetTransition transition = rules.nextTransition(start);
+             transition != null && transition.toEpochSecond() < endSecond + 86400;
+             transition = rules.nextTransition(transition.getInstant())) {
+            if (count == instants.length) {
+                instants = Arrays.copyOf(instants, count * 2);
+                before = Arrays.copyOf(before, count * 2);
+                after = Arrays.copyOf(after, count * 2);
+            }
+            instants[count] = transition.toEpochSecond();
+            before[count] = transition.getOffsetBefore().getTotalSeconds();
+            after[count] = transition.getOffsetAfter().getTotalSeconds();
+            count++;
+        }
+        return new ZoneTable(zone, rules, firstSecond - 86400, endSecond + 86400, initialOffset,
+                Arrays.copyOf(instants, count), Arrays.copyOf(before, count), Arrays.copyOf(after, count));
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * How many transitions fall within the table's years.
+     */
+    public int transitionCount() {
+        return instants.length;
+    }
+
+    /**
+     * The zone's offset in seconds at the given instant.
+     */
+    public int offsetAt(long epochSecond) {
+        if (epochSecond < firstSecond || epochSecond >= endSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        int i = lastAtOrBefore(instants, epochSecond);
+        return i < 0 ? initialOffset : offsetsAfter[i];
+    }
+
+    public long toLocal(long epochSecond) {
+        return epochSecond + offsetAt(epochSecond);
+    }
+
+    /**
+     * The instant of a local date-time in this zone, resolved as
+     * {@code atZone} does.
+     */
+    public long toEpochSecond(long localSecond) {
+        if (localSecond < firstSecond || localSecond >= endSecond) {
+            LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+            return local.atZone(zone).toEpochSecond();
+        }
+        int i = lastAtOrBefore(localStarts, localSecond);
+        if (i < 0) {
+            return localSecond - initialOffset;
+        }
+        // Inside a gap or overlap, atZone keeps the offset from before the
+        // transition: an overlap takes the earlier offset, and a gap time is
+        // pushed forward by the gap, which comes to the same instant.
+        return localSecond < localEnds[i] ? localSecond - offsetsBefore[i] : localSecond - offsetsAfter[i];
+    }
+
+    /**
+     * Converts {@code epochSeconds[from, to)} to local seconds, written to
+     * {@code localSeconds} from {@code offset}.
+     */
+    public void toLocal(long[] epochSeconds, int from, int to, long[] localSeconds, int offset) {
+        for (int i = from; i < to; i++) {
+            localSeconds[offset + i - from] = toLocal(epochSeconds[i]);
+        }
+    }
+
+    public void toLocal(long[] epochSeconds, long[] localSeconds) {
+        toLocal(epochSeconds, 0, epochSeconds.length, localSeconds, 0);
+    }
+
+    /**
+     * Converts instants to local dates and times of day as separate columns,
+     * the epoch day and the second within that day.
+     */
+    public void toLocalFields(long[] epochSeconds, int from, int to, int[] epochDays, int[] secondsOfDay,
+                              int offset) {
+        for (int i = from; i < to; i++) {
+            long local = toLocal(epochSeconds[i]);
+            long day = Math.floorDiv(local, 86400);
+            epochDays[offset + i - from] = Math.toIntExact(day);
+            secondsOfDay[offset + i - from] = (int) (local - day * 86400);
+        }
+    }
+
+    /**
+     * Converts {@code localSeconds[from, to)} to instants, written to
+     * {@code epochSeconds} from {@code offset}.
+     */
+    public void toEpochSeconds(long[] localSeconds, int from, int to, long[] epochSeconds, int offset) {
+        for (int i = from; i < to; i++) {
+            epochSeconds[offset + i - from] = toEpochSecond(localSeconds[i]);
+        }
+    }
+
+    public void toEpochSeconds(long[] localSeconds, long[] epochSeconds) {
+        toEpochSeconds(localSeconds, 0, localSeconds.length, epochSeconds, 0);
+    }
+
+    private static int lastAtOrBefore(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,109 @@
+package util;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZoneTableTest {
+
+    private static final String[] ZONES = {
+            "America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kathmandu", "Pacific/Apia",
+            "America/St_Johns", "UTC"
+    };
+
+    private static final long FROM = LocalDateTime.of(1990, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long TO = LocalDateTime.of(2030, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    @Test
+    public void offsetsMatchTheZoneRules() {
+        Random random = new Random(31);
+        for (String id : ZONES) {
+            ZoneTable table = ZoneTable.of(id, 2000, 2020);
+            ZoneRules rules = ZoneId.of(id).getRules();
+            for (int i = 0; i < 20000; i++) {
+                long epochSecond = FROM + (long) (random.nextDouble() * (TO - FROM));
+                int expected = rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+                assertThat(table.offsetAt(epochSecond)).as(id + " at " + epochSecond).isEqualTo(expected);
+                assertThat(table.toLocal(epochSecond)).isEqualTo(epochSecond + expected);
+            }
+        }
+    }
+
+    @Test
+    public void localTimesResolveAsAtZoneDoes() {
+        Random random = new Random(32);
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            ZoneTable table = ZoneTable.of(zone, 2000, 2020);
+            for (int i = 0; i < 20000; i++) {
+                checkLocal(table, zone, FROM + (long) (random.nextDouble() * (TO - FROM)));
+            }
+            // Either side of, and inside, every gap and overlap.
+            ZoneRules rules = zone.getRules();
+            for (ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(FROM));
+                 transition != null && transition.toEpochSecond() < TO;
+                 transition = rules.nextTransition(transition.getInstant())) {
+                long before = transition.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC);
+                long after = transition.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC);
+                for (long local = Math.min(before, after) - 2; local <= Math.max(before, after) + 2; local++) {
+                    checkLocal(table, zone, local);
+                }
+                checkLocal(table, zone, (before + after) / 2);
+            }
+        }
+    }
+
+    @Test
+    public void bulkConversionsMatchTheSingleOnes() {
+        Random random = new Random(33);
+        ZoneTable table = ZoneTable.of("Europe/London", 2010, 2012);
+        long[] epochSeconds = new long[1000];
+        for (int i = 0; i < epochSeconds.length; i++) {
+            epochSeconds[i] = FROM + (long) (random.nextDouble() * (TO - FROM));
+        }
+        long[] local = new long[epochSeconds.length];
+        table.toLocal(epochSeconds, local);
+        long[] back = new long[local.length];
+        table.toEpochSeconds(local, back);
+        int[] days = new int[epochSeconds.length + 2];
+        int[] seconds = new int[epochSeconds.length + 2];
+        table.toLocalFields(epochSeconds, 0, epochSeconds.length, days, seconds, 2);
+
+        for (int i = 0; i < epochSeconds.length; i++) {
+            LocalDateTime expected = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds[i]),
+                    ZoneId.of("Europe/London"));
+            assertThat(local[i]).isEqualTo(table.toLocal(epochSeconds[i]));
+            assertThat(back[i]).isEqualTo(table.toEpochSecond(local[i]));
+            assertThat(days[i + 2]).isEqualTo((int) expected.toLocalDate().toEpochDay());
+            assertThat(seconds[i + 2]).isEqualTo(expected.toLocalTime().toSecondOfDay());
+        }
+    }
+
+    @Test
+    public void eachCallBuildsItsOwnTable() {
+        ZoneTable first = ZoneTable.of("America/New_York", 2016, 2016);
+        ZoneTable second = ZoneTable.of("America/New_York", 2016, 2016);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.transitionCount()).isEqualTo(2);
+        assertThat(second.transitionCount()).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void yearsMustBeInOrder() {
+        ZoneTable.of("UTC", 2020, 2019);
+    }
+
+    private static void checkLocal(ZoneTable table, ZoneId zone, long localSecond) {
+        long expected = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC).atZone(zone).toEpochSecond();
+        assertThat(table.toEpochSecond(localSecond)).as(zone + " at local " + localSecond).isEqualTo(expected);
+    }
+}